@@ -3,9 +3,13 @@ package com.agile.projet.controller;
 
 
 
+import com.agile.projet.model.DemandeDelivery;
 import com.agile.projet.model.Noeud;
 import com.agile.projet.model.PickupDeliveryModel;
+import com.agile.projet.model.Plan;
 import com.agile.projet.model.Tournee;
+import com.agile.projet.utils.Echeance;
+import com.agile.projet.utils.RegistrePlans;
 import com.agile.projet.utils.XmlPlanParser;
 
 import java.awt.*;
@@ -17,10 +21,13 @@ import java.nio.file.StandardCopyOption;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.MediaType;
 import org.slf4j.Logger;
@@ -39,6 +46,9 @@ public class ApiController {
     @Autowired
     Controller controller;
 
+    @Autowired
+    PoolCalcul poolCalcul;
+
 
     @GetMapping("/") //if a request goes to the root of our web site, it will be called (argument "/")
     public void index() throws Exception {
@@ -63,12 +73,13 @@ public class ApiController {
 
     // New endpoint: accepts uploaded XML files (plan + request) and returns full TSP path
         @PostMapping(path = "/get-tsp", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
-        public Map<String, Object> getTspFromFiles(
+        public ResponseEntity<Map<String, Object>> getTspFromFiles(
             @RequestPart("plan") MultipartFile planXml,
             @RequestPart("request") MultipartFile requestXml,
             @RequestParam(name = "nDrivers", required = false) Integer nDrivers,
             @RequestParam(name = "speedFactor", required = false) Double speedFactor,
-            @RequestParam(name = "maxSeconds", required = false) Integer maxSeconds
+            @RequestParam(name = "maxSeconds", required = false) Integer maxSeconds,
+            @RequestParam(name = "timeLimitMs", required = false) Long timeLimitMs
         ) throws Exception {
         System.out.println("getTspFromFiles called");
         log.info("Received plan file: {}", planXml != null ? planXml.getOriginalFilename() : "<null>");
@@ -80,47 +91,31 @@ public class ApiController {
             throw new IllegalArgumentException("Le fichier de demande XML est requis.");
         }
 
-        // Save under target/classes/plans and target/classes/requests so classpath lookups can find them
-        Path classpathRoot = Paths.get("target/classes");
-        Path plansDir = classpathRoot.resolve("plans");
-        Path requestsDir = classpathRoot.resolve("requests");
-        if (!Files.exists(plansDir)) Files.createDirectories(plansDir);
-        if (!Files.exists(requestsDir)) Files.createDirectories(requestsDir);
-
-        Path planPath = plansDir.resolve(planXml.getOriginalFilename());
-        Path requestPath = requestsDir.resolve(requestXml.getOriginalFilename());
-        Files.copy(planXml.getInputStream(), planPath, StandardCopyOption.REPLACE_EXISTING);
-        Files.copy(requestXml.getInputStream(), requestPath, StandardCopyOption.REPLACE_EXISTING);
-        log.info("Saved plan to {}", planPath.toAbsolutePath());
-        log.info("Saved request to {}", requestPath.toAbsolutePath());
+        // Per-request contents: nothing is written to disk, the plan is keyed by its content hash in RegistrePlans
+        byte[] planBytes = planXml.getBytes();
+        byte[] requestBytes = requestXml.getBytes();
 
         try {
-            // Use filenames as in existing controller API (resolved from classpath root)
-            String planName = "plans/" + planPath.getFileName().toString();
-            String requestName = "requests/" + requestPath.getFileName().toString();
-
-            controller.createPlan(planName);
-            controller.createDeliveryFromXml(requestName);
-            controller.computeShortestPaths();
-
-            int nbDeliveries = controller.pickupDeliveryModel.demandeDelivery.getDeliveries().size();
-
             // Parameters with defaults if not provided
             int drivers = (nDrivers != null && nDrivers > 0) ? nDrivers : 2;
             double sf = (speedFactor != null && speedFactor > 0) ? speedFactor : 4.0;
             int limit = (maxSeconds != null && maxSeconds > 0) ? maxSeconds : 3600;
-
-            List<Tournee> tournees = controller.findBalancedPathsForNDrivers(drivers, sf, limit);
-            List<List<Long>> paths = controller.buildFullPathNTournées(tournees);
-
-            log.info("TSP computation completed successfully.");
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("paths", paths);
-            response.put("nbCouriers", paths.size()); // Actual number of couriers used
-            response.put("nbDeliveries", nbDeliveries);
-
-            return response;
+            Echeance echeance = echeance(timeLimitMs);
+
+            // CPU-bound part on the compute pool; this (virtual) request thread only waits
+            return ResponseEntity.ok(poolCalcul.executer(() -> {
+                // Contexte propre à cette requête : plan partagé (lecture seule), demande et matrices dédiées
+                ContexteResolution contexte = ContexteResolution.charger(planBytes, requestBytes);
+                Controller.Resolution resolution = controller.resoudre(contexte, drivers, sf, limit, echeance,
+                        null, poolCalcul.getParallele());
+
+                log.info("TSP computation completed successfully.");
+
+                return reponse(resolution, contexte.getNbDeliveries());
+            }, echeance));
+        } catch (RejectedExecutionException e) {
+            log.warn("POST /get-tsp rejected, compute queue full");
+            return fileCalculPleine();
         } catch (Exception e) {
             log.error("TSP computation failed: {}", e.getMessage(), e);
             throw new IllegalArgumentException("Impossible de calculer le TSP: " + e.getMessage(), e);
@@ -134,25 +129,32 @@ public class ApiController {
             @RequestParam(required = false) String requestName,
             @RequestParam(name = "nDrivers", required = false) Integer nDrivers,
             @RequestParam(name = "speedFactor", required = false) Double speedFactor,
-            @RequestParam(name = "maxSeconds", required = false) Integer maxSeconds
+            @RequestParam(name = "maxSeconds", required = false) Integer maxSeconds,
+            @RequestParam(name = "timeLimitMs", required = false) Long timeLimitMs
         ) {
         try {
             log.info("GET /get-tsp called with planName={}, requestName={}", planName, requestName);
 
-            // If parameters provided, load them
+            // If parameters provided, load them (per request); otherwise fall back on the snapshots published
+            // by /load-plan and the legacy endpoints (never mutated, safe to read concurrently)
+            Plan plan = controller.getPlanCharge();
             if (planName != null && !planName.isEmpty()) {
                 try {
-                    controller.createPlan("plans/" + planName);
+                    plan = poolCalcul.executer(() -> RegistrePlans.global().obtenir("plans/" + planName));
                     log.info("Plan loaded: {}", planName);
+                } catch (RejectedExecutionException e) {
+                    log.warn("GET /get-tsp rejected, compute queue full");
+                    return fileCalculPleine();
                 } catch (Exception e) {
                     log.error("Failed to load plan {}: {}", planName, e.getMessage(), e);
                     return ResponseEntity.badRequest().body(null);
                 }
             }
 
+            DemandeDelivery demande = controller.getDemandeChargee();
             if (requestName != null && !requestName.isEmpty()) {
                 try {
-                    controller.createDeliveryFromXml("requests/" + requestName);
+                    demande = ContexteResolution.lireDemande("requests/" + requestName);
                     log.info("Delivery request loaded: {}", requestName);
                 } catch (Exception e) {
                     log.error("Failed to load delivery request {}: {}", requestName, e.getMessage(), e);
@@ -161,44 +163,66 @@ public class ApiController {
             }
 
             // Check if plan and delivery are loaded
-            if (controller.pickupDeliveryModel.plan == null) {
+            if (plan == null) {
                 log.warn("No plan loaded - cannot compute TSP");
                 return ResponseEntity.badRequest().body(null);
             }
-            if (controller.pickupDeliveryModel.demandeDelivery == null) {
+            if (demande == null) {
                 log.warn("No delivery request loaded - cannot compute TSP");
                 return ResponseEntity.badRequest().body(null);
             }
 
-            log.info("Computing shortest paths...");
-            controller.computeShortestPaths();
-
-            int nbDeliveries = controller.pickupDeliveryModel.demandeDelivery.getDeliveries().size();
-
             // Use params if provided, otherwise defaults
             double sf = (speedFactor != null && speedFactor > 0) ? speedFactor : 4.0;
             int limit = (maxSeconds != null && maxSeconds > 0) ? maxSeconds : 3600;
 
             int drivers = (nDrivers != null && nDrivers > 0) ? nDrivers : 2;
             System.out.println("Using nDrivers=" + drivers + ", speedFactor=" + sf + ", maxSeconds=" + limit);
-            List<Tournee> tournees =  controller.findBalancedPathsForNDrivers(drivers, sf, limit);
-            List<List<Long>> paths = controller.buildFullPathNTournées(tournees);
+            Echeance echeance = echeance(timeLimitMs);
+            Plan planCalcul = plan;
+            DemandeDelivery demandeCalcul = demande;
 
-            // Build response with actual paths generated
-            Map<String, Object> response = new HashMap<>();
-            response.put("paths", paths);
-            response.put("nbCouriers", paths.size()); // Actual number of couriers used
-            response.put("nbDeliveries", nbDeliveries);
+            Map<String, Object> response = poolCalcul.executer(() -> {
+                log.info("Computing shortest paths...");
+                ContexteResolution contexte = ContexteResolution.pour(planCalcul, demandeCalcul);
+                Controller.Resolution resolution = controller.resoudre(contexte, drivers, sf, limit, echeance,
+                        null, poolCalcul.getParallele());
 
-            log.info("TSP computed successfully: {} couriers, {} paths", paths.size(), paths.size());
+                log.info("TSP computed successfully: {} couriers, {} paths",
+                        resolution.chemins().size(), resolution.chemins().size());
+                return reponse(resolution, contexte.getNbDeliveries());
+            }, echeance);
 
             return ResponseEntity.ok(response);
+        } catch (RejectedExecutionException e) {
+            log.warn("GET /get-tsp rejected, compute queue full");
+            return fileCalculPleine();
         } catch (Exception e) {
             log.error("Failed to compute TSP: {}", e.getMessage(), e);
             return ResponseEntity.internalServerError().body(null);
         }
     }
 
+    // Build response with actual paths generated
+    private static Map<String, Object> reponse(Controller.Resolution resolution, int nbDeliveries) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("paths", resolution.chemins());
+        response.put("nbCouriers", resolution.chemins().size()); // Actual number of couriers used
+        response.put("nbDeliveries", nbDeliveries);
+        response.put("optimalProven", resolution.optimaliteProuvee());
+        return response;
+    }
+
+    // Compute queue full: same answer as POST /jobs, the client retries later
+    private static <T> ResponseEntity<T> fileCalculPleine() {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "1").build();
+    }
+
+    // Compute budget for the solvers (timeLimitMs <= 0 or absent => no limit)
+    private static Echeance echeance(Long timeLimitMs) {
+        return (timeLimitMs != null && timeLimitMs > 0) ? Echeance.dans(timeLimitMs) : Echeance.aucune();
+    }
+
     @GetMapping("/get-tsp2") //if a request goes to the root of our web site, it will be called (argument "/")
     public List<Long>  getTsp() throws Exception {
         controller.createPlan("grandPlan.xml");
@@ -230,7 +254,7 @@ public class ApiController {
 
 
         //controller.solveTwoDriverTspExample();
-        List<Tournee> tournees =  controller.findBestPathsForNDrivers(4);
+        List<Tournee> tournees =  controller.findBestPathsForNDrivers(4, poolCalcul.getParallele());
         //List<Long> tournee1 = controller.buildFullPathArgument(tournees.get(0));
         //List<Long> tournee2 = controller.buildFullPathArgument(tournees.get(1));
         //System.out.println("Tournee 1: " + tournee1);
@@ -294,8 +318,14 @@ public class ApiController {
 
 
     @GetMapping("/load-plan/{planName}")
-    public void loadPlan(@PathVariable String planName) throws Exception {
-        controller.createPlan(planName);
+    public ResponseEntity<Void> loadPlan(@PathVariable String planName) {
+        try {
+            controller.createPlan(planName);
+        } catch (IOException e) {
+            // Same answer as GET /get-tsp for a plan that cannot be loaded
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok().build();
     }
     @GetMapping("/plans/{filename}")
     public ResponseEntity<String> getPlanFile(@PathVariable String filename) throws IOException {
@@ -0,0 +1,76 @@
+package com.agile.projet.controller;
+
+import com.agile.projet.model.DemandeDelivery;
+import com.agile.projet.model.PickupDeliveryModel;
+import com.agile.projet.model.Plan;
+import com.agile.projet.utils.CalculPlusCoursChemins;
+import com.agile.projet.utils.RegistrePlans;
+import com.agile.projet.utils.XmlDeliveryParser;
+
+import java.io.ByteArrayInputStream;
+
+/**
+ * Contexte d'une résolution, propre à une requête :
+ * - Plan partagé (RegistrePlans), uniquement lu ;
+ * - demande, matrices de coûts/chemins et solution propres à ce contexte (PickupDeliveryModel dédié).
+ * Deux contextes ne partagent aucun état modifiable : des requêtes concurrentes ne s'écrasent plus,
+ * contrairement au modèle unique du Controller (API historique createPlan / createDeliveryFromXml / ...).
+ * Un contexte n'est utilisé que par une requête à la fois.
+ */
+public final class ContexteResolution {
+
+    private final PickupDeliveryModel model;
+
+    private ContexteResolution(Plan plan, DemandeDelivery demande) {
+        if (plan == null) throw new IllegalStateException("Plan manquant.");
+        if (demande == null) throw new IllegalStateException("DemandeDelivery manquante.");
+        model = new PickupDeliveryModel();
+        model.plan = plan;
+        // Copie : les balanceurs retrient la liste des demandes en place
+        model.demandeDelivery = new DemandeDelivery(demande);
+        model.setEntrepot(demande.getEntrepot());
+
+        new CalculPlusCoursChemins().computeAstar(plan, model.demandeDelivery, model);
+    }
+
+    /** Plan (ressource classpath, via le registre partagé) et demande XML, plus courts chemins calculés. */
+    public static ContexteResolution charger(String planXml, String demandeXml) throws Exception {
+        return new ContexteResolution(RegistrePlans.global().obtenir(planXml), lireDemande(demandeXml));
+    }
+
+    /** Plan et demande reçus (contenus XML, envoi client) : aucun fichier écrit, le plan est indexé par contenu. */
+    public static ContexteResolution charger(byte[] planXml, byte[] demandeXml) throws Exception {
+        return new ContexteResolution(RegistrePlans.global().obtenir(planXml), lireDemande(demandeXml));
+    }
+
+    /** Demande XML (ressource classpath) lue sans toucher à aucun modèle partagé. */
+    public static DemandeDelivery lireDemande(String demandeXml) throws Exception {
+        PickupDeliveryModel lecture = new PickupDeliveryModel();
+        lecture.createDelivery(demandeXml);
+        return lecture.getDemandeDelivery();
+    }
+
+    /** Demande XML reçue (contenu), lue sans toucher à aucun modèle partagé. */
+    public static DemandeDelivery lireDemande(byte[] demandeXml) throws Exception {
+        DemandeDelivery demande = new DemandeDelivery();
+        new XmlDeliveryParser().parse(new ByteArrayInputStream(demandeXml), demande);
+        return demande;
+    }
+
+    /** Contexte sur un plan et une demande déjà chargés (la demande est copiée). */
+    public static ContexteResolution pour(Plan plan, DemandeDelivery demande) {
+        return new ContexteResolution(plan, demande);
+    }
+
+    public PickupDeliveryModel getModel() {
+        return model;
+    }
+
+    public Plan getPlan() {
+        return model.getPlan();
+    }
+
+    public int getNbDeliveries() {
+        return model.getDemandeDelivery().getDeliveries().size();
+    }
+}
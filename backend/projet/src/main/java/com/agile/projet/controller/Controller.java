@@ -1,31 +1,58 @@
 package com.agile.projet.controller;
 
+import com.agile.projet.model.DemandeDelivery;
 import com.agile.projet.model.Delivery;
 import com.agile.projet.model.Noeud;
 import com.agile.projet.model.PickupDeliveryModel;
+import com.agile.projet.model.Plan;
 import com.agile.projet.model.Tournee;
 import com.agile.projet.utils.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 
 @Component
 public class Controller {
     private static final Logger log = LoggerFactory.getLogger(Controller.class);
     public final PickupDeliveryModel pickupDeliveryModel = new PickupDeliveryModel();
+    private final OrdreGlobal.Strategie strategieOrdreGlobal;
     private Tournee tournee;
+    // Derniers plan et demande chargés (API historique), publiés sous le verrou pour GET /get-tsp sans paramètres :
+    // jamais modifiés, contrairement à pickupDeliveryModel que les endpoints historiques retrient en place
+    private Plan planCharge;
+    private DemandeDelivery demandeChargee;
 
     public Controller() throws Exception {
+        this(OrdreGlobal.STRATEGIE_DEFAUT);
     }
 
-    public void createPlan(String planXml) {
+    /** @param strategieOrdreGlobal stratégie de l'ordre global des pipelines multi-livreurs (ordre.global.strategie) */
+    @Autowired
+    public Controller(@Value("${ordre.global.strategie:TOURNEE_HEURISTIQUE}") OrdreGlobal.Strategie strategieOrdreGlobal) {
+        this.strategieOrdreGlobal = strategieOrdreGlobal;
+        pickupDeliveryModel.setStrategieOrdreGlobal(strategieOrdreGlobal);
+    }
+
+    public OrdreGlobal.Strategie getStrategieOrdreGlobal() {
+        return strategieOrdreGlobal;
+    }
+
+    public void createPlan(String planXml) throws IOException {
         pickupDeliveryModel.createPlan(planXml);
-        pickupDeliveryModel.plan.printNoeuds();
-        pickupDeliveryModel.plan.printTroncons();
+        synchronized (this) {
+            planCharge = pickupDeliveryModel.plan;
+        }
+        log.info("Plan {} : {} noeuds, {} tronçons", planXml,
+                pickupDeliveryModel.plan.getAllNoeuds().size(), pickupDeliveryModel.plan.getVraiTroncons().size());
     }
 
     public void printMatriceChemins() {
@@ -51,10 +78,26 @@ public class Controller {
     }
 
     public void createDeliveryFromXml(String deliveryPlanXml) throws Exception {
-        pickupDeliveryModel.createDelivery(deliveryPlanXml);
+        DemandeDelivery demande = ContexteResolution.lireDemande(deliveryPlanXml);
+        synchronized (this) {
+            demandeChargee = demande;
+        }
+        // Le modèle reçoit sa propre copie : les tris en place ne touchent pas la demande publiée
+        pickupDeliveryModel.demandeDelivery = new DemandeDelivery(demande);
+        pickupDeliveryModel.setEntrepot(demande.getEntrepot());
         pickupDeliveryModel.demandeDelivery.printDeliveries();
     }
 
+    /** Dernier plan chargé par createPlan (partagé, lecture seule), null si aucun. */
+    public synchronized Plan getPlanCharge() {
+        return planCharge;
+    }
+
+    /** Dernière demande chargée par createDeliveryFromXml (jamais modifiée), null si aucune. */
+    public synchronized DemandeDelivery getDemandeChargee() {
+        return demandeChargee;
+    }
+
     public Tournee findBestPath() {
         var entrepot = pickupDeliveryModel.getEntrepot();
         if (entrepot == null) throw new IllegalStateException("Entrepôt manquant dans le modèle.");
@@ -79,7 +122,7 @@ public class Controller {
             throw new IllegalStateException("pickupOfDelivery manquant ou de taille incorrecte");
         }
 
-        CalculTSP tsp = new CalculTSP(costMatrix, vertexOrder, pickupOfDelivery);
+        SolveurTSP tsp = SolveurTSP.pour(costMatrix, vertexOrder, pickupOfDelivery);
         tsp.solveFromId(depotId);
 
         List<Integer> pathIdx = tsp.getBestPathIndices();
@@ -148,6 +191,10 @@ public class Controller {
             Noeud toNoeud = pickupDeliveryModel.plan.getNoeud(to);
             NodePair pair = new NodePair(fromNoeud, toNoeud);
             List<Noeud> partialPath = matrice.getCheminMatrix().get(pair);
+            if (partialPath == null) {
+                // Paire absente de la matrice : requête point-à-point (A* + repères ALT)
+                partialPath = new CalculPlusCoursChemins().plusCourtChemin(pickupDeliveryModel.plan, from, to);
+            }
 
             if (partialPath == null) {
                 throw new RuntimeException("Pas de chemin trouvé entre " + from + " et " + to);
@@ -164,7 +211,11 @@ public class Controller {
 
 
     public List<Long> buildFullPathArgument(Tournee tournee) {
-        MatriceChemins matrice = pickupDeliveryModel.getMatriceChemins();
+        return buildFullPathArgument(pickupDeliveryModel, tournee);
+    }
+
+    private static List<Long> buildFullPathArgument(PickupDeliveryModel model, Tournee tournee) {
+        MatriceChemins matrice = model.getMatriceChemins();
         List<Long> fullPath = new ArrayList<>();
         int size = tournee.getEtapes().size();
         if (size == 0) {return fullPath; }
@@ -179,10 +230,14 @@ public class Controller {
             Long from = tournee.getEtapes().get(i).getId();
             Long to = tournee.getEtapes().get(i + 1).getId();
 
-            Noeud fromNoeud = pickupDeliveryModel.plan.getNoeud(from);
-            Noeud toNoeud = pickupDeliveryModel.plan.getNoeud(to);
+            Noeud fromNoeud = model.plan.getNoeud(from);
+            Noeud toNoeud = model.plan.getNoeud(to);
             NodePair pair = new NodePair(fromNoeud, toNoeud);
             List<Noeud> partialPath = matrice.getCheminMatrix().get(pair);
+            if (partialPath == null) {
+                // Paire absente de la matrice : requête point-à-point (A* + repères ALT)
+                partialPath = new CalculPlusCoursChemins().plusCourtChemin(model.plan, from, to);
+            }
 
             if (partialPath == null) {
                 throw new RuntimeException("Pas de chemin trouvé entre " + from + " et " + to);
@@ -198,18 +253,22 @@ public class Controller {
     }
 
     private String resolveType(long id) {
-        if (pickupDeliveryModel.getEntrepot() != null
-                && pickupDeliveryModel.getEntrepot().getAdresse() == id) {
+        return resolveType(pickupDeliveryModel, id);
+    }
+
+    private static String resolveType(PickupDeliveryModel model, long id) {
+        if (model.getEntrepot() != null
+                && model.getEntrepot().getAdresse() == id) {
             return "DEPOT";
         }
-        for (var d : pickupDeliveryModel.demandeDelivery.getDeliveries()) {
+        for (var d : model.demandeDelivery.getDeliveries()) {
             if (d.getAdresseEnlevement() == id) return "PICKUP";
             if (d.getAdresseLivraison() == id) return "DELIVERY";
         }
         return "UNKNOWN";
     }
 
-    private String buildLabel(String type, long id, int visitIndex) {
+    private static String buildLabel(String type, long id, int visitIndex) {
         if (type.equals("DEPOT")) {
             return "Dépôt";
         }
@@ -249,9 +308,10 @@ public class Controller {
         return List.of(t1, t2);
     }
 
-    public List<Tournee> findBestPathsForNDrivers(int nbDrivers) {
+    /** @param executor exécute les TSP par driver en parallèle (PoolCalcul.getParallele en production) */
+    public List<Tournee> findBestPathsForNDrivers(int nbDrivers, Executor executor) {
 
-        var sol = NDriverTspSolver.solveForNDrivers(pickupDeliveryModel, nbDrivers, 4.17);
+        var sol = NDriverTspSolver.solveForNDrivers(pickupDeliveryModel, nbDrivers, 4.17, executor);
 
         List<Tournee> tournees = new ArrayList<>();
 
@@ -283,6 +343,44 @@ public class Controller {
         return tournees;
     }
 
+    /** Résultat d'une résolution sur un ContexteResolution : rien n'est conservé dans le Controller. */
+    public record Resolution(List<Tournee> tournees, List<List<Long>> chemins, boolean optimaliteProuvee) {}
+
+    /**
+     * Tournées équilibrées pour N livreurs sur un contexte propre à la requête.
+     * Sans état partagé modifiable : appelable en parallèle depuis plusieurs requêtes.
+     */
+    public Resolution resoudre(ContexteResolution contexte, int nbDrivers, double speed, double maxDurationSec,
+                               Echeance echeance) {
+        return resoudre(contexte, nbDrivers, speed, maxDurationSec, echeance, null);
+    }
+
+    /** Idem, avec notification des solutions intermédiaires (grandes demandes, recherches ALNS). */
+    public Resolution resoudre(ContexteResolution contexte, int nbDrivers, double speed, double maxDurationSec,
+                               Echeance echeance, ObservateurSolution observateur) {
+        return resoudre(contexte, nbDrivers, speed, maxDurationSec, echeance, observateur, null);
+    }
+
+    /**
+     * Idem, avec le pool des calculs parallèles des solveurs (PoolCalcul.getParallele()) ;
+     * null : résolution entièrement séquentielle sur le thread appelant.
+     */
+    public Resolution resoudre(ContexteResolution contexte, int nbDrivers, double speed, double maxDurationSec,
+                               Echeance echeance, ObservateurSolution observateur, ForkJoinPool parallele) {
+        PickupDeliveryModel model = contexte.getModel();
+        model.setStrategieOrdreGlobal(strategieOrdreGlobal);
+        var sol = NDriverTspBalancer2.solve(model, nbDrivers, speed, maxDurationSec, echeance, observateur, parallele);
+
+        List<Tournee> tournees = new ArrayList<>();
+        for (var tour : sol.getTours()) {
+            tournees.add(buildTourneeFromIdList(model, tour.getPathIds()));
+        }
+        log.info("Résolution : {} livreurs, {} demandes, optimalité prouvée={}",
+                tournees.size(), contexte.getNbDeliveries(), sol.isOptimaliteProuvee());
+
+        return new Resolution(List.copyOf(tournees), buildFullPathNTournées(model, tournees), sol.isOptimaliteProuvee());
+    }
+
     /**
      * Find optimal balanced paths with automatic courier count calculation.
      * The number of couriers is calculated based on the number of delivery requests.
@@ -330,10 +428,14 @@ public class Controller {
     }
 
     public List<List<Long>> buildFullPathNTournées(List<Tournee> tournees) {
+        return buildFullPathNTournées(pickupDeliveryModel, tournees);
+    }
+
+    private static List<List<Long>> buildFullPathNTournées(PickupDeliveryModel model, List<Tournee> tournees) {
         List<List<Long>> paths = new ArrayList<>();
 
         for (Tournee tournee : tournees) {
-            paths.add(buildFullPathArgument(tournee));
+            paths.add(buildFullPathArgument(model, tournee));
         }
 
         return paths;
@@ -375,14 +477,18 @@ public class Controller {
 
 
     private Tournee buildTourneeFromIdList(List<Long> ids) {
+        return buildTourneeFromIdList(pickupDeliveryModel, ids);
+    }
+
+    private static Tournee buildTourneeFromIdList(PickupDeliveryModel model, List<Long> ids) {
 
         if (ids == null || ids.isEmpty()) {
             return new Tournee(0.0, List.of()); // tournée vide
         }
 
-        var mc = pickupDeliveryModel.getMatriceCout();
+        var mc = model.getMatriceCout();
         var costMatrix = mc.getCostMatrix();
-        var vertexOrder = pickupDeliveryModel.getVertexOrder();
+        var vertexOrder = model.getVertexOrder();
 
         // indices correspondants
         List<Integer> pathIdx = new ArrayList<>();
@@ -403,7 +509,7 @@ public class Controller {
             int idx = closed.get(k);
             long id = vertexOrder.get(idx);
 
-            String type = resolveType(id);
+            String type = resolveType(model, id);
             // Pass k as visit index for sequential numbering (0=Depot, 1=first stop, 2=second stop...)
             String label = buildLabel(type, id, k);
 
@@ -0,0 +1,173 @@
+package com.agile.projet.controller;
+
+import com.agile.projet.model.DemandeDelivery;
+import com.agile.projet.utils.NDriverTspBalancer2;
+import com.agile.projet.utils.ObservateurSolution;
+import com.agile.projet.utils.RegistrePlans;
+import com.agile.projet.utils.XmlDeliveryParser;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Exécution asynchrone des calculs de tournées (API /jobs).
+ * - Deux pools bornés : "rapides" (demandes résolues par TSP exacts, <= SEUIL_RAPIDE livraisons) et "lents"
+ *   (grandes demandes, ALNS) ; un calcul long n'occupe jamais les threads des calculs courts.
+ *   Le pool est choisi sur le nombre réel de livraisons, compté en flux à la soumission (aucune Delivery créée) ;
+ *   la lecture complète de la demande, le plan et le calcul se font dans le job.
+ * - Files d'attente de capacité fixe : au-delà, soumettre lève RejectedExecutionException (HTTP 429).
+ * - Les jobs finis restent consultables ; les plus anciens sont oubliés au-delà de l'historique.
+ */
+@Component
+public class GestionnaireJobs {
+    private static final Logger log = LoggerFactory.getLogger(GestionnaireJobs.class);
+
+    public static final int SEUIL_RAPIDE = NDriverTspBalancer2.SEUIL_ALNS;
+
+    private final Controller controller;
+    private final PoolCalcul poolCalcul;
+    private final ThreadPoolExecutor rapides;
+    private final ThreadPoolExecutor lents;
+    private final int historique;
+    private final LinkedHashMap<String, Job> jobs = new LinkedHashMap<>();
+
+    @Autowired
+    public GestionnaireJobs(Controller controller,
+                            PoolCalcul poolCalcul,
+                            @Value("${jobs.threads.rapides:2}") int threadsRapides,
+                            @Value("${jobs.threads.lents:1}") int threadsLents,
+                            @Value("${jobs.file.capacite:16}") int capaciteFile,
+                            @Value("${jobs.historique:256}") int historique) {
+        if (threadsRapides <= 0 || threadsLents <= 0) throw new IllegalArgumentException("Au moins un thread par pool");
+        if (capaciteFile <= 0 || historique <= 0) throw new IllegalArgumentException("Capacités > 0 requises");
+        this.controller = controller;
+        this.poolCalcul = poolCalcul;
+        this.rapides = pool("jobs-rapides-", threadsRapides, capaciteFile);
+        this.lents = pool("jobs-lents-", threadsLents, capaciteFile);
+        this.historique = historique;
+    }
+
+    private static ThreadPoolExecutor pool(String nom, int threads, int capaciteFile) {
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capaciteFile), Thread.ofPlatform().name(nom, 0).daemon().factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Met en file le calcul (plan et demande : ressources classpath). Seule l'existence de la demande est
+     * vérifiée ici ; sa lecture, le plan, les plus courts chemins et le TSP se font dans le job.
+     * @throws IllegalArgumentException si la demande n'existe pas
+     * @throws RejectedExecutionException si la file du pool est pleine
+     */
+    public Job soumettre(String planXml, String demandeXml, int nDrivers, double speed, double maxSeconds,
+                         long timeLimitMs) throws Exception {
+        return soumettre(planXml, demandeXml, nDrivers, speed, maxSeconds, timeLimitMs, null, null);
+    }
+
+    /**
+     * Idem, avec relais des événements des solveurs (peut être null) et rappel unique à la fin du job
+     * (terminé, en échec ou annulé ; peut être null).
+     */
+    public Job soumettre(String planXml, String demandeXml, int nDrivers, double speed, double maxSeconds,
+                         long timeLimitMs, ObservateurSolution relais, Consumer<Job> aLaFin) throws Exception {
+        URL ressource = getClass().getClassLoader().getResource(demandeXml);
+        if (ressource == null) throw new IllegalArgumentException("Demande introuvable : " + demandeXml);
+        Job job = new Job(planXml, demandeXml, timeLimitMs, relais, aLaFin);
+
+        synchronized (this) {
+            jobs.put(job.getId(), job);
+        }
+        ThreadPoolExecutor pool = compterLivraisons(ressource) <= SEUIL_RAPIDE ? rapides : lents;
+        try {
+            job.setFuture(pool.submit(() -> executer(job, planXml, demandeXml, nDrivers, speed, maxSeconds)));
+        } catch (RejectedExecutionException e) {
+            synchronized (this) {
+                jobs.remove(job.getId());
+            }
+            throw e;
+        }
+        oublierAnciens();
+        return job;
+    }
+
+    /** Nombre de livraisons de la demande ; XML illisible : pool des calculs longs, l'erreur remontera dans le job. */
+    static long compterLivraisons(URL ressource) {
+        try (InputStream is = ressource.openStream()) {
+            return XmlDeliveryParser.compterLivraisons(is);
+        } catch (Exception e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private void executer(Job job, String planXml, String demandeXml, int nDrivers, double speed,
+                          double maxSeconds) {
+        if (!job.demarrer()) return;
+        try {
+            DemandeDelivery demande = ContexteResolution.lireDemande(demandeXml);
+            job.setNbDeliveries(demande.getDeliveries().size());
+            ContexteResolution contexte = ContexteResolution.pour(RegistrePlans.global().obtenir(planXml), demande);
+            job.terminer(controller.resoudre(contexte, nDrivers, speed, maxSeconds, job.getEcheance(), job,
+                    poolCalcul.getParallele()));
+        } catch (Throwable t) {
+            // Error comprise : le job ne doit jamais rester EN_COURS
+            log.error("Job {} en échec: {}", job.getId(), t.getMessage(), t);
+            job.echouer(String.valueOf(t.getMessage()));
+            if (t instanceof Error e) throw e;
+        } finally {
+            job.signalerFin();
+        }
+    }
+
+    /** @return null si l'id est inconnu (ou oublié) */
+    public synchronized Job obtenir(String id) {
+        return jobs.get(id);
+    }
+
+    /** @return le job (annulé s'il n'était pas fini), null si l'id est inconnu */
+    public Job annuler(String id) {
+        Job job = obtenir(id);
+        if (job != null && job.annuler()) {
+            // Les jobs annulés encore en file libèrent leur place tout de suite
+            rapides.purge();
+            lents.purge();
+            log.info("Job {} annulé", id);
+            job.signalerFin();     // annulé en file : ne passera jamais par executer
+        }
+        return job;
+    }
+
+    private synchronized void oublierAnciens() {
+        Iterator<Job> it = jobs.values().iterator();
+        while (jobs.size() > historique && it.hasNext()) {
+            if (it.next().estFini()) it.remove();
+        }
+    }
+
+    @PreDestroy
+    public void arreter() {
+        List<Job> tous;
+        synchronized (this) {
+            tous = List.copyOf(jobs.values());
+        }
+        for (Job job : tous) {
+            job.annuler();
+            job.signalerFin();
+        }
+        rapides.shutdownNow();
+        lents.shutdownNow();
+    }
+}
@@ -0,0 +1,48 @@
+package com.agile.projet.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * GET /health/plans : état du préchargement des plans (sonde de disponibilité).
+ * 503 tant que des plans sont en cours de chargement, 200 ensuite ("UP", ou "DEGRADED" si un plan a échoué).
+ */
+@RestController
+@CrossOrigin(origins = "http://localhost:5173")
+public class HealthController {
+
+    @Autowired
+    PrechargementPlans prechargementPlans;
+
+    @GetMapping(path = "/health/plans", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> plans() {
+        Map<String, PrechargementPlans.EtatPlan> etats = prechargementPlans.getEtats();
+        boolean pret = prechargementPlans.estPret();
+        long nbPrets = etats.values().stream().filter(e -> e.etat() == PrechargementPlans.Etat.PRET).count();
+
+        Map<String, Object> plans = new LinkedHashMap<>();
+        etats.forEach((ressource, e) -> {
+            Map<String, Object> plan = new LinkedHashMap<>();
+            plan.put("status", e.etat().name());
+            plan.put("nbNoeuds", e.nbNoeuds());
+            plan.put("durationMs", e.dureeMs());
+            if (e.erreur() != null) plan.put("error", e.erreur());
+            plans.put(ressource, plan);
+        });
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("status", !pret ? "LOADING" : nbPrets == etats.size() ? "UP" : "DEGRADED");
+        response.put("ready", nbPrets);
+        response.put("total", etats.size());
+        response.put("plans", plans);
+        return ResponseEntity.status(pret ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE).body(response);
+    }
+}
@@ -0,0 +1,198 @@
+package com.agile.projet.controller;
+
+import com.agile.projet.utils.Echeance;
+import com.agile.projet.utils.NDriverTspBalancer2;
+import com.agile.projet.utils.ObservateurSolution;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Calcul de tournées soumis par POST /jobs et suivi par GET /jobs/{id}.
+ * Etat, meilleure solution intermédiaire et résultat sont mis à jour par le thread de calcul
+ * et lus par les requêtes HTTP : accès synchronisés.
+ * Un relais optionnel (flux SSE) reçoit aussi les événements des solveurs, et un rappel la fin du job.
+ */
+public final class Job implements ObservateurSolution {
+
+    public enum Etat { EN_ATTENTE, EN_COURS, TERMINE, ANNULE, ECHEC }
+
+    private final String id = UUID.randomUUID().toString();
+    private final String planName;
+    private final String requestName;
+    private final long timeLimitMs;            // <= 0 : pas de limite ; décompté dès la soumission (attente comprise)
+    private final Echeance echeance;
+    private final long creeNanos = System.nanoTime();
+    private final ObservateurSolution relais;
+    private final Consumer<Job> aLaFin;
+    private final AtomicBoolean finSignalee = new AtomicBoolean();
+
+    private Etat etat = Etat.EN_ATTENTE;
+    private Integer nbDeliveries;                 // connu une fois la demande lue par le job
+    private boolean fini;
+    private long debutNanos;
+    private long finNanos;
+    private Future<?> future;
+
+    private List<List<Long>> meilleuresTournees;   // tournées (POI) de la meilleure solution intermédiaire
+    private double meilleurObjectif = Double.POSITIVE_INFINITY;
+    private int nbAmeliorations;
+    private Controller.Resolution resultat;
+    private String erreur;
+
+    Job(String planName, String requestName, long timeLimitMs) {
+        this(planName, requestName, timeLimitMs, null, null);
+    }
+
+    Job(String planName, String requestName, long timeLimitMs, ObservateurSolution relais, Consumer<Job> aLaFin) {
+        this.relais = relais;
+        this.aLaFin = aLaFin;
+        this.planName = planName;
+        this.requestName = requestName;
+        this.timeLimitMs = timeLimitMs;
+        this.echeance = timeLimitMs > 0 ? Echeance.dans(timeLimitMs) : Echeance.aucune();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /** @return null tant que le job n'a pas lu la demande */
+    public synchronized Integer getNbDeliveries() {
+        return nbDeliveries;
+    }
+
+    synchronized void setNbDeliveries(int nbDeliveries) {
+        this.nbDeliveries = nbDeliveries;
+    }
+
+    Echeance getEcheance() {
+        return echeance;
+    }
+
+    public synchronized Etat getEtat() {
+        return etat;
+    }
+
+    public synchronized Controller.Resolution getResultat() {
+        return resultat;
+    }
+
+    synchronized void setFuture(Future<?> future) {
+        this.future = future;
+    }
+
+    /** @return false si le job a été annulé avant de démarrer */
+    synchronized boolean demarrer() {
+        if (etat != Etat.EN_ATTENTE) return false;
+        etat = Etat.EN_COURS;
+        debutNanos = System.nanoTime();
+        return true;
+    }
+
+    @Override
+    public void nouvelleMeilleure(NDriverTspBalancer2.NDriverSolution solution, double objectif) {
+        List<List<Long>> tournees = new ArrayList<>();
+        for (var tour : solution.getTours()) tournees.add(List.copyOf(tour.getPathIds()));
+        synchronized (this) {
+            meilleuresTournees = tournees;
+            meilleurObjectif = objectif;
+            nbAmeliorations++;
+        }
+        if (relais != null) relais.nouvelleMeilleure(solution, objectif);
+    }
+
+    @Override
+    public void sousTourneeAmelioree(int livreur, double cout) {
+        if (relais != null) relais.sousTourneeAmelioree(livreur, cout);
+    }
+
+    @Override
+    public void tourneeTerminee(NDriverTspBalancer2.DriverTour tour) {
+        if (relais != null) relais.tourneeTerminee(tour);
+    }
+
+    /** Rappel de fin, une seule fois, hors verrou du job (appelé par GestionnaireJobs une fois le job fini). */
+    void signalerFin() {
+        if (aLaFin != null && estFini() && finSignalee.compareAndSet(false, true)) aLaFin.accept(this);
+    }
+
+    synchronized void terminer(Controller.Resolution resultat) {
+        this.resultat = resultat;
+        // Un job annulé en cours de calcul garde l'état ANNULE, avec la meilleure solution trouvée avant l'arrêt
+        if (etat == Etat.EN_COURS) etat = Etat.TERMINE;
+        fini = true;
+        finNanos = System.nanoTime();
+    }
+
+    synchronized void echouer(String message) {
+        erreur = message;
+        if (etat == Etat.EN_COURS) etat = Etat.ECHEC;
+        fini = true;
+        finNanos = System.nanoTime();
+    }
+
+    /**
+     * Annulation : un job en attente ne démarrera pas, un job en cours s'arrête à la prochaine
+     * consultation de son échéance par les solveurs et rend sa meilleure solution connue.
+     * @return false si le job était déjà fini
+     */
+    synchronized boolean annuler() {
+        if (fini) return false;
+        echeance.annuler();
+        if (etat == Etat.EN_ATTENTE) {
+            fini = true;
+            if (future != null) future.cancel(false);
+        }
+        etat = Etat.ANNULE;
+        return true;
+    }
+
+    synchronized boolean estFini() {
+        return fini;
+    }
+
+    /** Vue JSON de l'état du job. */
+    public synchronized Map<String, Object> vue() {
+        Map<String, Object> vue = new LinkedHashMap<>();
+        vue.put("id", id);
+        vue.put("status", etat.name());
+        vue.put("planName", planName);
+        vue.put("requestName", requestName);
+        vue.put("nbDeliveries", nbDeliveries);
+        vue.put("elapsedMs", tempsEcouleMs());
+        vue.put("progress", progression());
+        vue.put("improvements", nbAmeliorations);
+        if (meilleuresTournees != null) {
+            vue.put("bestObjective", meilleurObjectif);
+            vue.put("bestTours", meilleuresTournees);
+        }
+        if (resultat != null) {
+            vue.put("paths", resultat.chemins());
+            vue.put("nbCouriers", resultat.chemins().size());
+            vue.put("optimalProven", resultat.optimaliteProuvee());
+        }
+        if (erreur != null) vue.put("error", erreur);
+        return vue;
+    }
+
+    private long tempsEcouleMs() {
+        if (debutNanos == 0) return 0;
+        long fin = finNanos != 0 ? finNanos : System.nanoTime();
+        return (fin - debutNanos) / 1_000_000L;
+    }
+
+    /** Fraction du budget de calcul consommée (1 une fois fini) ; null si pas de limite de temps. */
+    private Double progression() {
+        if (fini) return 1.0;
+        if (timeLimitMs <= 0) return null;
+        long ecoule = (System.nanoTime() - creeNanos) / 1_000_000L;
+        return Math.min(1.0, (double) ecoule / timeLimitMs);
+    }
+}
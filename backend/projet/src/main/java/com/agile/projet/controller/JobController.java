@@ -0,0 +1,73 @@
+package com.agile.projet.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * API asynchrone des calculs de tournées :
+ *  - POST /jobs : met le calcul en file et rend son id (202), 429 si la file est pleine
+ *  - GET /jobs/{id} : état, progression, meilleure solution intermédiaire, résultat une fois fini
+ *  - DELETE /jobs/{id} : annulation (le calcul en cours rend sa meilleure solution connue)
+ */
+@RestController
+@CrossOrigin(origins = "http://localhost:5173")
+public class JobController {
+    private static final Logger log = LoggerFactory.getLogger(JobController.class);
+
+    @Autowired
+    GestionnaireJobs gestionnaireJobs;
+
+    @PostMapping(path = "/jobs", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> soumettre(
+            @RequestParam String planName,
+            @RequestParam String requestName,
+            @RequestParam(name = "nDrivers", required = false) Integer nDrivers,
+            @RequestParam(name = "speedFactor", required = false) Double speedFactor,
+            @RequestParam(name = "maxSeconds", required = false) Integer maxSeconds,
+            @RequestParam(name = "timeLimitMs", required = false) Long timeLimitMs
+    ) {
+        // Same defaults as /get-tsp
+        int drivers = (nDrivers != null && nDrivers > 0) ? nDrivers : 2;
+        double sf = (speedFactor != null && speedFactor > 0) ? speedFactor : 4.0;
+        int limit = (maxSeconds != null && maxSeconds > 0) ? maxSeconds : 3600;
+        long budget = (timeLimitMs != null && timeLimitMs > 0) ? timeLimitMs : 0L;
+
+        Job job;
+        try {
+            job = gestionnaireJobs.soumettre("plans/" + planName, "requests/" + requestName, drivers, sf, limit, budget);
+        } catch (RejectedExecutionException e) {
+            log.warn("POST /jobs rejected, queue full ({} / {})", planName, requestName);
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("error", "File de calcul pleine, réessayer plus tard."));
+        } catch (Exception e) {
+            log.error("Failed to submit job {} / {}: {}", planName, requestName, e.getMessage(), e);
+            return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())));
+        }
+
+        log.info("Job {} submitted ({} / {})", job.getId(), planName, requestName);
+        return ResponseEntity.accepted().location(URI.create("/jobs/" + job.getId())).body(job.vue());
+    }
+
+    @GetMapping(path = "/jobs/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> etat(@PathVariable String id) {
+        Job job = gestionnaireJobs.obtenir(id);
+        return job == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(job.vue());
+    }
+
+    @DeleteMapping(path = "/jobs/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> annuler(@PathVariable String id) {
+        Job job = gestionnaireJobs.annuler(id);
+        return job == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(job.vue());
+    }
+}
@@ -0,0 +1,105 @@
+package com.agile.projet.controller;
+
+import com.agile.projet.utils.Echeance;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool de threads plateforme dimensionné pour les calculs CPU (plus courts chemins, TSP) des endpoints synchrones.
+ * Les requêtes HTTP s'exécutent sur des threads virtuels (spring.threads.virtual.enabled) : elles attendent
+ * le résultat sans bloquer de thread porteur, et au plus calcul.threads calculs tournent en même temps,
+ * ce qui laisse du CPU aux endpoints d'E/S (/plans/{filename}, /upload-request...).
+ * File d'attente bornée : au-delà, executer et soumettre lèvent RejectedExecutionException (HTTP 429).
+ * Le parallélisme interne des solveurs (recherches du portfolio, Branch & Bound) passe par le ForkJoinPool
+ * getParallele(), lui aussi propre au pool : jamais par le pool commun ni par des threads virtuels.
+ */
+@Component
+public class PoolCalcul {
+
+    private final ThreadPoolExecutor executor;
+    private final ForkJoinPool parallele;
+
+    /**
+     * @param threads      nombre de threads de calcul, <= 0 : un par cœur
+     * @param parallelisme nombre de workers du pool des solveurs parallèles, <= 0 : un par cœur
+     * @param capaciteFile nombre maximal de calculs en attente d'un thread
+     */
+    public PoolCalcul(@Value("${calcul.threads:0}") int threads,
+                      @Value("${calcul.parallelisme:0}") int parallelisme,
+                      @Value("${calcul.file.capacite:64}") int capaciteFile) {
+        if (capaciteFile <= 0) throw new IllegalArgumentException("Capacité de file > 0 requise");
+        int coeurs = Runtime.getRuntime().availableProcessors();
+        int taille = threads > 0 ? threads : coeurs;
+        this.executor = new ThreadPoolExecutor(taille, taille, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capaciteFile), Thread.ofPlatform().name("calcul-", 0).daemon().factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.parallele = new ForkJoinPool(parallelisme > 0 ? parallelisme : coeurs, pool -> {
+            ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            t.setName("calcul-fj-" + t.getPoolIndex());
+            return t;
+        }, null, false);
+    }
+
+    /**
+     * Exécute le calcul sur le pool et attend son résultat ; les exceptions du calcul sont relancées telles quelles.
+     * Interruption de l'appelant (requête abandonnée) : un calcul encore en file ne démarre pas.
+     * @throws RejectedExecutionException si la file d'attente est pleine
+     */
+    public <T> T executer(Callable<T> calcul) throws Exception {
+        return executer(calcul, null);
+    }
+
+    /**
+     * Idem pour un calcul qui consulte l'échéance (solveurs) : à l'interruption de l'appelant elle est annulée,
+     * ce qui arrête un calcul déjà démarré (les solveurs ne réagissent pas à l'interruption du thread).
+     */
+    public <T> T executer(Callable<T> calcul, Echeance echeance) throws Exception {
+        Future<T> future = executor.submit(calcul);
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception ex) throw ex;
+            if (e.getCause() instanceof Error err) throw err;
+            throw e;
+        } catch (InterruptedException e) {
+            if (echeance != null) echeance.annuler();
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+
+    /**
+     * Calcul asynchrone sur le pool (préchargements...).
+     * @throws RejectedExecutionException si la file d'attente est pleine
+     */
+    public <T> Future<T> soumettre(Callable<T> calcul) {
+        return executor.submit(calcul);
+    }
+
+    public int getNbThreads() {
+        return executor.getMaximumPoolSize();
+    }
+
+    /** Pool des calculs parallèles des solveurs, à transmettre à Controller.resoudre. */
+    public ForkJoinPool getParallele() {
+        return parallele;
+    }
+
+    @PreDestroy
+    public void arreter() {
+        executor.shutdownNow();
+        parallele.shutdownNow();
+    }
+}
@@ -0,0 +1,126 @@
+package com.agile.projet.controller;
+
+import com.agile.projet.model.Plan;
+import com.agile.projet.utils.RegistrePlans;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Préchargement au démarrage de tous les plans de resources/plans dans RegistrePlans : parse (ou instantané),
+ * graphe CSR, hiérarchie CH et repères ALT construits en parallèle sur le PoolCalcul.
+ * Les plans préchargés sont épinglés dans le registre : les plans envoyés ensuite ne les évincent pas,
+ * la première requête sur un plan est ainsi aussi rapide que les suivantes.
+ * L'état de chaque plan est exposé par GET /health/plans (HealthController).
+ */
+@Component
+public class PrechargementPlans {
+    private static final Logger log = LoggerFactory.getLogger(PrechargementPlans.class);
+
+    public enum Etat { CHARGEMENT, PRET, ECHEC }
+
+    /** Etat d'un plan préchargé. */
+    public record EtatPlan(Etat etat, int nbNoeuds, long dureeMs, String erreur) {}
+
+    private final PoolCalcul poolCalcul;
+    private final RegistrePlans registre;
+    private final boolean actif;
+    private final Map<String, EtatPlan> etats = new TreeMap<>();
+    private boolean demarre;
+
+    @Autowired
+    public PrechargementPlans(PoolCalcul poolCalcul, @Value("${plans.prechargement:true}") boolean actif) {
+        this(poolCalcul, RegistrePlans.global(), actif);
+    }
+
+    PrechargementPlans(PoolCalcul poolCalcul, RegistrePlans registre, boolean actif) {
+        this.poolCalcul = poolCalcul;
+        this.registre = registre;
+        this.actif = actif;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void auDemarrage() {
+        if (actif) demarrer();
+    }
+
+    /**
+     * Lance le chargement de chaque plan du classpath (plans/*.xml) sans attendre.
+     * @return les chargements, par ressource (plans/nom.xml)
+     */
+    public synchronized Map<String, Future<Plan>> demarrer() {
+        List<String> ressources = listerPlans();
+        demarre = true;
+        Map<String, Future<Plan>> chargements = new LinkedHashMap<>();
+        for (String ressource : ressources) {
+            etats.put(ressource, new EtatPlan(Etat.CHARGEMENT, 0, 0, null));
+            try {
+                chargements.put(ressource, poolCalcul.soumettre(() -> charger(ressource)));
+            } catch (RejectedExecutionException e) {
+                etats.put(ressource, new EtatPlan(Etat.ECHEC, 0, 0, "File de calcul pleine"));
+                log.error("Préchargement du plan {} refusé : file de calcul pleine", ressource);
+                chargements.put(ressource, CompletableFuture.failedFuture(e));
+            }
+        }
+        log.info("Préchargement de {} plans", ressources.size());
+        return chargements;
+    }
+
+    private Plan charger(String ressource) throws IOException {
+        long debut = System.nanoTime();
+        try {
+            Plan plan = registre.obtenirEpingle(ressource);
+            long ms = (System.nanoTime() - debut) / 1_000_000L;
+            fixer(ressource, new EtatPlan(Etat.PRET, plan.getNbNoeuds(), ms, null));
+            log.info("Plan {} prêt en {} ms ({} noeuds)", ressource, ms, plan.getNbNoeuds());
+            return plan;
+        } catch (Throwable e) {
+            // Errors comprises (OutOfMemoryError pendant la CH) : le plan ne doit pas rester en CHARGEMENT
+            long ms = (System.nanoTime() - debut) / 1_000_000L;
+            fixer(ressource, new EtatPlan(Etat.ECHEC, 0, ms, String.valueOf(e.getMessage())));
+            log.error("Préchargement du plan {} en échec: {}", ressource, e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    private synchronized void fixer(String ressource, EtatPlan etat) {
+        etats.put(ressource, etat);
+    }
+
+    /** Ressources classpath plans/*.xml (répertoire ou jar). */
+    static List<String> listerPlans() {
+        List<String> ressources = new ArrayList<>();
+        try {
+            for (Resource r : new PathMatchingResourcePatternResolver().getResources("classpath*:plans/*.xml")) {
+                if (r.getFilename() != null) ressources.add("plans/" + r.getFilename());
+            }
+        } catch (IOException e) {
+            log.error("Impossible de lister les plans: {}", e.getMessage(), e);
+        }
+        Collections.sort(ressources);
+        return ressources;
+    }
+
+    /** Prêt quand chaque plan est chargé ou en échec (rien en cours) ; toujours prêt si le préchargement est désactivé. */
+    public synchronized boolean estPret() {
+        if (!demarre) return !actif;
+        for (EtatPlan e : etats.values()) if (e.etat() == Etat.CHARGEMENT) return false;
+        return true;
+    }
+
+    public synchronized Map<String, EtatPlan> getEtats() {
+        return new TreeMap<>(etats);
+    }
+}
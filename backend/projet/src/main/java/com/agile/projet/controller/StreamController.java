@@ -0,0 +1,164 @@
+package com.agile.projet.controller;
+
+import com.agile.projet.utils.NDriverTspBalancer2;
+import com.agile.projet.utils.ObservateurSolution;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * GET /get-tsp/stream : calcul de tournées dont chaque amélioration est poussée en Server-Sent Events.
+ * Evénements (données JSON, toutes avec elapsedMs depuis la soumission) :
+ *  - job          : id du job (annulable par DELETE /jobs/{id}) et nombre de livraisons
+ *  - subtour      : meilleure tournée d'un livreur améliorée par le TSP exact (driver, cost)
+ *  - driver       : tournée d'un livreur terminée (driver, path, distance, totalSeconds)
+ *  - incumbent    : nouvelle meilleure solution de la recherche ALNS (objective, tours)
+ *  - result       : état final du job (mêmes champs que GET /jobs/{id}), puis fin du flux
+ * Le calcul passe par les pools bornés de GestionnaireJobs (429 si la file est pleine) ;
+ * la déconnexion du client annule le job.
+ */
+@RestController
+@CrossOrigin(origins = "http://localhost:5173")
+public class StreamController {
+    private static final Logger log = LoggerFactory.getLogger(StreamController.class);
+
+    @Autowired
+    GestionnaireJobs gestionnaireJobs;
+
+    @GetMapping(path = "/get-tsp/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(
+            @RequestParam String planName,
+            @RequestParam String requestName,
+            @RequestParam(name = "nDrivers", required = false) Integer nDrivers,
+            @RequestParam(name = "speedFactor", required = false) Double speedFactor,
+            @RequestParam(name = "maxSeconds", required = false) Integer maxSeconds,
+            @RequestParam(name = "timeLimitMs", required = false) Long timeLimitMs
+    ) {
+        // Same defaults as /get-tsp
+        int drivers = (nDrivers != null && nDrivers > 0) ? nDrivers : 2;
+        double sf = (speedFactor != null && speedFactor > 0) ? speedFactor : 4.0;
+        int limit = (maxSeconds != null && maxSeconds > 0) ? maxSeconds : 3600;
+        long budget = (timeLimitMs != null && timeLimitMs > 0) ? timeLimitMs : 0L;
+
+        SseEmitter emitter = new SseEmitter(0L);   // pas de timeout : le flux dure le temps du calcul
+        Flux flux = new Flux(emitter);
+        Job job;
+        try {
+            job = gestionnaireJobs.soumettre("plans/" + planName, "requests/" + requestName,
+                    drivers, sf, limit, budget, flux, flux::terminer);
+        } catch (RejectedExecutionException e) {
+            log.warn("GET /get-tsp/stream rejected, queue full ({} / {})", planName, requestName);
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "1").build();
+        } catch (Exception e) {
+            log.error("Failed to start stream {} / {}: {}", planName, requestName, e.getMessage(), e);
+            return ResponseEntity.badRequest().build();
+        }
+
+        flux.demarrer(job);
+        Runnable deconnexion = () -> gestionnaireJobs.annuler(job.getId());
+        emitter.onTimeout(deconnexion);
+        emitter.onError(e -> deconnexion.run());
+        return ResponseEntity.ok(emitter);
+    }
+
+    /**
+     * Relais des événements d'un job vers le client SSE (appelé depuis les threads de calcul).
+     * Envois sérialisés : l'ordre des événements est celui des notifications.
+     */
+    private final class Flux implements ObservateurSolution {
+        private final SseEmitter emitter;
+        private final long debutNanos = System.nanoTime();
+        private Job job;                                                  // null tant que soumettre n'a pas rendu
+        private final List<SseEmitter.SseEventBuilder> enAttente = new ArrayList<>();
+        private boolean fini;
+
+        Flux(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        /** Le job est connu : événement "job" puis ceux émis entre-temps (calcul déjà démarré, voire fini). */
+        synchronized void demarrer(Job j) {
+            job = j;
+            envoyer("job", Map.of("id", j.getId(), "elapsedMs", ecouleMs()));
+            for (SseEmitter.SseEventBuilder e : enAttente) envoyer(e);
+            enAttente.clear();
+            if (fini) emitter.complete();
+        }
+
+        @Override
+        public void nouvelleMeilleure(NDriverTspBalancer2.NDriverSolution solution, double objectif) {
+            List<List<Long>> tournees = new ArrayList<>();
+            for (var tour : solution.getTours()) tournees.add(tour.getPathIds());
+            Map<String, Object> data = donnees();
+            data.put("objective", objectif);
+            data.put("tours", tournees);
+            envoyer("incumbent", data);
+        }
+
+        @Override
+        public void sousTourneeAmelioree(int livreur, double cout) {
+            Map<String, Object> data = donnees();
+            data.put("driver", livreur);
+            data.put("cost", cout);
+            envoyer("subtour", data);
+        }
+
+        @Override
+        public void tourneeTerminee(NDriverTspBalancer2.DriverTour tour) {
+            Map<String, Object> data = donnees();
+            data.put("driver", tour.getDriverIndex());
+            data.put("path", tour.getPathIds());
+            data.put("distance", tour.getDistanceMeters());
+            data.put("totalSeconds", tour.getTotalTimeSeconds());
+            envoyer("driver", data);
+        }
+
+        synchronized void terminer(Job j) {
+            Map<String, Object> data = new LinkedHashMap<>(j.vue());
+            data.put("elapsedMs", ecouleMs());
+            envoyer("result", data);
+            fini = true;
+            if (job != null) emitter.complete();
+        }
+
+        private Map<String, Object> donnees() {
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("elapsedMs", ecouleMs());
+            return data;
+        }
+
+        private long ecouleMs() {
+            return (System.nanoTime() - debutNanos) / 1_000_000L;
+        }
+
+        private void envoyer(String nom, Object data) {
+            envoyer(SseEmitter.event().name(nom).data(data, MediaType.APPLICATION_JSON));
+        }
+
+        private synchronized void envoyer(SseEmitter.SseEventBuilder evenement) {
+            if (job == null) {
+                enAttente.add(evenement);
+                return;
+            }
+            try {
+                emitter.send(evenement);
+            } catch (IOException | IllegalStateException e) {
+                // client parti : le calcul n'a plus de destinataire
+                gestionnaireJobs.annuler(job.getId());
+            }
+        }
+    }
+}
@@ -8,6 +8,12 @@ public class DemandeDelivery {
 
     public DemandeDelivery(){}
 
+    /** Copie (liste des deliveries propre, Delivery et entrepôt partagés). */
+    public DemandeDelivery(DemandeDelivery autre) {
+        deliveries.addAll(autre.deliveries);
+        entrepot = autre.entrepot;
+    }
+
     public void addDelivery(Delivery d) {
         if (d != null) {
             deliveries.add(d);
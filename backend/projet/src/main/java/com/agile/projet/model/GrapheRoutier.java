@@ -0,0 +1,143 @@
+package com.agile.projet.model;
+
+import java.util.*;
+
+/**
+ * Graphe routier immuable au format CSR (compressed sparse row).
+ * - Les noeuds sont ceux du Plan, numérotés par ses index 0..n-1 : indexOf / getNoeud passent par le Plan
+ *   (TableIds, pas de Map boxée ni de tableau de Noeud propre au graphe).
+ * - Les arcs sortants du noeud u sont les indices e dans [offsets[u], offsets[u+1]) :
+ *   cible = targets[e], poids = lengths[e].
+ * Construit une seule fois par Plan, puis partagé par tous les calculs de plus courts chemins.
+ */
+public final class GrapheRoutier {
+
+    private final Plan plan;                      // index -> id / Noeud
+    private final int n;
+    private final int[] offsets;                  // taille n+1
+    private final int[] targets;                  // taille m
+    private final double[] lengths;               // taille m
+
+    private GrapheRoutier(Plan plan, int[] offsets, int[] targets, double[] lengths) {
+        this.plan = plan;
+        this.n = offsets.length - 1;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.lengths = lengths;
+    }
+
+    /** Construit le CSR à partir des tronçons résolus du plan (index du plan, sans passer par les Noeud). */
+    public static GrapheRoutier depuisPlan(Plan plan) {
+        List<Troncon> troncons = plan.getVraiTroncons();
+        int[] origines = new int[troncons.size()];
+        int[] cibles = new int[troncons.size()];
+        double[] longueurs = new double[troncons.size()];
+        int m = 0;
+        for (Troncon t : troncons) {
+            int u = t.indexOrigineDans(plan);
+            int v = t.indexDestinationDans(plan);
+            if (u < 0 || v < 0) continue;
+            origines[m] = u;
+            cibles[m] = v;
+            longueurs[m] = t.getLongueur();
+            m++;
+        }
+        return csr(plan, origines, cibles, longueurs, m);
+    }
+
+    /** Graphe déjà au format CSR (instantané), noeuds = index du plan. */
+    public static GrapheRoutier depuisCsr(Plan plan, int[] offsets, int[] targets, double[] lengths) {
+        if (offsets.length != plan.getNbNoeuds() + 1 || offsets[offsets.length - 1] != targets.length
+                || targets.length != lengths.length) {
+            throw new IllegalArgumentException("CSR incohérent avec le plan");
+        }
+        return new GrapheRoutier(plan, offsets, targets, lengths);
+    }
+
+    /**
+     * Construit le CSR d'une liste de tronçons quelconque (origine/destination en Noeud) : les noeuds sont
+     * numérotés dans l'ordre d'apparition dans un Plan propre au graphe.
+     */
+    public static GrapheRoutier fromTroncons(List<Troncon> troncons) {
+        Plan plan = new Plan();
+        int[] origines = new int[troncons.size()];
+        int[] cibles = new int[troncons.size()];
+        double[] longueurs = new double[troncons.size()];
+        int m = 0;
+        for (Troncon t : troncons) {
+            Noeud org = t.getOrigineNoeud();
+            Noeud dst = t.getDestinationNoeud();
+            if (org == null || dst == null) continue;
+            origines[m] = indexer(plan, org);
+            cibles[m] = indexer(plan, dst);
+            longueurs[m] = t.getLongueur();
+            m++;
+        }
+        return csr(plan, origines, cibles, longueurs, m);
+    }
+
+    private static int indexer(Plan plan, Noeud nd) {
+        int idx = plan.indexOf(nd.getId());
+        if (idx >= 0) return idx;
+        plan.addNoeud(nd);
+        return plan.getNbNoeuds() - 1;
+    }
+
+    /** Tri par origine (stable : ordre des tronçons conservé à origine égale). */
+    private static GrapheRoutier csr(Plan plan, int[] origines, int[] cibles, double[] longueurs, int m) {
+        int n = plan.getNbNoeuds();
+        int[] offsets = new int[n + 1];
+        for (int e = 0; e < m; e++) offsets[origines[e] + 1]++;
+        for (int u = 0; u < n; u++) offsets[u + 1] += offsets[u];
+
+        int[] targets = new int[m];
+        double[] lengths = new double[m];
+        int[] curseur = Arrays.copyOf(offsets, n);
+        for (int e = 0; e < m; e++) {
+            int k = curseur[origines[e]]++;
+            targets[k] = cibles[e];
+            lengths[k] = longueurs[e];
+        }
+        return new GrapheRoutier(plan, offsets, targets, lengths);
+    }
+
+    /** Graphe transposé (mêmes indices de noeuds, arcs inversés) : sert aux recherches "vers" un noeud. */
+    public GrapheRoutier inverse() {
+        int m = targets.length;
+        int[] invOffsets = new int[n + 1];
+        for (int e = 0; e < m; e++) invOffsets[targets[e] + 1]++;
+        for (int u = 0; u < n; u++) invOffsets[u + 1] += invOffsets[u];
+
+        int[] invTargets = new int[m];
+        double[] invLengths = new double[m];
+        int[] curseur = Arrays.copyOf(invOffsets, n);
+        for (int u = 0; u < n; u++) {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int k = curseur[targets[e]]++;
+                invTargets[k] = u;
+                invLengths[k] = lengths[e];
+            }
+        }
+        return new GrapheRoutier(plan, invOffsets, invTargets, invLengths);
+    }
+
+    public int getNbNoeuds() { return n; }
+    public int getNbArcs() { return targets.length; }
+
+    /** Indice du noeud d'ID donné, -1 s'il n'est pas dans le plan. */
+    public int indexOf(long id) {
+        int idx = plan.indexOf(id);
+        return idx < n ? idx : -1;
+    }
+
+    public Noeud getNoeud(int index) { return plan.noeud(index); }
+
+
+    /** Premier arc sortant de u. */
+    public int debutArcs(int u) { return offsets[u]; }
+    /** Fin (exclue) des arcs sortants de u. */
+    public int finArcs(int u) { return offsets[u + 1]; }
+
+    public int cible(int arc) { return targets[arc]; }
+    public double longueur(int arc) { return lengths[arc]; }
+}
@@ -2,9 +2,9 @@ package com.agile.projet.model;
 
 public class Noeud {
 
-    private long id;
-    private double latitude;
-    private double longitude;
+    private final long id;
+    private final double latitude;
+    private final double longitude;
 
     public Noeud(long id, double latitude, double longitude) {
         this.id = id;
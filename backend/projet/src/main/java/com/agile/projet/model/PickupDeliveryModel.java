@@ -2,25 +2,34 @@ package com.agile.projet.model;
 
 import com.agile.projet.utils.MatriceChemins;
 import com.agile.projet.utils.MatriceCout;
+import com.agile.projet.utils.OrdreGlobal;
+import com.agile.projet.utils.RegistrePlans;
 import com.agile.projet.utils.XmlDeliveryParser;
-import com.agile.projet.utils.XmlPlanParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 public class PickupDeliveryModel {
+    private static final Logger log = LoggerFactory.getLogger(PickupDeliveryModel.class);
     public Plan plan;
     public DemandeDelivery demandeDelivery= new DemandeDelivery();
 
-    public void createPlan(String planXml){
-        plan = new Plan();
-        XmlPlanParser xmlPlanParser = new XmlPlanParser();
-        xmlPlanParser.parsePlan(planXml,plan);
-        plan.joinNoeudTroncons();
-
+    /** Plan partagé (graphe, CH, repères déjà construits) si ce contenu XML a déjà été chargé ; en échec, plan inchangé. */
+    public void createPlan(String planXml) throws IOException {
+        try {
+            plan = RegistrePlans.global().obtenir(planXml);
+        } catch (IOException e) {
+            log.error("Chargement du plan {} en échec: {}", planXml, e.getMessage(), e);
+            throw e;
+        }
     }
 
     private Entrepot entrepot;
+    private OrdreGlobal.Strategie strategieOrdreGlobal = OrdreGlobal.STRATEGIE_DEFAUT;
     private MatriceCout matriceCout;
     private MatriceChemins matriceChemins;
 
@@ -38,6 +47,15 @@ public class PickupDeliveryModel {
         this.matriceCout = matriceCout;
     }
 
+    /** Stratégie de l'étape "ordre global" des pipelines multi-livreurs (OrdreGlobal.pour). */
+    public OrdreGlobal.Strategie getStrategieOrdreGlobal() {
+        return strategieOrdreGlobal;
+    }
+
+    public void setStrategieOrdreGlobal(OrdreGlobal.Strategie strategieOrdreGlobal) {
+        this.strategieOrdreGlobal = Objects.requireNonNull(strategieOrdreGlobal);
+    }
+
     public Entrepot getEntrepot() {
         return entrepot;
     }
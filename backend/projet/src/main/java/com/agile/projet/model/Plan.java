@@ -1,66 +1,222 @@
 package com.agile.projet.model;
 
+import com.agile.projet.utils.CacheSousTSP;
+import com.agile.projet.utils.HierarchieContraction;
+import com.agile.projet.utils.Reperes;
+
 import java.util.*;
+import java.util.function.Supplier;
 
 public class Plan {
 
-    private Map<Long, Noeud> noeuds = new HashMap<>();
+    // Noeuds en tableaux parallèles indexés 0..nbNoeuds-1 (ordre d'insertion), id -> index sans boxing
+    private TableIds index = new TableIds(16);
+    private long[] ids = new long[16];
+    private double[] latitudes = new double[16];
+    private double[] longitudes = new double[16];
+    private Noeud[] vues = new Noeud[16];          // Noeud créés à la demande (getNoeud, tronçons, graphe)
+    private int nbNoeuds;
+
     private List<Troncon> troncons = new ArrayList<>();
     private List<Troncon> vraiTroncons = new ArrayList<>();
+    private Supplier<List<Troncon>> tronconsDifferes;   // plan d'un instantané : tronçons construits au premier accès
+    private GrapheRoutier graphe;
+    private HierarchieContraction hierarchie;
+    private Reperes reperes;
+    private final CacheSousTSP cacheSousTsp = new CacheSousTSP(CacheSousTSP.CAPACITE_DEFAUT);
 
     public Plan() {
-        this.noeuds = new HashMap<>();
-        this.troncons = new ArrayList<>();
-        this.vraiTroncons = new ArrayList<>();
     }
 
     public Plan(Map<Long, Noeud> noeuds, List<Troncon> troncons, List<Troncon> vraiTroncons) {
-        this.noeuds = noeuds != null ? noeuds : new HashMap<>();
+        if (noeuds != null) for (Noeud n : noeuds.values()) addNoeud(n);
         this.troncons = troncons != null ? troncons : new ArrayList<>();
         this.vraiTroncons = vraiTroncons != null ? vraiTroncons : new ArrayList<>();
     }
 
     public void addNoeud(Noeud n) {
-        noeuds.put(n.getId(), n);
+        int i = addNoeud(n.getId(), n.getLatitude(), n.getLongitude());
+        vues[i] = n;
+    }
+
+    /** Ajoute (ou remplace) un noeud sans créer d'objet Noeud. @return son index */
+    public int addNoeud(long id, double latitude, double longitude) {
+        int i = index.getOuAjouter(id);
+        if (i == nbNoeuds) {
+            if (i == ids.length) {
+                int cap = ids.length * 2;
+                ids = Arrays.copyOf(ids, cap);
+                latitudes = Arrays.copyOf(latitudes, cap);
+                longitudes = Arrays.copyOf(longitudes, cap);
+                vues = Arrays.copyOf(vues, cap);
+            }
+            nbNoeuds++;
+        }
+        ids[i] = id;
+        latitudes[i] = latitude;
+        longitudes[i] = longitude;
+        vues[i] = null;
+        return i;
     }
+
     public Noeud getNoeud(long id) {
-        return noeuds.get(id);
+        int i = index.get(id);
+        return i < 0 ? null : noeud(i);
+    }
+
+    /** Noeud d'index i, créé au premier accès puis réutilisé. */
+    public Noeud noeud(int i) {
+        Noeud n = vues[i];
+        if (n == null) {
+            n = new Noeud(ids[i], latitudes[i], longitudes[i]);
+            vues[i] = n;
+        }
+        return n;
+    }
+
+    public int getNbNoeuds() {
+        return nbNoeuds;
+    }
+
+    /** Index du noeud, -1 si absent. */
+    public int indexOf(long id) {
+        return index.get(id);
+    }
+
+    public long getId(int i) {
+        return ids[i];
+    }
+
+    public double getLatitude(int i) {
+        return latitudes[i];
+    }
+
+    public double getLongitude(int i) {
+        return longitudes[i];
     }
 
     public Collection<Noeud> getAllNoeuds() {
-        return noeuds.values();
+        List<Noeud> tous = new ArrayList<>(nbNoeuds);
+        for (int i = 0; i < nbNoeuds; i++) tous.add(noeud(i));
+        return Collections.unmodifiableList(tous);
     }
 
     public void addTroncon(Troncon t) {
+        materialiserTroncons();
         troncons.add(t);
     }
 
     public List<Troncon> getTroncons() {
+        materialiserTroncons();
         return troncons;
     }
     public List<Troncon> getVraiTroncons() {
+        materialiserTroncons();
         return vraiTroncons;
     }
 
+    /**
+     * Tronçons fournis à la demande (plan chargé d'un instantané, graphe déjà installé) : aucun objet Troncon
+     * n'est créé tant que getTroncons / getVraiTroncons ne sont pas appelés.
+     * La liste fournie contient tous les tronçons dans l'ordre ; les résolus forment getVraiTroncons.
+     */
+    public synchronized void setTronconsDifferes(Supplier<List<Troncon>> tronconsDifferes) {
+        this.troncons = new ArrayList<>();
+        this.vraiTroncons = new ArrayList<>();
+        this.tronconsDifferes = tronconsDifferes;
+    }
+
+    private synchronized void materialiserTroncons() {
+        if (tronconsDifferes == null) return;
+        for (Troncon t : tronconsDifferes.get()) {
+            troncons.add(t);
+            if (t.estResolu()) vraiTroncons.add(t);
+        }
+        tronconsDifferes = null;
+    }
+
     public Noeud getNoeudById(Long id) {
-        return noeuds.get(id);
+        return id == null ? null : getNoeud(id);
+    }
+
+    /**
+     * Tronçon par ids (parseur en flux) : résolu vers les index du plan et ajouté aux deux listes si ses deux
+     * noeuds sont connus, sinon conservé non résolu dans getTroncons seulement.
+     */
+    public void addTroncon(long origine, long destination, double longueur, String nomRue) {
+        materialiserTroncons();
+        int o = index.get(origine);
+        int d = index.get(destination);
+        if (o >= 0 && d >= 0) {
+            Troncon t = new Troncon(this, o, d, longueur, nomRue);
+            troncons.add(t);
+            vraiTroncons.add(t);
+        } else {
+            troncons.add(new Troncon(origine, destination, longueur, nomRue));
+        }
     }
 
+    /**
+     * Résout vers les index du plan les tronçons ajoutés par addTroncon(Troncon) (ids seuls).
+     * Sans effet sur les tronçons déjà résolus : XmlPlanParser les résout au fil de la lecture.
+     */
     public void joinNoeudTroncons(){
-        for(Troncon t : troncons){
-            Noeud noeudOrigine = this.getNoeudById(t.getOrigine());
-            Noeud noeudDestination = this.getNoeudById(t.getDestination());
+        materialiserTroncons();
+        for (Troncon t : troncons) {
+            if (t.estResolu()) continue;
+            int o = t.getOrigine() == null ? -1 : index.get(t.getOrigine());
+            int d = t.getDestination() == null ? -1 : index.get(t.getDestination());
+            if (o < 0 || d < 0) continue;
+            vraiTroncons.add(new Troncon(this, o, d, t.getLongueur(), t.getNomRue()));
+        }
 
-            System.out.println(noeudDestination);
+    }
+    /** Construit le graphe CSR à partir des tronçons résolus (noeuds = index du plan). */
+    public void construireGraphe() {
+        this.graphe = GrapheRoutier.depuisPlan(this);
+    }
 
+    public GrapheRoutier getGraphe() {
+        return graphe;
+    }
 
-            Troncon troncon = new Troncon(noeudOrigine, noeudDestination, t.getLongueur(), t.getNomRue());
-            vraiTroncons.add(troncon);
-        }
+    /** Prétraitement Contraction Hierarchies sur le graphe CSR (à appeler après construireGraphe). */
+    public void construireHierarchie() {
+        if (graphe == null) construireGraphe();
+        this.hierarchie = HierarchieContraction.construire(graphe);
+    }
+
+    public HierarchieContraction getHierarchie() {
+        return hierarchie;
+    }
+
+    /** Repères ALT (sélection du point le plus éloigné) pour les requêtes point-à-point. */
+    public void construireReperes() {
+        if (graphe == null) construireGraphe();
+        this.reperes = Reperes.choisir(graphe, Reperes.NB_REPERES_DEFAUT);
+    }
 
+    public Reperes getReperes() {
+        return reperes;
     }
+
+    /** Graphe, hiérarchie et repères déjà calculés (instantané) : rien à reconstruire ; hiérarchie et repères peuvent être null. */
+    public void installerPretraitements(GrapheRoutier graphe, HierarchieContraction hierarchie, Reperes reperes) {
+        this.graphe = graphe;
+        this.hierarchie = hierarchie;
+        this.reperes = reperes;
+    }
+
+    /**
+     * Sous-TSP déjà résolus sur ce plan, partagés par toutes les requêtes qui l'utilisent : les coûts entre
+     * points d'intérêt ne dépendent que du plan, les ids des sommets suffisent comme clé.
+     */
+    public CacheSousTSP getCacheSousTsp() {
+        return cacheSousTsp;
+    }
+
     public void printTroncons() {
-        for (Troncon t : vraiTroncons) {
+        for (Troncon t : getVraiTroncons()) {
             System.out.println(
                     "Tronçon : " +
                             "origine=" + t.getOrigineNoeud().getId() +
@@ -74,11 +230,11 @@ public class Plan {
     }
 
     public void printNoeuds() {
-        for (Noeud n : noeuds.values()) {
+        for (int i = 0; i < nbNoeuds; i++) {
             System.out.println(
-                    "Noeud " + n.getId() +
-                            " | lat=" + n.getLatitude() +
-                            " | lon=" + n.getLongitude()
+                    "Noeud " + ids[i] +
+                            " | lat=" + latitudes[i] +
+                            " | lon=" + longitudes[i]
             );
         }
     }
@@ -0,0 +1,77 @@
+package com.agile.projet.model;
+
+import java.util.Arrays;
+
+/**
+ * Table de hachage id (long) -> index (int) à adressage ouvert (sondage linéaire), sans boxing.
+ * Les index sont attribués dans l'ordre d'insertion (0, 1, 2...) ; pas de suppression.
+ */
+final class TableIds {
+
+    private static final long VIDE = Long.MIN_VALUE;   // id réservé : jamais un id de noeud OSM
+
+    private long[] cles;
+    private int[] valeurs;
+    private int taille;
+    private int masque;
+
+    TableIds(int capaciteInitiale) {
+        int cap = Integer.highestOneBit(Math.max(4, capaciteInitiale * 2 - 1)) << 1;
+        allouer(cap);
+    }
+
+    int taille() {
+        return taille;
+    }
+
+    /** Index de l'id, -1 si absent. */
+    int get(long id) {
+        if (id == VIDE) return -1;
+        for (int i = melange(id) & masque; ; i = (i + 1) & masque) {
+            long c = cles[i];
+            if (c == id) return valeurs[i];
+            if (c == VIDE) return -1;
+        }
+    }
+
+    /** Index existant de l'id, sinon lui attribue l'index suivant (taille()). */
+    int getOuAjouter(long id) {
+        if (id == VIDE) throw new IllegalArgumentException("Id réservé: " + id);
+        if (2 * (taille + 1) > cles.length) agrandir();
+        for (int i = melange(id) & masque; ; i = (i + 1) & masque) {
+            long c = cles[i];
+            if (c == id) return valeurs[i];
+            if (c == VIDE) {
+                cles[i] = id;
+                valeurs[i] = taille;
+                return taille++;
+            }
+        }
+    }
+
+    private void agrandir() {
+        long[] anciennesCles = cles;
+        int[] anciennesValeurs = valeurs;
+        allouer(cles.length * 2);
+        for (int k = 0; k < anciennesCles.length; k++) {
+            long c = anciennesCles[k];
+            if (c == VIDE) continue;
+            int i = melange(c) & masque;
+            while (cles[i] != VIDE) i = (i + 1) & masque;
+            cles[i] = c;
+            valeurs[i] = anciennesValeurs[k];
+        }
+    }
+
+    private void allouer(int cap) {
+        cles = new long[cap];
+        Arrays.fill(cles, VIDE);
+        valeurs = new int[cap];
+        masque = cap - 1;
+    }
+
+    private static int melange(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -3,49 +3,80 @@ package com.agile.projet.model;
 
 public class Troncon {
 
-    private Noeud origineNoeud;
-    private Noeud destinationNoeud;
-    private double longueur;
-    private String nomRue;
+    // Tronçon résolu : extrémités en index dans le plan, aucun Noeud retenu (créés à la demande par le Plan)
+    private final Plan plan;
+    private final int indexOrigine;
+    private final int indexDestination;
+    private final double longueur;
+    private final String nomRue;
 
-    private Long origine;
-    private Long destination;
+    // Tronçon non résolu (noeud absent du plan) : ids seuls, ABSENT si inconnus ; null pour un tronçon résolu
+    private static final long ABSENT = Long.MIN_VALUE;
+    private final long[] idsNonResolus;
 
-    public Troncon(Noeud origine, Noeud destination, double longueur, String nomRue) {
-        this.origineNoeud = origine;
-        this.destinationNoeud = destination;
+    /** Tronçon résolu : origine et destination sont des index du plan. */
+    public Troncon(Plan plan, int indexOrigine, int indexDestination, double longueur, String nomRue) {
+        this.plan = plan;
+        this.indexOrigine = indexOrigine;
+        this.indexDestination = indexDestination;
         this.longueur = longueur;
         this.nomRue = nomRue;
+        this.idsNonResolus = null;
     }
 
+    /** Tronçon non résolu (ids seuls), résolu ensuite par Plan.joinNoeudTroncons. */
     public Troncon(Long origine, Long destination, double longueur, String nomRue) {
-        this.origine = origine;
-        this.destination = destination;
+        this.plan = null;
+        this.indexOrigine = -1;
+        this.indexDestination = -1;
         this.longueur = longueur;
         this.nomRue = nomRue;
+        this.idsNonResolus = new long[]{origine != null ? origine : ABSENT, destination != null ? destination : ABSENT};
     }
 
-    public void setOrigineNoeud(Noeud origineNoeud) {
-        this.origineNoeud = origineNoeud;
+    public boolean estResolu() {
+        return plan != null;
     }
 
-    public void setDestinationNoeud(Noeud destinationNoeud) {
-        this.destinationNoeud = destinationNoeud;
+    /** Index de l'origine dans le plan, -1 si non résolu. */
+    public int getIndexOrigine() {
+        return indexOrigine;
+    }
+
+    /** Index de la destination dans le plan, -1 si non résolu. */
+    public int getIndexDestination() {
+        return indexDestination;
+    }
+
+    /** Index de l'origine dans le plan donné (résolu par id si le tronçon vient d'un autre plan), -1 si absent. */
+    int indexOrigineDans(Plan p) {
+        if (plan == p) return indexOrigine;
+        Long id = getOrigine();
+        return id == null ? -1 : p.indexOf(id);
+    }
+
+    int indexDestinationDans(Plan p) {
+        if (plan == p) return indexDestination;
+        Long id = getDestination();
+        return id == null ? -1 : p.indexOf(id);
     }
 
     public Noeud getOrigineNoeud() {
-        return origineNoeud;
+        return plan == null ? null : plan.noeud(indexOrigine);
     }
+
     public Long getOrigine() {
-        return origine;
+        if (plan != null) return plan.getId(indexOrigine);
+        return idsNonResolus[0] == ABSENT ? null : idsNonResolus[0];
     }
 
     public Noeud getDestinationNoeud() {
-        return destinationNoeud;
+        return plan == null ? null : plan.noeud(indexDestination);
     }
 
     public Long getDestination() {
-        return destination;
+        if (plan != null) return plan.getId(indexDestination);
+        return idsNonResolus[1] == ABSENT ? null : idsNonResolus[1];
     }
 
     public double getLongueur() {
@@ -55,4 +86,4 @@ public class Troncon {
     public String getNomRue() {
         return nomRue;
     }
-}
\ No newline at end of file
+}
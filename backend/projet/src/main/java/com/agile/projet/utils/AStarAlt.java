@@ -0,0 +1,87 @@
+package com.agile.projet.utils;
+
+import com.agile.projet.model.GrapheRoutier;
+
+/**
+ * A* point-à-point sur le graphe CSR, guidé par l'heuristique ALT.
+ * Sans repères (heuristique nulle), se comporte exactement comme Dijkstra.
+ */
+public class AStarAlt {
+
+    private final GrapheRoutier graphe;
+    private final HeuristiqueAlt heuristique;
+
+    private final double[] dist;
+    private final int[] pred;
+    private final int[] atteint;
+    private final int[] fixe;
+    private final TasIndexe tas;
+    private int generation;
+
+    private double distance = Double.POSITIVE_INFINITY;
+    private int nbFixes;
+
+    public AStarAlt(GrapheRoutier graphe, Reperes reperes) {
+        this.graphe = graphe;
+        this.heuristique = new HeuristiqueAlt(graphe, reperes);
+        int n = graphe.getNbNoeuds();
+        this.dist = new double[n];
+        this.pred = new int[n];
+        this.atteint = new int[n];
+        this.fixe = new int[n];
+        this.tas = new TasIndexe(n);
+    }
+
+    /**
+     * @return chemin source -> cible en indices CSR (bornes incluses), null si inatteignable
+     */
+    public int[] chemin(int source, int cible) {
+        distance = Double.POSITIVE_INFINITY;
+        nbFixes = 0;
+        if (source < 0 || cible < 0) return null;
+
+        generation++;
+        tas.clear();
+        dist[source] = 0.0;
+        pred[source] = -1;
+        atteint[source] = generation;
+        tas.inserOuDiminue(source, heuristique.estimation(source, cible));
+
+        while (!tas.isEmpty()) {
+            int u = tas.extraireMin();
+            fixe[u] = generation;
+            nbFixes++;
+            if (u == cible) {
+                distance = dist[u];
+                return reconstruire(u);
+            }
+            double du = dist[u];
+            for (int e = graphe.debutArcs(u), fin = graphe.finArcs(u); e < fin; e++) {
+                int v = graphe.cible(e);
+                if (fixe[v] == generation) continue;
+                double nd = du + graphe.longueur(e);
+                if (atteint[v] != generation || nd < dist[v]) {
+                    atteint[v] = generation;
+                    dist[v] = nd;
+                    pred[v] = u;
+                    tas.inserOuDiminue(v, nd + heuristique.estimation(v, cible));
+                }
+            }
+        }
+        return null;
+    }
+
+    /** Longueur du dernier chemin calculé (+∞ si inatteignable). */
+    public double getDistance() { return distance; }
+
+    /** Nombre de noeuds fixés par la dernière recherche. */
+    public int getNbFixes() { return nbFixes; }
+
+    private int[] reconstruire(int c) {
+        int longueur = 0;
+        for (int u = c; u != -1; u = pred[u]) longueur++;
+        int[] chemin = new int[longueur];
+        for (int u = c, i = longueur - 1; u != -1; u = pred[u], i--) chemin[i] = u;
+        return chemin;
+    }
+}
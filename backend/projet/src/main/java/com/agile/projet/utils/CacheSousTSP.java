@@ -0,0 +1,204 @@
+package com.agile.projet.utils;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Cache LRU des sous-TSP résolus sur un même Plan (Plan.getCacheSousTsp, transmis aux MatriceCout calculées
+ * sur ce plan) : il sert d'une requête à l'autre tant que le plan reste dans RegistrePlans.
+ * Une MatriceCout construite hors plan a son propre cache.
+ * - Clé canonique : sommet de départ + ensemble trié des ids du sous-problème + paires pickup -> delivery
+ *   (sur un plan donné, les ids déterminent les coûts).
+ *   Indépendante de l'ordre des livraisons (les balanceurs retrient la liste de demandes en place).
+ * - Valeur : tournée (ids), distance, optimalité prouvée. Les durées s'en déduisent (vitesse + temps de service
+ *   propres à chaque appel).
+ * - Seuls les résultats complets sont mémorisés : une résolution coupée par son échéance n'est pas réutilisée.
+ * Thread-safe (utilisé par le portfolio et les résolutions parallèles).
+ */
+public final class CacheSousTSP {
+
+    public static final int CAPACITE_DEFAUT = 1024;
+
+    private final int capacite;
+    private final LinkedHashMap<Cle, Resultat> entrees;
+    private long nbSucces;
+    private long nbEchecs;
+
+    public CacheSousTSP(int capacite) {
+        if (capacite <= 0) throw new IllegalArgumentException("Capacité > 0 requise");
+        this.capacite = capacite;
+        this.entrees = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Cle, Resultat> eldest) {
+                return size() > CacheSousTSP.this.capacite;
+            }
+        };
+    }
+
+    /**
+     * Solveur mémoïsé : même contrat que SolveurTSP.pour(costMatrix, vertexOrder, pickupOfDelivery),
+     * le solveur réel n'est construit qu'en cas d'absence dans le cache.
+     * @param pickupOfDelivery null si pas de contrainte pickup -> delivery
+     */
+    public SolveurTSP solveur(double[][] costMatrix, List<Long> vertexOrder, int[] pickupOfDelivery) {
+        return new SolveurMemorise(costMatrix, vertexOrder, pickupOfDelivery);
+    }
+
+    public synchronized int taille() {
+        return entrees.size();
+    }
+
+    public synchronized long getNbSucces() {
+        return nbSucces;
+    }
+
+    public synchronized long getNbEchecs() {
+        return nbEchecs;
+    }
+
+    public synchronized void vider() {
+        entrees.clear();
+    }
+
+    private synchronized Resultat lire(Cle cle) {
+        Resultat r = entrees.get(cle);
+        if (r != null) nbSucces++;
+        else nbEchecs++;
+        return r;
+    }
+
+    private synchronized void ecrire(Cle cle, Resultat r) {
+        entrees.put(cle, r);
+    }
+
+    // ==================== Clé / valeur ====================
+
+    private record Cle(long depart, long[] ids, long[] paires) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Cle c && depart == c.depart
+                    && Arrays.equals(ids, c.ids) && Arrays.equals(paires, c.paires);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * Long.hashCode(depart) + Arrays.hashCode(ids)) + Arrays.hashCode(paires);
+        }
+    }
+
+    private record Resultat(long[] chemin, double cout, boolean optimal) {}
+
+    private static Cle cle(long depart, List<Long> vertexOrder, int[] pickupOfDelivery) {
+        long[] ids = new long[vertexOrder.size()];
+        for (int i = 0; i < ids.length; i++) ids[i] = vertexOrder.get(i);
+        Arrays.sort(ids);
+
+        int nbPaires = 0;
+        if (pickupOfDelivery != null) for (int p : pickupOfDelivery) if (p >= 0) nbPaires++;
+        long[][] paires = new long[nbPaires][];
+        int k = 0;
+        if (pickupOfDelivery != null) {
+            for (int d = 0; d < pickupOfDelivery.length; d++) {
+                if (pickupOfDelivery[d] >= 0) {
+                    paires[k++] = new long[]{vertexOrder.get(pickupOfDelivery[d]), vertexOrder.get(d)};
+                }
+            }
+        }
+        Arrays.sort(paires, (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+        long[] aplaties = new long[2 * nbPaires];
+        for (int i = 0; i < nbPaires; i++) {
+            aplaties[2 * i] = paires[i][0];
+            aplaties[2 * i + 1] = paires[i][1];
+        }
+        return new Cle(depart, ids, aplaties);
+    }
+
+    // ==================== Solveur ====================
+
+    private final class SolveurMemorise implements SolveurTSP {
+
+        private final double[][] costMatrix;
+        private final List<Long> vertexOrder;
+        private final int[] pickupOfDelivery;
+        private Echeance echeance = Echeance.jamais();
+        private ObservateurTSP observateur;
+        private ForkJoinPool pool;
+        private Resultat resultat;
+
+        SolveurMemorise(double[][] costMatrix, List<Long> vertexOrder, int[] pickupOfDelivery) {
+            this.costMatrix = costMatrix;
+            this.vertexOrder = vertexOrder;
+            this.pickupOfDelivery = pickupOfDelivery;
+        }
+
+        @Override
+        public SolveurTSP setEcheance(Echeance echeance) {
+            this.echeance = echeance != null ? echeance : Echeance.jamais();
+            return this;
+        }
+
+        @Override
+        public SolveurTSP setObservateur(ObservateurTSP observateur) {
+            this.observateur = observateur;
+            return this;
+        }
+
+        @Override
+        public SolveurTSP setPool(ForkJoinPool pool) {
+            this.pool = pool;
+            return this;
+        }
+
+        @Override
+        public void solveFromIndex(int startIndex) {
+            solveFromId(vertexOrder.get(startIndex));
+        }
+
+        @Override
+        public void solveFromId(long startId) {
+            Cle cle = cle(startId, vertexOrder, pickupOfDelivery);
+            resultat = lire(cle);
+            if (resultat != null) return;
+
+            SolveurTSP solveur = pickupOfDelivery != null
+                    ? SolveurTSP.pour(costMatrix, vertexOrder, pickupOfDelivery)
+                    : SolveurTSP.pour(costMatrix, vertexOrder);
+            solveur.setEcheance(echeance).setObservateur(observateur).setPool(pool).solveFromId(startId);
+
+            List<Long> ids = solveur.getBestPathIds();
+            long[] chemin = new long[ids.size()];
+            for (int i = 0; i < chemin.length; i++) chemin[i] = ids.get(i);
+            resultat = new Resultat(chemin, solveur.getBestCost(), solveur.isOptimaliteProuvee());
+
+            if (resultat.optimal() || !echeance.estAtteinte()) ecrire(cle, resultat);
+        }
+
+        @Override
+        public double getBestCost() {
+            return resultat != null ? resultat.cout() : Double.POSITIVE_INFINITY;
+        }
+
+        @Override
+        public List<Integer> getBestPathIndices() {
+            if (resultat == null) return List.of();
+            Map<Long, Integer> index = new HashMap<>();
+            for (int i = 0; i < vertexOrder.size(); i++) index.putIfAbsent(vertexOrder.get(i), i);
+            List<Integer> indices = new ArrayList<>(resultat.chemin().length);
+            for (long id : resultat.chemin()) indices.add(index.get(id));
+            return indices;
+        }
+
+        @Override
+        public List<Long> getBestPathIds() {
+            if (resultat == null) return List.of();
+            List<Long> ids = new ArrayList<>(resultat.chemin().length);
+            for (long id : resultat.chemin()) ids.add(id);
+            return ids;
+        }
+
+        @Override
+        public boolean isOptimaliteProuvee() {
+            return resultat != null && resultat.optimal();
+        }
+    }
+}
@@ -3,17 +3,18 @@ package com.agile.projet.utils;
 import com.agile.projet.model.*;
 import org.jgrapht.Graph;
 import org.jgrapht.GraphPath;
-import org.jgrapht.alg.interfaces.AStarAdmissibleHeuristic;
-import org.jgrapht.alg.shortestpath.AStarShortestPath;
 import org.jgrapht.alg.shortestpath.FloydWarshallShortestPaths;
 import org.jgrapht.graph.DefaultDirectedWeightedGraph;
 import org.jgrapht.graph.DefaultWeightedEdge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
 
 public class CalculPlusCoursChemins {
+    private static final Logger log = LoggerFactory.getLogger(CalculPlusCoursChemins.class);
 
     public CalculPlusCoursChemins() { }
 
@@ -33,33 +34,22 @@ public class CalculPlusCoursChemins {
             GraphPath<Long, DefaultWeightedEdge> path  = fw.getPath(delivery.getAdresseEnlevement(), delivery.getAdresseLivraison());
             GraphPath<Long, DefaultWeightedEdge> path2 = fw.getPath(delivery.getAdresseLivraison(),  delivery.getAdresseEnlevement());
 
-            System.out.println("   chemin = " + (path  != null ? path.getVertexList()  : "aucun"));
-            System.out.println("   chemin = " + (path2 != null ? path2.getVertexList() : "aucun"));
+            log.debug("   chemin = {}", path  != null ? path.getVertexList()  : "aucun");
+            log.debug("   chemin = {}", path2 != null ? path2.getVertexList() : "aucun");
         }
     }
 
     public void computeAstar(Plan plan, DemandeDelivery demandeDelivery, PickupDeliveryModel model){
-        Graph<Noeud, DefaultWeightedEdge> graph = new DefaultDirectedWeightedGraph<>(DefaultWeightedEdge.class);
         MatriceChemins matriceChemins = new MatriceChemins();
 
-        // 1) Graphe réel (poids = longueur)
-        List<Troncon> troncons = plan.getVraiTroncons();
-        for (Troncon troncon : troncons) {
-            Noeud org = troncon.getOrigineNoeud();
-            Noeud dst = troncon.getDestinationNoeud();
-            graph.addVertex(org);
-            graph.addVertex(dst);
-            DefaultWeightedEdge e = graph.addEdge(org, dst);
-            if (e != null) {
-                graph.setEdgeWeight(e, troncon.getLongueur());
-            }
+        // 1) Graphe réel (poids = longueur) : CSR construit une fois par Plan au createPlan
+        GrapheRoutier graphe = plan.getGraphe();
+        if (graphe == null) {
+            // Plan construit à la main (sans createPlan) : CSR à la volée
+            graphe = GrapheRoutier.fromTroncons(plan.getVraiTroncons());
         }
 
-        // 2) A* avec heuristique euclidienne
-        AStarAdmissibleHeuristic<Noeud> h = this::calculDistanceEuclidienne;
-        AStarShortestPath<Noeud, DefaultWeightedEdge> astar = new AStarShortestPath<>(graph, h);
-
-        // 3) Points d’intérêt : ENTREPÔT d’abord (depuis le modèle), puis enlèvements + livraisons
+        // 2) Points d’intérêt : ENTREPÔT d’abord (depuis le modèle), puis enlèvements + livraisons
         List<Noeud> poi = new ArrayList<>();
 
         // Entrepôt depuis PickupDeliveryModel (déjà défini par XmlDeliveryParser + createDelivery)
@@ -79,15 +69,22 @@ public class CalculPlusCoursChemins {
         LinkedHashSet<Noeud> uniques = new LinkedHashSet<>(poi);
         List<Noeud> points = new ArrayList<>(uniques);
 
-        // 4) Build vertexOrder (index -> ID Long) et matrice des coûts
+        // 3) Build vertexOrder (index -> ID Long) et matrice des coûts
         int n = points.size();
         double[][] costMatrix = new double[n][n];
 
         List<Long> vertexOrder = new ArrayList<>(n);
-        for (Noeud nd : points) {
-            vertexOrder.add(nd.getId());
+        int[] indicesCsr = new int[n];
+        for (int i = 0; i < n; i++) {
+            vertexOrder.add(points.get(i).getId());
+            indicesCsr[i] = graphe.indexOf(points.get(i).getId());
         }
 
+        // Plus courts chemins POI x POI : hiérarchie de contraction si le Plan en a une,
+        // sinon un Dijkstra un-vers-plusieurs par source
+        int[][][] chemins = new int[n][][];
+        double[][] distances = calculerDistances(plan, graphe, indicesCsr, chemins);
+
         for (int i = 0; i < n; i++) {
             Noeud from = points.get(i);
             for (int j = 0; j < n; j++) {
@@ -96,16 +93,14 @@ public class CalculPlusCoursChemins {
                     continue;
                 }
                 Noeud to = points.get(j);
-                GraphPath<Noeud, DefaultWeightedEdge> path = astar.getPath(from, to);
-                costMatrix[i][j] = (path == null) ? Double.POSITIVE_INFINITY : path.getWeight();
-                if(path == null) {
+                int[] chemin = chemins[i][j];
+                costMatrix[i][j] = (chemin == null) ? Double.POSITIVE_INFINITY : distances[i][j];
+                if(chemin == null) {
                     continue;
                 }
-                double cost = path.getWeight();
                 NodePair pair = new NodePair(from, to);
 
-                matriceChemins.put(pair,path.getVertexList());
-                System.out.println(from +  "->" + to + " = " + cost);
+                matriceChemins.put(pair, toNoeuds(graphe, chemin));
             }
         }
         java.util.Map<Long, Long> p2d = new java.util.HashMap<>();
@@ -135,17 +130,62 @@ public class CalculPlusCoursChemins {
                 pickupOfDelivery[iD] = iP; // la livraison à iD exige d’avoir visité iP
             }
         }
-        // 5) Stockage dans le modèle (vertexOrder vit dans le modèle, MatriceCout = matrice seule)
+        // 4) Stockage dans le modèle (vertexOrder vit dans le modèle, MatriceCout = matrice seule)
         model.setVertexOrder(vertexOrder);
-        model.setMatriceCout(new MatriceCout(costMatrix));
+        CacheSousTSP cacheSousTsp = plan.getCacheSousTsp();   // absent si le plan n'est pas un vrai Plan (mock)
+        model.setMatriceCout(cacheSousTsp != null ? new MatriceCout(costMatrix, cacheSousTsp) : new MatriceCout(costMatrix));
         model.setPickupOfDelivery(pickupOfDelivery);
         model.setMatriceChemins(matriceChemins);
     }
 
+    /**
+     * Plus court chemin point-à-point (A* guidé par les repères ALT du Plan).
+     * @return suite des noeuds from -> to (bornes incluses), null si inatteignable
+     */
+    public List<Noeud> plusCourtChemin(Plan plan, long fromId, long toId) {
+        GrapheRoutier graphe = plan.getGraphe();
+        Reperes reperes = plan.getReperes();
+        if (graphe == null) {
+            graphe = GrapheRoutier.fromTroncons(plan.getVraiTroncons());
+            reperes = null;
+        }
+        int[] chemin = new AStarAlt(graphe, reperes).chemin(graphe.indexOf(fromId), graphe.indexOf(toId));
+        return chemin == null ? null : toNoeuds(graphe, chemin);
+    }
+
+    /**
+     * Distances POI x POI (indices CSR) ; chemins[i][j] reçoit la suite des indices CSR, null si inatteignable.
+     */
+    private static double[][] calculerDistances(Plan plan, GrapheRoutier graphe, int[] indicesCsr, int[][][] chemins) {
+        int n = indicesCsr.length;
+        HierarchieContraction ch = plan.getHierarchie();
+        if (ch != null && graphe == plan.getGraphe()) {
+            HierarchieContraction.ResultatMatrice res = ch.plusieursVersPlusieurs(indicesCsr, indicesCsr);
+            for (int i = 0; i < n; i++) {
+                chemins[i] = new int[n][];
+                for (int j = 0; j < n; j++) chemins[i][j] = res.getChemin(i, j);
+            }
+            return res.getDistances();
+        }
+
+        // Une seule recherche par source : toutes les cibles sont fixées dans la même passe
+        DijkstraMultiCibles dijkstra = new DijkstraMultiCibles(graphe);
+        double[][] distances = new double[n][];
+        for (int i = 0; i < n; i++) {
+            DijkstraMultiCibles.Resultat res = dijkstra.depuis(indicesCsr[i], indicesCsr);
+            distances[i] = new double[n];
+            chemins[i] = new int[n][];
+            for (int j = 0; j < n; j++) {
+                distances[i][j] = res.getDistance(j);
+                chemins[i][j] = res.getChemin(j);
+            }
+        }
+        return distances;
+    }
 
-    private double calculDistanceEuclidienne(Noeud v1, Noeud v2){
-        double dx = v1.getLatitude() - v2.getLatitude();
-        double dy = v1.getLongitude() - v2.getLongitude();
-        return Math.sqrt(dx*dx + dy*dy);
+    private static List<Noeud> toNoeuds(GrapheRoutier graphe, int[] chemin) {
+        List<Noeud> noeuds = new ArrayList<>(chemin.length);
+        for (int idx : chemin) noeuds.add(graphe.getNoeud(idx));
+        return noeuds;
     }
 }
@@ -1,13 +1,46 @@
 package com.agile.projet.utils;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * TSP Branch & Bound sur matrice de coûts.
  * - Matrice en indices (0..n-1), mapping via vertexOrder (IDs Long).
  * - Contrainte Pickup -> Delivery optionnelle via pickupOfDelivery[indexDelivery] = indexPickup (sinon -1).
+ * - Borne inférieure au choix (voir {@link Borne}), sélectionnée via setBorne.
+ * - Recherche itérative sans allocation : pile de chemin int[], candidats par profondeur int[][],
+ *   voisins de chaque ligne pré-triés par coût, noeuds visités dans un masque long (n <= 64).
+ * - Mode parallèle optionnel (setPool) : les premiers niveaux de l'arbre deviennent des tâches
+ *   fork/join, la meilleure solution est partagée sans verrou entre les workers.
+ * - Solution initiale fournie par HeuristiqueInsertion : l'élagage est efficace dès le départ.
+ * - Echéance optionnelle (setEcheance) : à expiration, la meilleure tournée trouvée est conservée.
  */
-public class CalculTSP {
+public class CalculTSP implements SolveurTSP {
+
+    /** Stratégies de borne inférieure pour l'élagage. */
+    public enum Borne {
+        /** Arête minimale globale * nombre d'arcs restants (historique, très faible). */
+        ARETE_MIN,
+        /** Matrice réduite : min sortant par ligne puis min entrant par colonne sur la sous-matrice restante. */
+        MATRICE_REDUITE,
+        /**
+         * 1-tree de Held-Karp adapté : arbre couvrant minimal de {dernier} ∪ restants ∪ {départ}
+         * (arcs autorisés, coût min des deux sens), avec pénalités lagrangiennes sur les degrés
+         * (1 aux extrémités, 2 ailleurs). Combinée avec MATRICE_REDUITE.
+         */
+        UN_ARBRE
+    }
+
+    private static final int ITERATIONS_SOUS_GRADIENT = 15;
+    static final int MAX_NOEUDS = 64;
+    /** Nombre visé de tâches par thread du pool en mode parallèle. */
+    private static final int TACHES_PAR_THREAD = 8;
+    private static final int BITS_PAR_NIVEAU = 6;   // 64 candidats max par niveau
+    /** L'échéance est consultée tous les (MASQUE_VERIFICATION + 1) noeuds explorés. */
+    private static final int MASQUE_VERIFICATION = 1023;
 
     private final int n;
     private final double[][] cost;          // cost[i][j]
@@ -17,13 +50,40 @@ public class CalculTSP {
     // Contrainte: si j est une livraison, pickupOfDelivery[j] = index du pickup, sinon -1
     private final int[] pickupOfDelivery;
 
-    private final boolean[] visited;
-
-    private double bestCost = Double.POSITIVE_INFINITY;
-    private List<Integer> bestPath = new ArrayList<>();
+    // Pour chaque ligne i : les j != i atteignables, triés par coût croissant (puis par indice)
+    private final int[][] ordreVoisins;
 
     private double minEdge = Double.POSITIVE_INFINITY;
 
+    private Borne borne = Borne.MATRICE_REDUITE;
+    private ForkJoinPool pool;               // null => recherche séquentielle
+    private Echeance echeance = Echeance.jamais();
+    private volatile boolean interrompu;
+    private int start;
+
+    /**
+     * Meilleure solution connue, partagée entre workers.
+     * rang = position de la tâche dans l'ordre du parcours séquentiel : à coût égal, le plus petit rang gagne,
+     * ce qui rend le résultat parallèle identique au résultat séquentiel.
+     */
+    private static final class Solution {
+        final double cout;
+        final long rang;
+        final int[] chemin;
+
+        Solution(double cout, long rang, int[] chemin) {
+            this.cout = cout;
+            this.rang = rang;
+            this.chemin = chemin;
+        }
+    }
+
+    private static final Solution AUCUNE = new Solution(Double.POSITIVE_INFINITY, -1, new int[0]);
+
+    private final AtomicReference<Solution> meilleure = new AtomicReference<>(AUCUNE);
+    private final AtomicLong nbNoeudsExplores = new AtomicLong();
+    private ObservateurTSP observateur;
+
     // ---------- Constructeur sans contrainte (optionnel) ----------
     public CalculTSP(double[][] costMatrix, List<Long> vertexOrder) {
         Objects.requireNonNull(costMatrix);
@@ -32,6 +92,8 @@ public class CalculTSP {
         this.n = costMatrix.length;
         if (n != vertexOrder.size())
             throw new IllegalArgumentException("vertexOrder.size != matrix size");
+        if (n > MAX_NOEUDS)
+            throw new IllegalArgumentException("Branch & Bound limité à " + MAX_NOEUDS + " noeuds (n=" + n + ")");
 
         for (int i = 0; i < n; i++) {
             if (costMatrix[i] == null || costMatrix[i].length != n) {
@@ -41,7 +103,6 @@ public class CalculTSP {
 
         this.cost = costMatrix;
         this.vertexOrder = new ArrayList<>(vertexOrder);
-        this.visited = new boolean[n];
 
         this.idToIndex = new HashMap<>(n * 2);
         for (int i = 0; i < n; i++) {
@@ -55,6 +116,7 @@ public class CalculTSP {
         Arrays.fill(this.pickupOfDelivery, -1); // pas de contrainte par défaut
 
         precomputeMinEdge();
+        this.ordreVoisins = trierVoisins();
     }
 
     // ---------- Constructeur avec contrainte pickup->delivery ----------
@@ -68,93 +130,466 @@ public class CalculTSP {
 
     // ---------- API publique ----------
 
+    public CalculTSP setBorne(Borne borne) {
+        this.borne = Objects.requireNonNull(borne);
+        return this;
+    }
+
+    public Borne getBorne() { return borne; }
+
+    /** Pool fork/join utilisé pour la recherche parallèle (résultat identique), null pour le mode séquentiel. */
+    @Override
+    public CalculTSP setPool(ForkJoinPool pool) {
+        this.pool = pool;
+        return this;
+    }
+
+    @Override
+    public CalculTSP setEcheance(Echeance echeance) {
+        this.echeance = echeance != null ? echeance : Echeance.jamais();
+        return this;
+    }
+
+    @Override
+    public CalculTSP setObservateur(ObservateurTSP observateur) {
+        this.observateur = observateur;
+        return this;
+    }
+
+    @Override
+    public boolean isOptimaliteProuvee() { return !interrompu; }
+
+    /** Nombre de noeuds de l'arbre de recherche visités lors du dernier solve. */
+    public long getNbNoeudsExplores() { return nbNoeudsExplores.get(); }
+
+    @Override
     public void solveFromId(long startId) {
         Integer idx = idToIndex.get(startId);
         if (idx == null) throw new IllegalArgumentException("Start ID unknown: " + startId);
         solveFromIndex(idx);
     }
 
+    @Override
     public void solveFromIndex(int startIndex) {
         if (startIndex < 0 || startIndex >= n)
             throw new IllegalArgumentException("startIndex out of range");
 
-        Arrays.fill(visited, false);
-        bestCost = Double.POSITIVE_INFINITY;
-        bestPath.clear();
-
-        visited[startIndex] = true;
-        ArrayList<Integer> path = new ArrayList<>();
-        path.add(startIndex);
-
-        branchAndBound(path, startIndex, 0.0);
+        meilleure.set(AUCUNE);
+        nbNoeudsExplores.set(0);
+        interrompu = false;
+        start = startIndex;
+
+        // Solution initiale heuristique, de rang maximal : à coût égal, celle de la recherche exacte la remplace
+        // (le résultat reste celui du parcours exhaustif). Jamais une tournée non admissible : son coût trop bas
+        // élaguerait toutes les tournées valides.
+        int[] initiale = HeuristiqueInsertion.construire(cost, pickupOfDelivery, startIndex, echeance);
+        if (HeuristiqueInsertion.estAdmissible(initiale, pickupOfDelivery, startIndex)) {
+            meilleure.set(new Solution(HeuristiqueInsertion.coutTournee(cost, initiale), Long.MAX_VALUE, initiale));
+            if (observateur != null) observateur.nouveauCout(meilleure.get().cout);
+        }
 
-        visited[startIndex] = false;
+        int[] racine = {startIndex};
+        if (pool == null || n < 4) {
+            Explorateur e = new Explorateur(0);
+            e.charger(racine, 0.0);
+            e.explorer();
+            nbNoeudsExplores.addAndGet(e.nbNoeuds);
+        } else {
+            pool.invoke(new TacheBranche(racine, 0.0, 0L, profondeurDecoupage()));
+        }
     }
 
-    public double getBestCost() { return bestCost; }
+    @Override
+    public double getBestCost() { return meilleure.get().cout; }
 
+    @Override
     public List<Integer> getBestPathIndices() {
-        return new ArrayList<>(bestPath);
+        int[] chemin = meilleure.get().chemin;
+        List<Integer> indices = new ArrayList<>(chemin.length);
+        for (int idx : chemin) indices.add(idx);
+        return indices;
     }
 
+    @Override
     public List<Long> getBestPathIds() {
-        List<Long> ids = new ArrayList<>(bestPath.size());
-        for (int idx : bestPath) {
+        int[] chemin = meilleure.get().chemin;
+        List<Long> ids = new ArrayList<>(chemin.length);
+        for (int idx : chemin) {
             ids.add(vertexOrder.get(idx));
         }
         return ids;
     }
 
-    // ---------- Branch & Bound avec contrainte ----------
+    // ---------- Meilleure solution partagée ----------
+
+    private double coutIncumbent() { return meilleure.get().cout; }
+
+    /**
+     * Une branche de borne b, explorée par la tâche de rang donné, peut-elle encore améliorer la solution ?
+     * Non si b > coût actuel, ou si b == coût actuel et que la solution vient d'une tâche antérieure (ou de celle-ci).
+     */
+    private boolean elaguer(double b, long rang) {
+        Solution s = meilleure.get();
+        return b > s.cout || (b == s.cout && rang >= s.rang);
+    }
+
+    /** Echéance atteinte (ici ou par un autre worker) : tous les workers s'arrêtent. */
+    private boolean doitArreter() {
+        if (interrompu) return true;
+        if (echeance.estAtteinte()) {
+            interrompu = true;
+            return true;
+        }
+        return false;
+    }
+
+    private void proposer(int[] chemin, double cout, long rang) {
+        while (true) {
+            Solution s = meilleure.get();
+            if (cout > s.cout || (cout == s.cout && rang >= s.rang)) return;
+            if (meilleure.compareAndSet(s, new Solution(cout, rang, Arrays.copyOf(chemin, n)))) {
+                // à coût égal seul le rang change (départage déterministe) : pas d'amélioration à signaler
+                if (observateur != null && cout < s.cout) observateur.nouveauCout(cout);
+                return;
+            }
+        }
+    }
+
+    // ---------- Branch & Bound itératif avec contrainte ----------
+
+    /**
+     * Etat d'une recherche en profondeur (un par tâche en mode parallèle).
+     * Tous les tableaux sont alloués à la construction : rien n'est alloué pendant le parcours.
+     */
+    private final class Explorateur {
+        private final long rang;
+        private long nbNoeuds;
+        private int base;                    // profondeur du préfixe imposé
+
+        private final int[] chemin = new int[n];          // chemin[d] = noeud à la profondeur d
+        private final double[] coutChemin = new double[n]; // coût du préfixe chemin[0..d]
+        private final int[][] candidats = new int[n][n];  // successeurs admissibles de chemin[d]
+        private final int[] nbCandidats = new int[n];
+        private final int[] curseur = new int[n];
+        private long visites;                             // bit v = noeud v déjà dans le chemin
+
+        // Tableaux de travail des bornes
+        private final int[] restants = new int[n];
+        private final double[] reduction = new double[n];
+        private final double[][] poids = new double[n + 1][n + 1];
+        private final double[] penalites = new double[n + 1];
+        private final double[] cle = new double[n + 1];
+        private final int[] parent = new int[n + 1];
+        private final int[] degre = new int[n + 1];
+        private final boolean[] dansArbre = new boolean[n + 1];
+
+        Explorateur(long rang) {
+            this.rang = rang;
+        }
+
+        void charger(int[] prefixe, double cout) {
+            base = prefixe.length - 1;
+            visites = 0L;
+            for (int d = 0; d <= base; d++) {
+                chemin[d] = prefixe[d];
+                visites |= 1L << prefixe[d];
+            }
+            coutChemin[base] = cout;
+        }
+
+        /** Parcours en profondeur sous le préfixe, sans récursion ni allocation (hors nouvelle meilleure solution). */
+        void explorer() {
+            int d = base;
+            ouvrir(d);
+            while (true) {
+                int last = chemin[d];
+                if (curseur[d] < nbCandidats[d]) {
+                    int next = candidats[d][curseur[d]++];
+                    double newCost = coutChemin[d] + cost[last][next];
+                    if (elaguer(newCost, rang)) {
+                        // candidats triés par coût croissant : les suivants ne feront pas mieux
+                        curseur[d] = nbCandidats[d];
+                        continue;
+                    }
+                    if ((nbNoeuds & MASQUE_VERIFICATION) == 0 && doitArreter()) return;
+                    d++;
+                    chemin[d] = next;
+                    coutChemin[d] = newCost;
+                    visites |= 1L << next;
+                    ouvrir(d);
+                } else {
+                    if (d == base) return;
+                    visites &= ~(1L << last);
+                    d--;
+                }
+            }
+        }
+
+        /** Traite le noeud de profondeur d : feuille, élagage, ou préparation de ses candidats. */
+        void ouvrir(int d) {
+            nbNoeuds++;
+            nbCandidats[d] = 0;
+            curseur[d] = 0;
+            int last = chemin[d];
+            double currentCost = coutChemin[d];
+
+            if (d == n - 1) {
+                double back = cost[last][chemin[0]];
+                if (!Double.isInfinite(back)) proposer(chemin, currentCost + back, rang);
+                return;
+            }
+
+            if (elaguer(bound(d + 1, last, currentCost), rang)) return;
+
+            int[] buffer = candidats[d];
+            int k = 0;
+            for (int next : ordreVoisins[last]) {
+                if ((visites & (1L << next)) != 0) continue;
+
+                // CONTRAINTE PICKUP -> DELIVERY : une livraison n'est possible qu'après son pickup
+                int reqPickup = pickupOfDelivery[next];
+                if (reqPickup != -1 && (visites & (1L << reqPickup)) == 0) continue;
+
+                buffer[k++] = next;
+            }
+            nbCandidats[d] = k;
+        }
+
+        // ---------- Borne ----------
+
+        private double bound(int pathSize, int last, double currentCost) {
+            switch (borne) {
+                case ARETE_MIN:
+                    return currentCost + (n - pathSize) * minEdge;
+                case MATRICE_REDUITE:
+                    return borneReduite(last, currentCost);
+                default:
+                    double reduite = borneReduite(last, currentCost);
+                    if (elaguer(reduite, rang)) return reduite;
+                    return Math.max(reduite, borneUnArbre(last, currentCost));
+            }
+        }
+
+        /**
+         * Arc i -> j possible dans le reste de la tournée (last -> restants... -> start) :
+         * pas d'arc direct last -> start, pas de livraison dont le pickup reste à faire juste après last,
+         * pas d'arc livraison -> son propre pickup.
+         */
+        private boolean arcPossible(int i, int j, int last) {
+            if (i == j || Double.isInfinite(cost[i][j])) return false;
+            if (j == start) return i != last;
+            int p = pickupOfDelivery[j];
+            if (p != -1 && (visites & (1L << p)) == 0 && i == last) return false;
+            return pickupOfDelivery[i] != j;
+        }
+
+        private int collecterRestants() {
+            int k = 0;
+            for (int v = 0; v < n; v++) {
+                if ((visites & (1L << v)) == 0) restants[k++] = v;
+            }
+            return k;
+        }
+
+        /** Réduction lignes ({last} ∪ restants) puis colonnes (restants ∪ {start}). +∞ si une ligne/colonne est vide. */
+        private double borneReduite(int last, double currentCost) {
+            int k = collecterRestants();
+            double total = currentCost;
+
+            for (int r = -1; r < k; r++) {
+                int i = r < 0 ? last : restants[r];
+                double m = Double.POSITIVE_INFINITY;
+                for (int c = 0; c <= k; c++) {
+                    int j = c < k ? restants[c] : start;
+                    if (arcPossible(i, j, last) && cost[i][j] < m) m = cost[i][j];
+                }
+                if (Double.isInfinite(m)) return Double.POSITIVE_INFINITY;
+                reduction[i] = m;
+                total += m;
+            }
 
-    private void branchAndBound(ArrayList<Integer> path, int last, double currentCost) {
-        if (path.size() == n) {
-            double back = cost[last][path.get(0)];
-            if (!Double.isInfinite(back)) {
-                double finalCost = currentCost + back;
-                if (finalCost < bestCost) {
-                    bestCost = finalCost;
-                    bestPath = new ArrayList<>(path);
+            for (int c = 0; c <= k; c++) {
+                int j = c < k ? restants[c] : start;
+                double m = Double.POSITIVE_INFINITY;
+                for (int r = -1; r < k; r++) {
+                    int i = r < 0 ? last : restants[r];
+                    if (arcPossible(i, j, last)) m = Math.min(m, cost[i][j] - reduction[i]);
                 }
+                if (Double.isInfinite(m)) return Double.POSITIVE_INFINITY;
+                total += m;
             }
-            return;
+            return total;
         }
 
-        if (bound(path.size(), currentCost) >= bestCost) return;
+        /**
+         * Borne 1-tree : le reste de la tournée est un chemin hamiltonien last -> ... -> start,
+         * donc un arbre couvrant dont les degrés valent 1 (extrémités) et 2 (intérieur).
+         * Pour toutes pénalités π : coût(chemin) >= ACM_π - Σ π_v * degréCible_v.
+         * Les pénalités sont ajustées par sous-gradient tant que l'élagage n'est pas atteint.
+         */
+        private double borneUnArbre(int last, double currentCost) {
+            int k = collecterRestants();
+            int m = k + 2;                      // 0 = last, 1..k = restants, k+1 = start
+            for (int a = 0; a < m; a++) {
+                int u = sommet(a, last, k);
+                for (int b = a + 1; b < m; b++) {
+                    int v = sommet(b, last, k);
+                    double w = Double.POSITIVE_INFINITY;
+                    if (arcPossible(u, v, last)) w = cost[u][v];
+                    if (arcPossible(v, u, last) && cost[v][u] < w) w = cost[v][u];
+                    poids[a][b] = w;
+                    poids[b][a] = w;
+                }
+                penalites[a] = 0.0;
+            }
 
-        List<Integer> candidates = new ArrayList<>();
-        for (int next = 0; next < n; next++) {
-            if (visited[next]) continue;
-            if (Double.isInfinite(cost[last][next])) continue;
+            double meilleure = Double.NEGATIVE_INFINITY;
+            double lambda = 2.0;
+            for (int it = 0; it < ITERATIONS_SOUS_GRADIENT; it++) {
+                double arbre = arbreCouvrantMinimal(m);
+                if (Double.isInfinite(arbre)) return Double.POSITIVE_INFINITY;
+
+                double l = arbre;
+                int norme = 0;
+                for (int a = 0; a < m; a++) {
+                    int cible = (a == 0 || a == m - 1) ? 1 : 2;
+                    l -= penalites[a] * cible;
+                    int g = degre[a] - cible;
+                    norme += g * g;
+                }
+                if (l > meilleure) meilleure = l;
 
-            // 💥 CONTRAINTE PICKUP -> DELIVERY :
-            int reqPickup = pickupOfDelivery[next];   // -1 si ce n'est pas une livraison
-            if (reqPickup != -1 && !visited[reqPickup]) {
-                // next est une livraison mais son pickup n'est pas encore visité => interdit
-                continue;
+                double marge = coutIncumbent() - currentCost;
+                if (meilleure >= marge || norme == 0 || Double.isInfinite(marge)) break;
+
+                double pas = lambda * (marge - l) / norme;
+                for (int a = 0; a < m; a++) {
+                    int cible = (a == 0 || a == m - 1) ? 1 : 2;
+                    penalites[a] += pas * (degre[a] - cible);
+                }
+                lambda *= 0.8;
             }
+            return currentCost + meilleure;
+        }
 
-            candidates.add(next);
+        private int sommet(int a, int last, int k) {
+            if (a == 0) return last;
+            return a <= k ? restants[a - 1] : start;
         }
 
-        candidates.sort(Comparator.comparingDouble(a -> cost[last][a]));
+        /** Prim en O(m²) sur poids + pénalités ; remplit degre[]. +∞ si non connexe. */
+        private double arbreCouvrantMinimal(int m) {
+            for (int a = 0; a < m; a++) {
+                cle[a] = Double.POSITIVE_INFINITY;
+                parent[a] = -1;
+                degre[a] = 0;
+                dansArbre[a] = false;
+            }
+            cle[0] = 0.0;
+            double total = 0.0;
+            for (int it = 0; it < m; it++) {
+                int u = -1;
+                for (int a = 0; a < m; a++) {
+                    if (!dansArbre[a] && (u < 0 || cle[a] < cle[u])) u = a;
+                }
+                if (Double.isInfinite(cle[u])) return Double.POSITIVE_INFINITY;
+                dansArbre[u] = true;
+                total += cle[u];
+                if (parent[u] >= 0) {
+                    degre[u]++;
+                    degre[parent[u]]++;
+                }
+                for (int v = 0; v < m; v++) {
+                    if (dansArbre[v] || Double.isInfinite(poids[u][v])) continue;
+                    double w = poids[u][v] + penalites[u] + penalites[v];
+                    if (w < cle[v]) {
+                        cle[v] = w;
+                        parent[v] = u;
+                    }
+                }
+            }
+            return total;
+        }
+    }
+
+    // ---------- Découpage fork/join ----------
+
+    /** Profondeur à laquelle les préfixes deviennent des tâches séquentielles : assez de tâches pour tout le pool. */
+    private int profondeurDecoupage() {
+        long visees = (long) pool.getParallelism() * TACHES_PAR_THREAD;
+        long taches = 1;
+        int profondeur = 0;
+        while (taches < visees && profondeur < n - 3 && (profondeur + 1) * BITS_PAR_NIVEAU < 63) {
+            taches *= n - 1 - profondeur;
+            profondeur++;
+        }
+        return profondeur;
+    }
 
-        for (int next : candidates) {
-            double edge = cost[last][next];
-            double newCost = currentCost + edge;
-            if (newCost >= bestCost) continue;
+    /**
+     * Sous-arbre d'un préfixe. Au-dessus de la profondeur de découpage, la tâche se divise en une sous-tâche
+     * par candidat (ordre du parcours séquentiel, encodé dans le rang) ; en dessous, elle explore séquentiellement.
+     */
+    private final class TacheBranche extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] prefixe;
+        private final double cout;
+        private final long rang;
+        private final int niveauxRestants;
+
+        TacheBranche(int[] prefixe, double cout, long rang, int niveauxRestants) {
+            this.prefixe = prefixe;
+            this.cout = cout;
+            this.rang = rang;
+            this.niveauxRestants = niveauxRestants;
+        }
 
-            visited[next] = true;
-            path.add(next);
+        @Override
+        protected void compute() {
+            if (doitArreter()) return;
+            // rang aligné sur la profondeur de découpage pour rester comparable entre tâches
+            Explorateur e = new Explorateur(rang << (BITS_PAR_NIVEAU * niveauxRestants));
+            e.charger(prefixe, cout);
+            int d = prefixe.length - 1;
+            if (niveauxRestants == 0 || d >= n - 2) {
+                e.explorer();
+                nbNoeudsExplores.addAndGet(e.nbNoeuds);
+                return;
+            }
 
-            branchAndBound(path, next, newCost);
+            e.ouvrir(d);
+            nbNoeudsExplores.addAndGet(e.nbNoeuds);
+            int last = prefixe[d];
+            List<TacheBranche> sousTaches = new ArrayList<>(e.nbCandidats[d]);
+            for (int c = 0; c < e.nbCandidats[d]; c++) {
+                int next = e.candidats[d][c];
+                double newCost = cout + cost[last][next];
+                int[] suite = Arrays.copyOf(prefixe, d + 2);
+                suite[d + 1] = next;
+                sousTaches.add(new TacheBranche(suite, newCost, (rang << BITS_PAR_NIVEAU) | c, niveauxRestants - 1));
+            }
+            invokeAll(sousTaches);
+        }
+    }
 
-            path.remove(path.size() - 1);
-            visited[next] = false;
+    private int[][] trierVoisins() {
+        int[][] ordre = new int[n][];
+        Integer[] tmp = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            int k = 0;
+            for (int j = 0; j < n; j++) {
+                if (j != i && !Double.isInfinite(cost[i][j])) tmp[k++] = j;
+            }
+            final double[] ligne = cost[i];
+            Arrays.sort(tmp, 0, k, Comparator.comparingDouble((Integer j) -> ligne[j]).thenComparingInt(j -> j));
+            ordre[i] = new int[k];
+            for (int c = 0; c < k; c++) ordre[i][c] = tmp[c];
         }
+        return ordre;
     }
 
-    // ---------- Borne ----------
+    // ---------- Précalculs ----------
 
     private void precomputeMinEdge() {
         double m = Double.POSITIVE_INFINITY;
@@ -167,9 +602,4 @@ public class CalculTSP {
         }
         this.minEdge = Double.isInfinite(m) ? 0.0 : m;
     }
-
-    private double bound(int pathSize, double currentCost) {
-        int remaining = n - pathSize;
-        return currentCost + remaining * minEdge;
-    }
 }
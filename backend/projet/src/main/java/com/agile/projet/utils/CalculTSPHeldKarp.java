@@ -0,0 +1,289 @@
+package com.agile.projet.utils;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+
+/**
+ * TSP exact par programmation dynamique de Held-Karp (bitmask), même API que CalculTSP.
+ * - État (masque des noeuds visités hors départ, dernier noeud), indexé en long : masque * m + dernier.
+ * - Coûts partiels stockés en double : aucune perte de précision dans les comparaisons de la DP.
+ * - Contrainte Pickup -> Delivery : une livraison n'est ajoutée que si son pickup est déjà dans le masque,
+ *   les états qui la violent ne sont donc jamais atteints.
+ * Mémoire : 2^(n-1) * (n-1) * 9 octets, soit ~90 Mo pour n = 20 ; le constructeur refuse les tables
+ * qui dépasseraient à elles seules la moitié du tas (Runtime.maxMemory()).
+ * Les tables de toutes les DP en cours (drivers en parallèle, portfolio, requêtes et jobs simultanés) sont
+ * imputées sur un budget commun de la même moitié du tas : quand il est épuisé, le solve passe par le
+ * Branch & Bound (CalculTSP, borne 1-tree), qui n'alloue presque rien.
+ * Si l'échéance expire avant la fin de la DP, la tournée rendue est celle de HeuristiqueInsertion.
+ */
+public class CalculTSPHeldKarp implements SolveurTSP {
+
+    /** Taille max raisonnable (mémoire et temps) pour la DP. */
+    public static final int MAX_NOEUDS = 20;
+    /** Octets par état de la DP : coût partiel (double) + noeud précédent (byte). */
+    private static final int OCTETS_PAR_ETAT = Double.BYTES + 1;
+    /** Part maximale du tas que la table de la DP peut occuper. */
+    private static final double PART_MAX_TAS = 0.5;
+    /** Taille max d'un tableau Java. */
+    private static final long MAX_ETATS = Integer.MAX_VALUE - 8;
+    /** Budget mémoire partagé par toutes les tables de DP en cours, en Ko. */
+    static final Semaphore BUDGET_KO = new Semaphore(
+            (int) Math.min(Integer.MAX_VALUE, (long) (Runtime.getRuntime().maxMemory() * PART_MAX_TAS) >> 10));
+
+    private final int n;
+    private final double[][] cost;
+    private final List<Long> vertexOrder;
+    private final Map<Long, Integer> idToIndex;
+    private final int[] pickupOfDelivery;
+
+    private double bestCost = Double.POSITIVE_INFINITY;
+    private List<Integer> bestPath = new ArrayList<>();
+
+    private Echeance echeance = Echeance.jamais();
+    private boolean interrompu;
+    private ForkJoinPool pool;    // pour le Branch & Bound de repli
+
+    public CalculTSPHeldKarp(double[][] costMatrix, List<Long> vertexOrder) {
+        Objects.requireNonNull(costMatrix);
+        Objects.requireNonNull(vertexOrder);
+
+        this.n = costMatrix.length;
+        if (n != vertexOrder.size())
+            throw new IllegalArgumentException("vertexOrder.size != matrix size");
+        long limite = (long) (Runtime.getRuntime().maxMemory() * PART_MAX_TAS);
+        if (nbEtats(n) > MAX_ETATS || octetsTable(n) > limite)
+            throw new IllegalArgumentException("Table Held-Karp trop grande pour n=" + n + " ("
+                    + octetsTable(n) / (1L << 20) + " Mo, limite " + limite / (1L << 20) + " Mo)");
+
+        for (int i = 0; i < n; i++) {
+            if (costMatrix[i] == null || costMatrix[i].length != n) {
+                throw new IllegalArgumentException("Matrix must be square (row " + i + ")");
+            }
+        }
+
+        this.cost = costMatrix;
+        this.vertexOrder = new ArrayList<>(vertexOrder);
+
+        this.idToIndex = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            Long id = this.vertexOrder.get(i);
+            if (this.idToIndex.put(id, i) != null) {
+                throw new IllegalArgumentException("Duplicate ID in vertexOrder: " + id);
+            }
+        }
+
+        this.pickupOfDelivery = new int[n];
+        Arrays.fill(this.pickupOfDelivery, -1);
+    }
+
+    public CalculTSPHeldKarp(double[][] costMatrix, List<Long> vertexOrder, int[] pickupOfDelivery) {
+        this(costMatrix, vertexOrder);
+        if (pickupOfDelivery == null || pickupOfDelivery.length != n) {
+            throw new IllegalArgumentException("pickupOfDelivery null or wrong length");
+        }
+        System.arraycopy(pickupOfDelivery, 0, this.pickupOfDelivery, 0, n);
+    }
+
+    /** Nombre d'états (masque, dernier noeud) de la DP pour n noeuds ; Long.MAX_VALUE si hors de portée. */
+    static long nbEtats(int n) {
+        if (n <= 1) return 0;
+        int m = n - 1;
+        return m >= Long.SIZE - 6 ? Long.MAX_VALUE : (1L << m) * m;
+    }
+
+    /** Taille en octets des tables de la DP pour n noeuds (saturée à Long.MAX_VALUE). */
+    static long octetsTable(int n) {
+        long etats = nbEtats(n);
+        return etats > Long.MAX_VALUE / OCTETS_PAR_ETAT ? Long.MAX_VALUE : etats * OCTETS_PAR_ETAT;
+    }
+
+    // ---------- API publique ----------
+
+    @Override
+    public CalculTSPHeldKarp setEcheance(Echeance echeance) {
+        this.echeance = echeance != null ? echeance : Echeance.jamais();
+        return this;
+    }
+
+    /** Pool transmis au Branch & Bound de repli (la DP elle-même reste séquentielle). */
+    @Override
+    public CalculTSPHeldKarp setPool(ForkJoinPool pool) {
+        this.pool = pool;
+        return this;
+    }
+
+    @Override
+    public boolean isOptimaliteProuvee() { return !interrompu; }
+
+    @Override
+    public void solveFromId(long startId) {
+        Integer idx = idToIndex.get(startId);
+        if (idx == null) throw new IllegalArgumentException("Start ID unknown: " + startId);
+        solveFromIndex(idx);
+    }
+
+    @Override
+    public void solveFromIndex(int startIndex) {
+        if (startIndex < 0 || startIndex >= n)
+            throw new IllegalArgumentException("startIndex out of range");
+
+        bestCost = Double.POSITIVE_INFINITY;
+        bestPath = new ArrayList<>();
+        interrompu = false;
+
+        if (n == 1) {
+            bestCost = cost[startIndex][startIndex];
+            bestPath.add(startIndex);
+            return;
+        }
+
+        int ko = (int) Math.min(Integer.MAX_VALUE, (octetsTable(n) + 1023) >> 10);
+        if (!BUDGET_KO.tryAcquire(ko)) {
+            repliBranchAndBound(startIndex);
+            return;
+        }
+        try {
+            programmationDynamique(startIndex);
+        } finally {
+            BUDGET_KO.release(ko);
+        }
+    }
+
+    private void programmationDynamique(int startIndex) {
+        // Noeuds hors départ -> bits 0..m-1
+        int m = n - 1;
+        int[] noeudDuBit = new int[m];
+        int[] bitDuNoeud = new int[n];
+        Arrays.fill(bitDuNoeud, -1);
+        for (int i = 0, b = 0; i < n; i++) {
+            if (i == startIndex) continue;
+            noeudDuBit[b] = i;
+            bitDuNoeud[i] = b++;
+        }
+
+        // Masque des prérequis de chaque bit (pickup à visiter avant) ; pickup = départ -> toujours satisfait
+        int[] prerequis = new int[m];
+        for (int b = 0; b < m; b++) {
+            int p = pickupOfDelivery[noeudDuBit[b]];
+            if (p >= 0 && p != startIndex) prerequis[b] = 1 << bitDuNoeud[p];
+        }
+
+        int nbMasques = 1 << m;
+        long nbEtats = (long) nbMasques * m;
+        double[] dp = new double[(int) nbEtats];
+        byte[] precedent = new byte[(int) nbEtats];   // bit du noeud précédent + 1 (0 = départ)
+        Arrays.fill(dp, Double.POSITIVE_INFINITY);
+
+        // Initialisation : départ -> premier noeud
+        for (int b = 0; b < m; b++) {
+            if (prerequis[b] != 0) continue;
+            double c = cost[startIndex][noeudDuBit[b]];
+            if (Double.isInfinite(c)) continue;
+            long etat = ((long) (1 << b)) * m + b;
+            dp[(int) etat] = c;
+        }
+
+        // Transitions par masques croissants (un sur-ensemble est toujours traité après)
+        for (int masque = 1; masque < nbMasques; masque++) {
+            if ((masque & 0xFF) == 0 && echeance.estAtteinte()) {
+                interrompu = true;
+                repliHeuristique(startIndex);
+                return;
+            }
+            long base = (long) masque * m;
+            for (int j = 0; j < m; j++) {
+                if ((masque & (1 << j)) == 0) continue;
+                double dj = dp[(int) (base + j)];
+                if (Double.isInfinite(dj)) continue;
+                double[] ligne = cost[noeudDuBit[j]];
+
+                int libres = ~masque & (nbMasques - 1);
+                while (libres != 0) {
+                    int k = Integer.numberOfTrailingZeros(libres);
+                    libres &= libres - 1;
+                    if ((prerequis[k] & masque) != prerequis[k]) continue; // pickup pas encore visité
+                    double c = ligne[noeudDuBit[k]];
+                    if (Double.isInfinite(c)) continue;
+                    int suivant = masque | (1 << k);
+                    int idx = (int) ((long) suivant * m + k);
+                    double nd = dj + c;
+                    if (nd < dp[idx]) {
+                        dp[idx] = nd;
+                        precedent[idx] = (byte) (j + 1);
+                    }
+                }
+            }
+        }
+
+        // Fermeture du cycle
+        int plein = nbMasques - 1;
+        long basePlein = (long) plein * m;
+        int dernier = -1;
+        double meilleur = Double.POSITIVE_INFINITY;
+        for (int j = 0; j < m; j++) {
+            double dj = dp[(int) (basePlein + j)];
+            if (Double.isInfinite(dj)) continue;
+            double retour = cost[noeudDuBit[j]][startIndex];
+            if (Double.isInfinite(retour)) continue;
+            if (dj + retour < meilleur) {
+                meilleur = dj + retour;
+                dernier = j;
+            }
+        }
+        if (dernier < 0) return; // aucune tournée faisable
+
+        // Reconstruction à rebours
+        int[] ordre = new int[n];
+        ordre[0] = startIndex;
+        int masque = plein;
+        int j = dernier;
+        for (int pos = m; pos >= 1; pos--) {
+            ordre[pos] = noeudDuBit[j];
+            int prec = precedent[(int) ((long) masque * m + j)] - 1;
+            masque &= ~(1 << j);
+            j = prec;
+        }
+
+        double total = 0.0;
+        for (int pos = 0; pos < n; pos++) {
+            total += cost[ordre[pos]][ordre[(pos + 1) % n]];
+            bestPath.add(ordre[pos]);
+        }
+        bestCost = total;
+    }
+
+    private void repliBranchAndBound(int startIndex) {
+        CalculTSP bb = new CalculTSP(cost, vertexOrder, pickupOfDelivery).setBorne(CalculTSP.Borne.UN_ARBRE);
+        bb.setEcheance(echeance).setPool(pool);
+        bb.solveFromIndex(startIndex);
+        bestCost = bb.getBestCost();
+        bestPath = bb.getBestPathIndices();
+        interrompu = !bb.isOptimaliteProuvee();
+    }
+
+    private void repliHeuristique(int startIndex) {
+        // l'échéance est déjà atteinte : seule la construction par insertion est faite
+        int[] tournee = HeuristiqueInsertion.construire(cost, pickupOfDelivery, startIndex, echeance);
+        if (tournee == null) return;
+        bestCost = HeuristiqueInsertion.coutTournee(cost, tournee);
+        for (int v : tournee) bestPath.add(v);
+    }
+
+    @Override
+    public double getBestCost() { return bestCost; }
+
+    @Override
+    public List<Integer> getBestPathIndices() {
+        return new ArrayList<>(bestPath);
+    }
+
+    @Override
+    public List<Long> getBestPathIds() {
+        List<Long> ids = new ArrayList<>(bestPath.size());
+        for (int idx : bestPath) {
+            ids.add(vertexOrder.get(idx));
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,155 @@
+package com.agile.projet.utils;
+
+import com.agile.projet.model.GrapheRoutier;
+
+import java.util.Arrays;
+
+/**
+ * Dijkstra "un vers plusieurs" sur le graphe routier CSR d'un Plan.
+ * - Une seule recherche par source : toutes les cibles sont fixées dans la même passe.
+ * - Arrêt anticipé dès que toutes les cibles atteignables sont fixées.
+ * - Tableaux de travail alloués une fois et réutilisés d'une source à l'autre
+ *   (marquage par génération, pas de remise à zéro en O(n)).
+ */
+public class DijkstraMultiCibles {
+
+    private final GrapheRoutier graphe;
+
+    private final double[] dist;
+    private final int[] pred;
+    private final int[] atteint;     // atteint[u] == generation => dist/pred valides
+    private final int[] fixe;        // fixe[u] == generation => distance définitive
+    private final int[] cible;       // cible[u] == generation => u est une cible
+    private final TasIndexe tas;
+    private int generation;
+
+    public DijkstraMultiCibles(GrapheRoutier graphe) {
+        this.graphe = graphe;
+        int n = graphe.getNbNoeuds();
+        this.dist = new double[n];
+        this.pred = new int[n];
+        this.atteint = new int[n];
+        this.fixe = new int[n];
+        this.cible = new int[n];
+        this.tas = new TasIndexe(n);
+    }
+
+    /** Résultat d'une recherche : distances et chemins (indices CSR) alignés sur le tableau des cibles. */
+    public static final class Resultat {
+        private final double[] distances;
+        private final int[][] chemins;
+
+        Resultat(double[] distances, int[][] chemins) {
+            this.distances = distances;
+            this.chemins = chemins;
+        }
+
+        /** Distance vers la k-ième cible, +∞ si elle n'est pas atteignable. */
+        public double getDistance(int k) { return distances[k]; }
+
+        /** Chemin source -> k-ième cible (bornes incluses), null si elle n'est pas atteignable. */
+        public int[] getChemin(int k) { return chemins[k]; }
+    }
+
+    /**
+     * @param source indice CSR de la source (-1 si absente du graphe : rien n'est atteignable)
+     * @param cibles indices CSR des cibles (-1 autorisé : cible inatteignable)
+     */
+    public Resultat depuis(int source, int[] cibles) {
+        double[] distances = new double[cibles.length];
+        int[][] chemins = new int[cibles.length][];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        if (source < 0) return new Resultat(distances, chemins);
+
+        nouvelleGeneration();
+
+        int restantes = 0;
+        for (int c : cibles) {
+            if (c >= 0 && cible[c] != generation) {
+                cible[c] = generation;
+                restantes++;
+            }
+        }
+
+        tas.clear();
+        dist[source] = 0.0;
+        pred[source] = -1;
+        atteint[source] = generation;
+        tas.inserOuDiminue(source, 0.0);
+
+        while (!tas.isEmpty() && restantes > 0) {
+            int u = tas.extraireMin();
+            fixe[u] = generation;
+            if (cible[u] == generation) restantes--;
+
+            double du = dist[u];
+            for (int e = graphe.debutArcs(u), fin = graphe.finArcs(u); e < fin; e++) {
+                int v = graphe.cible(e);
+                if (fixe[v] == generation) continue;
+                double nd = du + graphe.longueur(e);
+                if (atteint[v] != generation || nd < dist[v]) {
+                    atteint[v] = generation;
+                    dist[v] = nd;
+                    pred[v] = u;
+                    tas.inserOuDiminue(v, nd);
+                }
+            }
+        }
+
+        for (int k = 0; k < cibles.length; k++) {
+            int c = cibles[k];
+            if (c < 0 || fixe[c] != generation) continue;
+            distances[k] = dist[c];
+            chemins[k] = reconstruire(c);
+        }
+        return new Resultat(distances, chemins);
+    }
+
+    /** Distances depuis la source vers tous les noeuds (recherche complète, +∞ si inatteignable). */
+    public double[] toutesDistances(int source) {
+        double[] distances = new double[graphe.getNbNoeuds()];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        if (source < 0) return distances;
+
+        nouvelleGeneration();
+        tas.clear();
+        dist[source] = 0.0;
+        atteint[source] = generation;
+        tas.inserOuDiminue(source, 0.0);
+        while (!tas.isEmpty()) {
+            int u = tas.extraireMin();
+            fixe[u] = generation;
+            double du = dist[u];
+            distances[u] = du;
+            for (int e = graphe.debutArcs(u), fin = graphe.finArcs(u); e < fin; e++) {
+                int v = graphe.cible(e);
+                if (fixe[v] == generation) continue;
+                double nd = du + graphe.longueur(e);
+                if (atteint[v] != generation || nd < dist[v]) {
+                    atteint[v] = generation;
+                    dist[v] = nd;
+                    tas.inserOuDiminue(v, nd);
+                }
+            }
+        }
+        return distances;
+    }
+
+    private int[] reconstruire(int c) {
+        int longueur = 0;
+        for (int u = c; u != -1; u = pred[u]) longueur++;
+        int[] chemin = new int[longueur];
+        for (int u = c, i = longueur - 1; u != -1; u = pred[u], i--) chemin[i] = u;
+        return chemin;
+    }
+
+    private void nouvelleGeneration() {
+        generation++;
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(atteint, 0);
+            Arrays.fill(fixe, 0);
+            Arrays.fill(cible, 0);
+            generation = 1;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.agile.projet.utils;
+
+/**
+ * Limite de temps (horloge murale) et jeton d'annulation partagés par les solveurs.
+ * Les solveurs la consultent périodiquement et rendent leur meilleure solution connue dès qu'elle est atteinte.
+ */
+public final class Echeance {
+
+    private static final Echeance AUCUNE = new Echeance(Long.MAX_VALUE, false);
+
+    private final long limiteNanos;     // System.nanoTime() de fin, ignorée si !bornee
+    private final boolean bornee;
+    private final Echeance parent;      // atteinte si le parent l'est
+    private volatile boolean annulee;
+
+    private Echeance(long limiteNanos, boolean bornee) {
+        this(limiteNanos, bornee, null);
+    }
+
+    private Echeance(long limiteNanos, boolean bornee, Echeance parent) {
+        this.limiteNanos = limiteNanos;
+        this.bornee = bornee;
+        this.parent = parent;
+    }
+
+    /** Pas de limite de temps (mais annulable via annuler()). */
+    public static Echeance aucune() {
+        return new Echeance(Long.MAX_VALUE, false);
+    }
+
+    /** Echeance atteinte après la durée donnée, à partir de maintenant. */
+    public static Echeance dans(long millis) {
+        if (millis < 0) throw new IllegalArgumentException("Durée négative: " + millis);
+        return new Echeance(System.nanoTime() + millis * 1_000_000L, true);
+    }
+
+    /** Echeance partagée qui n'expire jamais et ne s'annule pas (valeur par défaut des solveurs). */
+    static Echeance jamais() { return AUCUNE; }
+
+    /** Echéance atteinte en même temps que celle-ci, mais annulable séparément (arrêt d'un sous-calcul). */
+    public Echeance fille() {
+        return new Echeance(limiteNanos, bornee, this);
+    }
+
+    public void annuler() {
+        if (this != AUCUNE) annulee = true;
+    }
+
+    public boolean estAtteinte() {
+        return annulee
+                || (bornee && System.nanoTime() - limiteNanos >= 0)
+                || (parent != null && parent.estAtteinte());
+    }
+}
@@ -0,0 +1,33 @@
+package com.agile.projet.utils;
+
+import com.agile.projet.model.GrapheRoutier;
+import com.agile.projet.model.Noeud;
+import org.jgrapht.alg.interfaces.AStarAdmissibleHeuristic;
+
+/**
+ * Heuristique ALT (A*, Landmarks, Triangle inequality) : borne inférieure en mètres,
+ * cohérente avec les poids des tronçons (contrairement à l'écart brut en degrés lat/lon).
+ */
+public class HeuristiqueAlt implements AStarAdmissibleHeuristic<Noeud> {
+
+    private final GrapheRoutier graphe;
+    private final Reperes reperes;
+
+    public HeuristiqueAlt(GrapheRoutier graphe, Reperes reperes) {
+        this.graphe = graphe;
+        this.reperes = reperes;
+    }
+
+    @Override
+    public double getCostEstimate(Noeud source, Noeud cible) {
+        int v = graphe.indexOf(source.getId());
+        int t = graphe.indexOf(cible.getId());
+        if (v < 0 || t < 0) return 0.0;
+        return estimation(v, t);
+    }
+
+    /** Version sur indices CSR (sans recherche d'ID), utilisée par AStarAlt. */
+    public double estimation(int v, int t) {
+        return reperes == null ? 0.0 : reperes.borneInferieure(v, t);
+    }
+}
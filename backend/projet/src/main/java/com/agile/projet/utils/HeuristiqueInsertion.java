@@ -0,0 +1,388 @@
+package com.agile.projet.utils;
+
+import java.util.*;
+
+/**
+ * TSP heuristique rapide avec contrainte Pickup -> Delivery, même API que CalculTSP.
+ * - Construction : insertion au moindre coût, paire (pickup, delivery) par paire, le pickup avant la livraison.
+ * - Amélioration : 2-opt (inversion de segment, coûts asymétriques) et Or-opt (déplacement de segments
+ *   de 1 à 3 noeuds) tant qu'un mouvement admissible fait baisser le coût.
+ * Sert de solution initiale aux solveurs exacts et de mode rapide pour les grandes demandes.
+ */
+public class HeuristiqueInsertion implements SolveurTSP {
+
+    private static final int LONGUEUR_MAX_OR_OPT = 3;
+    private static final double EPSILON = 1e-9;
+
+    private final int n;
+    private final double[][] cost;
+    private final List<Long> vertexOrder;
+    private final Map<Long, Integer> idToIndex;
+    private final int[] pickupOfDelivery;
+
+    private double bestCost = Double.POSITIVE_INFINITY;
+    private int[] bestPath = new int[0];
+    private Echeance echeance = Echeance.jamais();
+
+    public HeuristiqueInsertion(double[][] costMatrix, List<Long> vertexOrder) {
+        Objects.requireNonNull(costMatrix);
+        Objects.requireNonNull(vertexOrder);
+
+        this.n = costMatrix.length;
+        if (n != vertexOrder.size())
+            throw new IllegalArgumentException("vertexOrder.size != matrix size");
+
+        for (int i = 0; i < n; i++) {
+            if (costMatrix[i] == null || costMatrix[i].length != n) {
+                throw new IllegalArgumentException("Matrix must be square (row " + i + ")");
+            }
+        }
+
+        this.cost = costMatrix;
+        this.vertexOrder = new ArrayList<>(vertexOrder);
+
+        this.idToIndex = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            Long id = this.vertexOrder.get(i);
+            if (this.idToIndex.put(id, i) != null) {
+                throw new IllegalArgumentException("Duplicate ID in vertexOrder: " + id);
+            }
+        }
+
+        this.pickupOfDelivery = new int[n];
+        Arrays.fill(this.pickupOfDelivery, -1);
+    }
+
+    public HeuristiqueInsertion(double[][] costMatrix, List<Long> vertexOrder, int[] pickupOfDelivery) {
+        this(costMatrix, vertexOrder);
+        if (pickupOfDelivery == null || pickupOfDelivery.length != n) {
+            throw new IllegalArgumentException("pickupOfDelivery null or wrong length");
+        }
+        System.arraycopy(pickupOfDelivery, 0, this.pickupOfDelivery, 0, n);
+    }
+
+    // ---------- API publique ----------
+
+    @Override
+    public HeuristiqueInsertion setEcheance(Echeance echeance) {
+        this.echeance = echeance != null ? echeance : Echeance.jamais();
+        return this;
+    }
+
+    /** Heuristique : l'optimalité n'est jamais prouvée (sauf cas trivial n <= 2). */
+    @Override
+    public boolean isOptimaliteProuvee() { return n <= 2; }
+
+    @Override
+    public void solveFromId(long startId) {
+        Integer idx = idToIndex.get(startId);
+        if (idx == null) throw new IllegalArgumentException("Start ID unknown: " + startId);
+        solveFromIndex(idx);
+    }
+
+    @Override
+    public void solveFromIndex(int startIndex) {
+        if (startIndex < 0 || startIndex >= n)
+            throw new IllegalArgumentException("startIndex out of range");
+
+        int[] tournee = construire(cost, pickupOfDelivery, startIndex, echeance);
+        bestPath = tournee != null ? tournee : new int[0];
+        bestCost = tournee != null ? coutTournee(cost, tournee) : Double.POSITIVE_INFINITY;
+    }
+
+    @Override
+    public double getBestCost() { return bestCost; }
+
+    @Override
+    public List<Integer> getBestPathIndices() {
+        List<Integer> indices = new ArrayList<>(bestPath.length);
+        for (int idx : bestPath) indices.add(idx);
+        return indices;
+    }
+
+    @Override
+    public List<Long> getBestPathIds() {
+        List<Long> ids = new ArrayList<>(bestPath.length);
+        for (int idx : bestPath) {
+            ids.add(vertexOrder.get(idx));
+        }
+        return ids;
+    }
+
+    // ---------- Construction + recherche locale ----------
+
+    /**
+     * Tournée (départ en tête) construite par insertion puis améliorée par 2-opt / Or-opt.
+     * @return null si aucune insertion admissible n'existe (arcs infinis, précédences cycliques) ;
+     *         sinon une tournée qui vérifie estAdmissible
+     */
+    static int[] construire(double[][] cost, int[] pickupOfDelivery, int start, Echeance echeance) {
+        int[] tournee = insertion(cost, pickupOfDelivery, start);
+        if (tournee == null) return null;
+        ameliorer(cost, pickupOfDelivery, tournee, echeance);
+        return estAdmissible(tournee, pickupOfDelivery, start) ? tournee : null;
+    }
+
+    static double coutTournee(double[][] cost, int[] tournee) {
+        double total = 0.0;
+        for (int pos = 0; pos < tournee.length; pos++) {
+            total += cost[tournee[pos]][tournee[(pos + 1) % tournee.length]];
+        }
+        return total;
+    }
+
+    /**
+     * Tournée admissible : permutation des n noeuds, départ en tête, chaque pickup avant sa livraison
+     * (les précédences qui impliquent le départ sont ignorées, comme dans les solveurs exacts).
+     */
+    static boolean estAdmissible(int[] tournee, int[] pickupOfDelivery, int start) {
+        int n = pickupOfDelivery.length;
+        if (tournee == null || tournee.length != n || n == 0 || tournee[0] != start) return false;
+        int[] position = new int[n];
+        Arrays.fill(position, -1);
+        for (int k = 0; k < n; k++) {
+            int v = tournee[k];
+            if (v < 0 || v >= n || position[v] >= 0) return false;
+            position[v] = k;
+        }
+        for (int d = 0; d < n; d++) {
+            int p = pickupOfDelivery[d];
+            if (p >= 0 && p != start && d != start && position[p] > position[d]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Insertion au moindre coût des unités (paire pickup/delivery ou noeud seul) dans la tournée partielle.
+     * Les précédences peuvent s'enchaîner (livraison d'une paire = pickup d'une autre) : une unité n'est insérée
+     * qu'une fois le pickup de son premier noeud en place, et toujours après lui.
+     */
+    private static int[] insertion(double[][] cost, int[] pickupOfDelivery, int start) {
+        int n = cost.length;
+
+        // Unités à insérer : premier = pickup (ou noeud seul), second = delivery (ou -1) ; chaque noeud une fois
+        boolean[] pris = new boolean[n];
+        pris[start] = true;
+        List<int[]> unites = new ArrayList<>();
+        for (int d = 0; d < n; d++) {
+            int p = pickupOfDelivery[d];
+            if (p < 0 || pris[p] || pris[d]) continue;
+            unites.add(new int[]{p, d});
+            pris[p] = true;
+            pris[d] = true;
+        }
+        for (int v = 0; v < n; v++) {
+            if (!pris[v]) unites.add(new int[]{v, -1});
+        }
+        // Pickup du premier noeud de chaque unité, s'il doit être inséré avant elle (-1 sinon)
+        int[] prealable = new int[unites.size()];
+        for (int u = 0; u < unites.size(); u++) {
+            int q = pickupOfDelivery[unites.get(u)[0]];
+            prealable[u] = q >= 0 && q != start ? q : -1;
+        }
+
+        int[] tournee = new int[n];
+        tournee[0] = start;
+        int taille = 1;
+
+        boolean[] inseree = new boolean[unites.size()];
+        boolean[] enPlace = new boolean[n];
+        enPlace[start] = true;
+        // minSuite[j] / argSuite[j] : meilleure insertion de la livraison après une position >= j
+        double[] minSuite = new double[n + 1];
+        int[] argSuite = new int[n + 1];
+        for (int etape = 0; etape < unites.size(); etape++) {
+            double meilleurDelta = Double.POSITIVE_INFINITY;
+            int meilleureUnite = -1, posA = -1, posB = -1;
+
+            for (int u = 0; u < unites.size(); u++) {
+                if (inseree[u]) continue;
+                if (prealable[u] >= 0 && !enPlace[prealable[u]]) continue;
+                int a = unites.get(u)[0];
+                int b = unites.get(u)[1];
+                // a après son pickup déjà placé
+                int debut = 0;
+                if (prealable[u] >= 0) {
+                    while (tournee[debut] != prealable[u]) debut++;
+                }
+
+                if (b >= 0) {
+                    minSuite[taille] = Double.POSITIVE_INFINITY;
+                    argSuite[taille] = -1;
+                    for (int j = taille - 1; j >= 0; j--) {
+                        int xb = tournee[j];
+                        int yb = tournee[(j + 1) % taille];
+                        double deltaB = cost[xb][b] + cost[b][yb] - cost[xb][yb];
+                        if (!Double.isNaN(deltaB) && deltaB < minSuite[j + 1]) {
+                            minSuite[j] = deltaB;
+                            argSuite[j] = j;
+                        } else {
+                            minSuite[j] = minSuite[j + 1];
+                            argSuite[j] = argSuite[j + 1];
+                        }
+                    }
+                }
+
+                // insérer a après la position i (arc tournee[i] -> tournee[i+1], cyclique)
+                for (int i = debut; i < taille; i++) {
+                    int x = tournee[i];
+                    int y = tournee[(i + 1) % taille];
+                    double deltaA = cost[x][a] + cost[a][y] - cost[x][y];
+                    if (Double.isNaN(deltaA) || Double.isInfinite(deltaA)) continue;
+                    if (b < 0) {
+                        if (deltaA < meilleurDelta) {
+                            meilleurDelta = deltaA;
+                            meilleureUnite = u; posA = i; posB = -1;
+                        }
+                        continue;
+                    }
+                    // b juste après a
+                    double deltaAB = cost[x][a] + cost[a][b] + cost[b][y] - cost[x][y];
+                    if (!Double.isNaN(deltaAB) && deltaAB < meilleurDelta) {
+                        meilleurDelta = deltaAB;
+                        meilleureUnite = u; posA = i; posB = i;
+                    }
+                    // b après une position j > i (arc tournee[j] -> tournee[j+1]), a déjà en place
+                    if (deltaA + minSuite[i + 1] < meilleurDelta) {
+                        meilleurDelta = deltaA + minSuite[i + 1];
+                        meilleureUnite = u; posA = i; posB = argSuite[i + 1];
+                    }
+                }
+            }
+
+            if (meilleureUnite < 0) return null;
+            int a = unites.get(meilleureUnite)[0];
+            int b = unites.get(meilleureUnite)[1];
+            inseree[meilleureUnite] = true;
+            enPlace[a] = true;
+            if (b >= 0) enPlace[b] = true;
+
+            // b d'abord (position plus loin) pour ne pas décaler posA
+            if (b >= 0) {
+                int apres = posB == posA ? posA : posB;
+                taille = inserer(tournee, taille, apres + 1, b);
+            }
+            taille = inserer(tournee, taille, posA + 1, a);
+        }
+        return taille == n ? tournee : null;
+    }
+
+    private static int inserer(int[] tournee, int taille, int position, int v) {
+        System.arraycopy(tournee, position, tournee, position + 1, taille - position);
+        tournee[position] = v;
+        return taille + 1;
+    }
+
+    /** 2-opt + Or-opt jusqu'à l'optimum local (ou l'échéance). La position 0 (départ) ne bouge jamais. */
+    private static void ameliorer(double[][] cost, int[] pickupOfDelivery, int[] tournee, Echeance echeance) {
+        int n = tournee.length;
+        if (n < 4) return;
+        int[] position = new int[n];
+        boolean ameliore = true;
+        while (ameliore && !echeance.estAtteinte()) {
+            ameliore = deuxOpt(cost, pickupOfDelivery, tournee, position)
+                    | orOpt(cost, pickupOfDelivery, tournee, position);
+        }
+    }
+
+    /** Inversion de tournee[i..j] (1 <= i < j < n) si le coût baisse et qu'aucune paire n'est entièrement dedans. */
+    private static boolean deuxOpt(double[][] cost, int[] pickupOfDelivery, int[] t, int[] position) {
+        int n = t.length;
+        // avant[k] = coût de t[0..k] dans le sens de la tournée, arriere[k] = même segment parcouru à l'envers
+        double[] avant = new double[n];
+        double[] arriere = new double[n];
+        boolean ameliore = false;
+
+        for (int i = 1; i < n - 1; i++) {
+            for (int k = 1; k < n; k++) {
+                avant[k] = avant[k - 1] + cost[t[k - 1]][t[k]];
+                arriere[k] = arriere[k - 1] + cost[t[k]][t[k - 1]];
+            }
+            int a = t[i - 1];
+            for (int j = i + 1; j < n; j++) {
+                int b = t[(j + 1) % n];
+                double delta = cost[a][t[j]] + cost[t[i]][b] - cost[a][t[i]] - cost[t[j]][b]
+                        + (arriere[j] - arriere[i]) - (avant[j] - avant[i]);
+                if (!(delta < -EPSILON)) continue;
+                if (!inversionAdmissible(pickupOfDelivery, t, position, i, j)) continue;
+
+                for (int x = i, y = j; x < y; x++, y--) {
+                    int tmp = t[x];
+                    t[x] = t[y];
+                    t[y] = tmp;
+                }
+                ameliore = true;
+                a = t[i - 1];
+                for (int k = i; k < n; k++) {
+                    avant[k] = avant[k - 1] + cost[t[k - 1]][t[k]];
+                    arriere[k] = arriere[k - 1] + cost[t[k]][t[k - 1]];
+                }
+            }
+        }
+        return ameliore;
+    }
+
+    private static boolean inversionAdmissible(int[] pickupOfDelivery, int[] t, int[] position, int i, int j) {
+        for (int k = 0; k < t.length; k++) position[t[k]] = k;
+        for (int k = i; k <= j; k++) {
+            int p = pickupOfDelivery[t[k]];
+            if (p >= 0 && position[p] >= i && position[p] <= j) return false;
+        }
+        return true;
+    }
+
+    /** Déplace un segment de 1 à 3 noeuds après une autre position, si le coût baisse et la précédence tient. */
+    private static boolean orOpt(double[][] cost, int[] pickupOfDelivery, int[] t, int[] position) {
+        int n = t.length;
+        boolean ameliore = false;
+        int[] copie = new int[n];
+
+        for (int longueur = 1; longueur <= LONGUEUR_MAX_OR_OPT; longueur++) {
+            for (int i = 1; i + longueur - 1 < n; i++) {
+                int fin = i + longueur - 1;
+                int prev = t[i - 1];
+                int next = t[(fin + 1) % n];
+                double retrait = cost[prev][t[i]] + cost[t[fin]][next] - cost[prev][next];
+
+                // nouvelle place : entre t[k] et t[k+1], hors du segment et de ses bords
+                for (int k = 0; k < n; k++) {
+                    if (k >= i - 1 && k <= fin) continue;
+                    int x = t[k];
+                    int y = t[(k + 1) % n];
+                    double ajout = cost[x][t[i]] + cost[t[fin]][y] - cost[x][y];
+                    if (!(ajout - retrait < -EPSILON)) continue;
+
+                    deplacer(t, copie, i, fin, k);
+                    if (precedenceRespectee(pickupOfDelivery, copie, position)) {
+                        System.arraycopy(copie, 0, t, 0, n);
+                        ameliore = true;
+                        break;
+                    }
+                }
+            }
+        }
+        return ameliore;
+    }
+
+    /** copie = t avec le segment [i..fin] retiré puis réinséré après l'élément t[k]. */
+    private static void deplacer(int[] t, int[] copie, int i, int fin, int k) {
+        int n = t.length;
+        int w = 0;
+        for (int r = 0; r < n; r++) {
+            if (r >= i && r <= fin) continue;
+            copie[w++] = t[r];
+            if (r == k) {
+                for (int s = i; s <= fin; s++) copie[w++] = t[s];
+            }
+        }
+    }
+
+    private static boolean precedenceRespectee(int[] pickupOfDelivery, int[] t, int[] position) {
+        for (int k = 0; k < t.length; k++) position[t[k]] = k;
+        for (int k = 0; k < t.length; k++) {
+            int p = pickupOfDelivery[t[k]];
+            if (p >= 0 && position[p] > k) return false;
+        }
+        return true;
+    }
+}
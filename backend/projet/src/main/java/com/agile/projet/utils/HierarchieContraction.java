@@ -0,0 +1,588 @@
+package com.agile.projet.utils;
+
+import com.agile.projet.model.GrapheRoutier;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * Contraction Hierarchies sur le graphe routier CSR d'un Plan.
+ *
+ * Prétraitement (une fois par Plan) :
+ *  1) Ordre de contraction par priorité paresseuse (différence d'arcs + voisins déjà contractés).
+ *  2) Contraction de chaque noeud : recherche de témoins locale, ajout des raccourcis nécessaires.
+ *  3) Graphe "montant" (vers les rangs supérieurs) en CSR, dans les deux sens.
+ *
+ * Requête plusieurs-vers-plusieurs par seaux :
+ *  - recherche montante arrière depuis chaque cible -> seaux (cible, distance) sur les noeuds atteints
+ *  - recherche montante avant depuis chaque source -> parcours des seaux des noeuds atteints
+ *  - les raccourcis sont dépliés récursivement pour restituer la suite complète des noeuds.
+ */
+public final class HierarchieContraction {
+
+    /** Limites de noeuds fixés par recherche de témoins (au-delà on ajoute le raccourci, sans risque). */
+    private static final int LIMITE_TEMOINS_SIMULATION = 50;
+    private static final int LIMITE_TEMOINS = 500;
+
+    private final int n;
+    private final int[] rang;
+
+    // Arcs (originaux + raccourcis) : enfant1/enfant2 = -1 pour un arc original
+    private final int[] arcOrigine;
+    private final int[] arcDestination;
+    private final double[] arcPoids;
+    private final int[] arcEnfant1;
+    private final int[] arcEnfant2;
+
+    // Graphe montant avant : arcs u -> v avec rang[v] > rang[u]
+    private final int[] avantOffsets;
+    private final int[] avantArcs;
+    // Graphe montant arrière : arcs u -> v avec rang[u] > rang[v], rangés sous v
+    private final int[] arriereOffsets;
+    private final int[] arriereArcs;
+
+    private HierarchieContraction(int n, int[] rang, ListeArcs arcs) {
+        this.n = n;
+        this.rang = rang;
+        int m = arcs.taille;
+        this.arcOrigine = Arrays.copyOf(arcs.origine, m);
+        this.arcDestination = Arrays.copyOf(arcs.destination, m);
+        this.arcPoids = Arrays.copyOf(arcs.poids, m);
+        this.arcEnfant1 = Arrays.copyOf(arcs.enfant1, m);
+        this.arcEnfant2 = Arrays.copyOf(arcs.enfant2, m);
+
+        this.avantOffsets = new int[n + 1];
+        this.arriereOffsets = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            if (!arcs.actif[e]) continue;
+            int u = arcOrigine[e], v = arcDestination[e];
+            if (rang[v] > rang[u]) avantOffsets[u + 1]++;
+            else arriereOffsets[v + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            avantOffsets[i + 1] += avantOffsets[i];
+            arriereOffsets[i + 1] += arriereOffsets[i];
+        }
+        this.avantArcs = new int[avantOffsets[n]];
+        this.arriereArcs = new int[arriereOffsets[n]];
+        int[] ca = Arrays.copyOf(avantOffsets, n);
+        int[] cr = Arrays.copyOf(arriereOffsets, n);
+        for (int e = 0; e < m; e++) {
+            if (!arcs.actif[e]) continue;
+            int u = arcOrigine[e], v = arcDestination[e];
+            if (rang[v] > rang[u]) avantArcs[ca[u]++] = e;
+            else arriereArcs[cr[v]++] = e;
+        }
+    }
+
+    // ====================================================================
+    //                          PRÉTRAITEMENT
+    // ====================================================================
+
+    public static HierarchieContraction construire(GrapheRoutier graphe) {
+        int n = graphe.getNbNoeuds();
+        ListeArcs arcs = new ListeArcs(graphe.getNbArcs() * 2 + 16);
+        Adjacence sortants = new Adjacence(n);
+        Adjacence entrants = new Adjacence(n);
+
+        for (int u = 0; u < n; u++) {
+            for (int a = graphe.debutArcs(u); a < graphe.finArcs(u); a++) {
+                int v = graphe.cible(a);
+                if (u == v) continue;
+                int e = arcs.ajouter(u, v, graphe.longueur(a), -1, -1);
+                sortants.ajouter(u, e);
+                entrants.ajouter(v, e);
+            }
+        }
+
+        Contracteur c = new Contracteur(n, arcs, sortants, entrants);
+        int[] rang = c.contracterTout();
+        return new HierarchieContraction(n, rang, arcs);
+    }
+
+    /** État de la contraction (graphe dynamique restreint aux noeuds non contractés). */
+    private static final class Contracteur {
+        final int n;
+        final ListeArcs arcs;
+        final Adjacence sortants;
+        final Adjacence entrants;
+        final boolean[] contracte;
+        final int[] voisinsContractes;
+
+        // Recherche de témoins
+        final TasIndexe tas;
+        final double[] dist;
+        final int[] vu;
+        int generation;
+
+        Contracteur(int n, ListeArcs arcs, Adjacence sortants, Adjacence entrants) {
+            this.n = n;
+            this.arcs = arcs;
+            this.sortants = sortants;
+            this.entrants = entrants;
+            this.contracte = new boolean[n];
+            this.voisinsContractes = new int[n];
+            this.tas = new TasIndexe(n);
+            this.dist = new double[n];
+            this.vu = new int[n];
+        }
+
+        int[] contracterTout() {
+            PriorityQueue<long[]> file = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+            for (int v = 0; v < n; v++) file.add(new long[]{priorite(v), v});
+
+            int[] rang = new int[n];
+            int prochainRang = 0;
+            while (!file.isEmpty()) {
+                long[] tete = file.poll();
+                int v = (int) tete[1];
+                if (contracte[v]) continue;
+
+                // Mise à jour paresseuse : on recalcule, et on repousse si ce n'est plus le minimum
+                long p = priorite(v);
+                if (!file.isEmpty() && p > file.peek()[0]) {
+                    file.add(new long[]{p, v});
+                    continue;
+                }
+
+                contracter(v, true);
+                contracte[v] = true;
+                rang[v] = prochainRang++;
+
+                for (int i = 0; i < sortants.taille[v]; i++) {
+                    int w = arcs.destination[sortants.arcs[v][i]];
+                    if (!contracte[w]) {
+                        voisinsContractes[w]++;
+                        compacter(w);
+                    }
+                }
+                for (int i = 0; i < entrants.taille[v]; i++) {
+                    int u = arcs.origine[entrants.arcs[v][i]];
+                    if (!contracte[u]) {
+                        voisinsContractes[u]++;
+                        compacter(u);
+                    }
+                }
+            }
+            return rang;
+        }
+
+        /** Retire des listes de x les arcs désactivés ou menant à un noeud contracté. */
+        private void compacter(int x) {
+            int k = 0;
+            for (int i = 0; i < sortants.taille[x]; i++) {
+                int e = sortants.arcs[x][i];
+                if (arcs.actif[e] && !contracte[arcs.destination[e]]) sortants.arcs[x][k++] = e;
+            }
+            sortants.taille[x] = k;
+            k = 0;
+            for (int i = 0; i < entrants.taille[x]; i++) {
+                int e = entrants.arcs[x][i];
+                if (arcs.actif[e] && !contracte[arcs.origine[e]]) entrants.arcs[x][k++] = e;
+            }
+            entrants.taille[x] = k;
+        }
+
+        long priorite(int v) {
+            int raccourcis = contracter(v, false);
+            int degre = degreActif(sortants, v) + degreActif(entrants, v);
+            return (long) (raccourcis - degre) * 4 + voisinsContractes[v];
+        }
+
+        private int degreActif(Adjacence adj, int v) {
+            int d = 0;
+            for (int i = 0; i < adj.taille[v]; i++) {
+                int e = adj.arcs[v][i];
+                int autre = adj == sortants ? arcs.destination[e] : arcs.origine[e];
+                if (arcs.actif[e] && !contracte[autre]) d++;
+            }
+            return d;
+        }
+
+        /**
+         * Simule (ajouter=false) ou effectue (ajouter=true) la contraction de v.
+         * @return nombre de raccourcis nécessaires
+         */
+        int contracter(int v, boolean ajouter) {
+            int nb = 0;
+            for (int i = 0; i < entrants.taille[v]; i++) {
+                int eIn = entrants.arcs[v][i];
+                int u = arcs.origine[eIn];
+                if (!arcs.actif[eIn] || contracte[u]) continue;
+                double duv = arcs.poids[eIn];
+
+                double maxDist = -1.0;
+                for (int j = 0; j < sortants.taille[v]; j++) {
+                    int eOut = sortants.arcs[v][j];
+                    int w = arcs.destination[eOut];
+                    if (!arcs.actif[eOut] || contracte[w] || w == u) continue;
+                    maxDist = Math.max(maxDist, duv + arcs.poids[eOut]);
+                }
+                if (maxDist < 0.0) continue; // aucun successeur à relier
+
+                temoins(u, v, maxDist, ajouter ? LIMITE_TEMOINS : LIMITE_TEMOINS_SIMULATION);
+
+                for (int j = 0; j < sortants.taille[v]; j++) {
+                    int eOut = sortants.arcs[v][j];
+                    int w = arcs.destination[eOut];
+                    if (!arcs.actif[eOut] || contracte[w] || w == u) continue;
+                    double viaV = duv + arcs.poids[eOut];
+                    if (vu[w] == generation && dist[w] <= viaV) continue; // témoin trouvé
+
+                    nb++;
+                    if (ajouter) ajouterRaccourci(u, w, viaV, eIn, eOut);
+                }
+            }
+            return nb;
+        }
+
+        /** Dijkstra local depuis u, sans passer par v ni par les noeuds contractés. */
+        private void temoins(int u, int exclu, double maxDist, int limite) {
+            generation++;
+            tas.clear();
+            dist[u] = 0.0;
+            vu[u] = generation;
+            tas.inserOuDiminue(u, 0.0);
+            int fixes = 0;
+            while (!tas.isEmpty() && fixes < limite) {
+                int x = tas.extraireMin();
+                double dx = dist[x];
+                if (dx > maxDist) break;
+                fixes++;
+                for (int i = 0; i < sortants.taille[x]; i++) {
+                    int e = sortants.arcs[x][i];
+                    int y = arcs.destination[e];
+                    if (!arcs.actif[e] || y == exclu || contracte[y]) continue;
+                    double nd = dx + arcs.poids[e];
+                    if (vu[y] != generation || nd < dist[y]) {
+                        vu[y] = generation;
+                        dist[y] = nd;
+                        tas.inserOuDiminue(y, nd);
+                    }
+                }
+            }
+        }
+
+        private void ajouterRaccourci(int u, int w, double poids, int e1, int e2) {
+            // Un arc u -> w existant plus long est remplacé (désactivé)
+            for (int i = 0; i < sortants.taille[u]; i++) {
+                int e = sortants.arcs[u][i];
+                if (arcs.actif[e] && arcs.destination[e] == w) {
+                    if (arcs.poids[e] <= poids) return;
+                    arcs.actif[e] = false;
+                }
+            }
+            int e = arcs.ajouter(u, w, poids, e1, e2);
+            sortants.ajouter(u, e);
+            entrants.ajouter(w, e);
+        }
+    }
+
+    /** Listes d'arcs par noeud, tableaux extensibles. */
+    private static final class Adjacence {
+        final int[][] arcs;
+        final int[] taille;
+
+        Adjacence(int n) {
+            this.arcs = new int[n][4];
+            this.taille = new int[n];
+        }
+
+        void ajouter(int v, int e) {
+            if (taille[v] == arcs[v].length) arcs[v] = Arrays.copyOf(arcs[v], taille[v] * 2);
+            arcs[v][taille[v]++] = e;
+        }
+    }
+
+    /** Table des arcs (originaux et raccourcis), tableaux extensibles. */
+    private static final class ListeArcs {
+        int[] origine, destination, enfant1, enfant2;
+        double[] poids;
+        boolean[] actif;
+        int taille;
+
+        ListeArcs(int capacite) {
+            origine = new int[capacite];
+            destination = new int[capacite];
+            enfant1 = new int[capacite];
+            enfant2 = new int[capacite];
+            poids = new double[capacite];
+            actif = new boolean[capacite];
+        }
+
+        int ajouter(int u, int v, double w, int e1, int e2) {
+            if (taille == origine.length) {
+                int c = taille * 2;
+                origine = Arrays.copyOf(origine, c);
+                destination = Arrays.copyOf(destination, c);
+                enfant1 = Arrays.copyOf(enfant1, c);
+                enfant2 = Arrays.copyOf(enfant2, c);
+                poids = Arrays.copyOf(poids, c);
+                actif = Arrays.copyOf(actif, c);
+            }
+            origine[taille] = u;
+            destination[taille] = v;
+            poids[taille] = w;
+            enfant1[taille] = e1;
+            enfant2[taille] = e2;
+            actif[taille] = true;
+            return taille++;
+        }
+    }
+
+    // ====================================================================
+    //                      INSTANTANÉ (InstantanePlan)
+    // ====================================================================
+
+    private HierarchieContraction(int n, int[] rang, int[] arcOrigine, int[] arcDestination, double[] arcPoids,
+                                  int[] arcEnfant1, int[] arcEnfant2, int[] avantOffsets, int[] avantArcs,
+                                  int[] arriereOffsets, int[] arriereArcs) {
+        this.n = n;
+        this.rang = rang;
+        this.arcOrigine = arcOrigine;
+        this.arcDestination = arcDestination;
+        this.arcPoids = arcPoids;
+        this.arcEnfant1 = arcEnfant1;
+        this.arcEnfant2 = arcEnfant2;
+        this.avantOffsets = avantOffsets;
+        this.avantArcs = avantArcs;
+        this.arriereOffsets = arriereOffsets;
+        this.arriereArcs = arriereArcs;
+    }
+
+    /** Taille en octets de la section écrite par ecrire. */
+    long tailleOctets() {
+        long m = arcOrigine.length;
+        return 16L + 4L * n + 24L * m + 8L * (n + 1) + 4L * (avantArcs.length + arriereArcs.length);
+    }
+
+    /** Ecrit la hiérarchie telle quelle (tableaux internes, little-endian selon buf). */
+    void ecrire(ByteBuffer buf) {
+        buf.putInt(n).putInt(arcOrigine.length).putInt(avantArcs.length).putInt(arriereArcs.length);
+        InstantanePlan.ecrireInts(buf, rang);
+        InstantanePlan.ecrireInts(buf, arcOrigine);
+        InstantanePlan.ecrireInts(buf, arcDestination);
+        InstantanePlan.ecrireInts(buf, arcEnfant1);
+        InstantanePlan.ecrireInts(buf, arcEnfant2);
+        InstantanePlan.ecrireDoubles(buf, arcPoids);
+        InstantanePlan.ecrireInts(buf, avantOffsets);
+        InstantanePlan.ecrireInts(buf, avantArcs);
+        InstantanePlan.ecrireInts(buf, arriereOffsets);
+        InstantanePlan.ecrireInts(buf, arriereArcs);
+    }
+
+    /** Relit une section écrite par ecrire, sans refaire la contraction. */
+    static HierarchieContraction lire(ByteBuffer buf) {
+        int n = buf.getInt(), m = buf.getInt(), nbAvant = buf.getInt(), nbArriere = buf.getInt();
+        int[] rang = InstantanePlan.lireInts(buf, n);
+        int[] origine = InstantanePlan.lireInts(buf, m);
+        int[] destination = InstantanePlan.lireInts(buf, m);
+        int[] enfant1 = InstantanePlan.lireInts(buf, m);
+        int[] enfant2 = InstantanePlan.lireInts(buf, m);
+        double[] poids = InstantanePlan.lireDoubles(buf, m);
+        int[] avantOffsets = InstantanePlan.lireInts(buf, n + 1);
+        int[] avantArcs = InstantanePlan.lireInts(buf, nbAvant);
+        int[] arriereOffsets = InstantanePlan.lireInts(buf, n + 1);
+        int[] arriereArcs = InstantanePlan.lireInts(buf, nbArriere);
+        return new HierarchieContraction(n, rang, origine, destination, poids, enfant1, enfant2,
+                avantOffsets, avantArcs, arriereOffsets, arriereArcs);
+    }
+
+    // ====================================================================
+    //                       REQUÊTE PLUSIEURS-VERS-PLUSIEURS
+    // ====================================================================
+
+    /** Distances et chemins dépliés (indices CSR), [i][j] pour sources[i] -> cibles[j]. */
+    public static final class ResultatMatrice {
+        private final double[][] distances;
+        private final int[][][] chemins;
+
+        ResultatMatrice(double[][] distances, int[][][] chemins) {
+            this.distances = distances;
+            this.chemins = chemins;
+        }
+
+        public double[][] getDistances() { return distances; }
+
+        /** Chemin complet sources[i] -> cibles[j] (bornes incluses), null si inatteignable. */
+        public int[] getChemin(int i, int j) { return chemins[i][j]; }
+    }
+
+    /** Espace de recherche arrière d'une cible : noeuds atteints, distances et arcs prédécesseurs. */
+    private static final class EspaceArriere {
+        int[] noeuds;
+        double[] dist;
+        int[] arcPred;   // arc (x -> suivant vers la cible), -1 pour la cible elle-même
+        int[] posSuivant; // position du suivant vers la cible dans cet espace
+        int taille;
+    }
+
+    /**
+     * @param sources indices CSR des sources (-1 autorisé : ligne à +∞)
+     * @param cibles  indices CSR des cibles (-1 autorisé : colonne à +∞)
+     */
+    public ResultatMatrice plusieursVersPlusieurs(int[] sources, int[] cibles) {
+        int ns = sources.length, nc = cibles.length;
+        double[][] distances = new double[ns][nc];
+        int[][][] chemins = new int[ns][nc][];
+        for (double[] ligne : distances) Arrays.fill(ligne, Double.POSITIVE_INFINITY);
+
+        TasIndexe tas = new TasIndexe(n);
+        double[] dist = new double[n];
+        int[] arcPred = new int[n];
+        int[] posPred = new int[n];
+        int[] vu = new int[n];
+        int generation = 0;
+
+        // 1) Recherches arrière + seaux : seau[x] = liste de (cible j, position dans son espace)
+        EspaceArriere[] espaces = new EspaceArriere[nc];
+        int[][] seaux = new int[n][];
+        int[] tailleSeau = new int[n];
+        for (int j = 0; j < nc; j++) {
+            if (cibles[j] < 0) continue;
+            generation++;
+            EspaceArriere esp = new EspaceArriere();
+            esp.noeuds = new int[16];
+            esp.dist = new double[16];
+            esp.arcPred = new int[16];
+            esp.posSuivant = new int[16];
+
+            tas.clear();
+            dist[cibles[j]] = 0.0;
+            arcPred[cibles[j]] = -1;
+            vu[cibles[j]] = generation;
+            tas.inserOuDiminue(cibles[j], 0.0);
+            while (!tas.isEmpty()) {
+                int x = tas.extraireMin();
+                if (esp.taille == esp.noeuds.length) {
+                    int c = esp.taille * 2;
+                    esp.noeuds = Arrays.copyOf(esp.noeuds, c);
+                    esp.dist = Arrays.copyOf(esp.dist, c);
+                    esp.arcPred = Arrays.copyOf(esp.arcPred, c);
+                    esp.posSuivant = Arrays.copyOf(esp.posSuivant, c);
+                }
+                int pos = esp.taille++;
+                esp.noeuds[pos] = x;
+                esp.dist[pos] = dist[x];
+                esp.arcPred[pos] = arcPred[x];
+                esp.posSuivant[pos] = posPred[x];
+
+                if (seaux[x] == null) seaux[x] = new int[4];
+                if (tailleSeau[x] + 2 > seaux[x].length) seaux[x] = Arrays.copyOf(seaux[x], seaux[x].length * 2);
+                seaux[x][tailleSeau[x]++] = j;
+                seaux[x][tailleSeau[x]++] = pos;
+
+                for (int k = arriereOffsets[x]; k < arriereOffsets[x + 1]; k++) {
+                    int e = arriereArcs[k];
+                    int y = arcOrigine[e];
+                    double nd = dist[x] + arcPoids[e];
+                    if (vu[y] != generation || nd < dist[y]) {
+                        vu[y] = generation;
+                        dist[y] = nd;
+                        arcPred[y] = e;
+                        posPred[y] = pos;
+                        tas.inserOuDiminue(y, nd);
+                    }
+                }
+            }
+            espaces[j] = esp;
+        }
+
+        // 2) Recherches avant depuis chaque source, balayage des seaux
+        int[] meilleurNoeud = new int[nc];
+        int[] meilleurePosition = new int[nc];
+        for (int i = 0; i < ns; i++) {
+            if (sources[i] < 0) continue;
+            generation++;
+            Arrays.fill(meilleurNoeud, -1);
+
+            tas.clear();
+            dist[sources[i]] = 0.0;
+            arcPred[sources[i]] = -1;
+            vu[sources[i]] = generation;
+            tas.inserOuDiminue(sources[i], 0.0);
+            int[] visites = new int[16];
+            int nbVisites = 0;
+            while (!tas.isEmpty()) {
+                int x = tas.extraireMin();
+                if (nbVisites == visites.length) visites = Arrays.copyOf(visites, nbVisites * 2);
+                visites[nbVisites++] = x;
+                double dx = dist[x];
+
+                for (int b = 0; b < tailleSeau[x]; b += 2) {
+                    int j = seaux[x][b];
+                    int pos = seaux[x][b + 1];
+                    double d = dx + espaces[j].dist[pos];
+                    if (d < distances[i][j]) {
+                        distances[i][j] = d;
+                        meilleurNoeud[j] = x;
+                        meilleurePosition[j] = pos;
+                    }
+                }
+
+                for (int k = avantOffsets[x]; k < avantOffsets[x + 1]; k++) {
+                    int e = avantArcs[k];
+                    int y = arcDestination[e];
+                    double nd = dx + arcPoids[e];
+                    if (vu[y] != generation || nd < dist[y]) {
+                        vu[y] = generation;
+                        dist[y] = nd;
+                        arcPred[y] = e;
+                        tas.inserOuDiminue(y, nd);
+                    }
+                }
+            }
+
+            // 3) Dépliage : source -> noeud de rencontre (avant) puis rencontre -> cible (arrière)
+            for (int j = 0; j < nc; j++) {
+                if (meilleurNoeud[j] < 0) continue;
+                chemins[i][j] = deplier(sources[i], meilleurNoeud[j], arcPred, espaces[j], meilleurePosition[j]);
+            }
+        }
+        return new ResultatMatrice(distances, chemins);
+    }
+
+    private int[] deplier(int source, int rencontre, int[] arcPredAvant, EspaceArriere esp, int position) {
+        ListeEntiers chemin = new ListeEntiers();
+        chemin.ajouter(source);
+
+        // Arcs avant, remontés depuis la rencontre puis remis dans l'ordre
+        ListeEntiers arcsAvant = new ListeEntiers();
+        for (int x = rencontre; x != source; x = arcOrigine[arcPredAvant[x]]) {
+            arcsAvant.ajouter(arcPredAvant[x]);
+        }
+        for (int k = arcsAvant.taille - 1; k >= 0; k--) deplierArc(arcsAvant.valeurs[k], chemin);
+
+        // Arcs arrière : déjà dans le sens rencontre -> cible
+        for (int pos = position; esp.arcPred[pos] != -1; pos = esp.posSuivant[pos]) {
+            deplierArc(esp.arcPred[pos], chemin);
+        }
+        return Arrays.copyOf(chemin.valeurs, chemin.taille);
+    }
+
+    /** Ajoute au chemin la destination de l'arc e, raccourcis dépliés (itératif, sans récursion). */
+    private void deplierArc(int e, ListeEntiers chemin) {
+        ListeEntiers pile = new ListeEntiers();
+        pile.ajouter(e);
+        while (pile.taille > 0) {
+            int a = pile.valeurs[--pile.taille];
+            if (arcEnfant1[a] < 0) {
+                chemin.ajouter(arcDestination[a]);
+            } else {
+                pile.ajouter(arcEnfant2[a]);
+                pile.ajouter(arcEnfant1[a]);
+            }
+        }
+    }
+
+    private static final class ListeEntiers {
+        int[] valeurs = new int[16];
+        int taille;
+
+        void ajouter(int v) {
+            if (taille == valeurs.length) valeurs = Arrays.copyOf(valeurs, taille * 2);
+            valeurs[taille++] = v;
+        }
+    }
+}
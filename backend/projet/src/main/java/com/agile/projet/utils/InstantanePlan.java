@@ -0,0 +1,341 @@
+package com.agile.projet.utils;
+
+import com.agile.projet.model.GrapheRoutier;
+import com.agile.projet.model.Plan;
+import com.agile.projet.model.Troncon;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Instantané binaire d'un Plan prêt à l'emploi, pour ne plus reparser le XML ni refaire les prétraitements
+ * à chaque chargement.
+ * Format (little-endian, version FORMAT_VERSION) :
+ *  - en-tête : MAGIC, version, SHA-256 du XML source (32 octets), nbNoeuds, nbArcs, nbTroncons,
+ *    nbNonResolus, nbNoms, drapeaux (AVEC_HIERARCHIE, AVEC_REPERES)
+ *  - noeuds  : long[] ids, double[] latitudes, double[] longitudes, dans l'ordre des index du plan
+ *  - arcs CSR (tronçons résolus triés par origine, ordre du fichier conservé à origine égale) :
+ *    int[nbNoeuds+1] débuts, int[] cibles, double[] longueurs, int[] ids de nom de rue (-1 si absent)
+ *  - ordre des tronçons : int[nbTroncons], arc CSR (>= 0) ou -(k+1) pour le k-ième tronçon non résolu
+ *  - tronçons non résolus (noeud absent du plan) : long[] origines, long[] destinations, double[] longueurs, int[] noms
+ *  - noms de rue : int longueur + octets UTF-8, chacun une seule fois
+ *  - hiérarchie de contraction puis repères ALT, s'ils étaient construits (HierarchieContraction / Reperes.ecrire)
+ * Tous les tronçons sont conservés, dans l'ordre : un plan relu est identique au plan parsé.
+ * Lecture par FileChannel.map en une passe ; les sections sont copiées dans des tableaux (les parcours de graphe
+ * travaillent sur int[] / double[]) et le GrapheRoutier est construit directement sur le CSR relu.
+ * Les objets Troncon ne sont créés qu'au premier appel de getTroncons / getVraiTroncons.
+ * L'instantané est écrit à côté du XML quand celui-ci est un fichier, sinon dans un répertoire temporaire.
+ */
+public final class InstantanePlan {
+
+    public static final int MAGIC = 0x4C504741; // "AGPL"
+    // v3 : même format, invalide les instantanés écrits avant que le parseur ne conserve l'ordre du fichier et nomRue ""
+    public static final int FORMAT_VERSION = 3;
+    static final String SUFFIXE = ".plan.bin";
+
+    private static final int TAILLE_EMPREINTE = 32;
+    private static final int TAILLE_EN_TETE = 4 + 4 + TAILLE_EMPREINTE + 6 * 4;
+    private static final int AVEC_HIERARCHIE = 1;
+    private static final int AVEC_REPERES = 2;
+    private static final long ABSENT = Long.MIN_VALUE;
+
+    private InstantanePlan() {}
+
+    // ==================== Chargement d'une ressource ====================
+
+    /**
+     * Plan de la ressource XML (classpath), graphe, hiérarchie et repères construits : depuis l'instantané s'il
+     * correspond au contenu actuel du XML, sinon parse du XML, prétraitements puis écriture de l'instantané
+     * (au mieux : une erreur d'écriture n'empêche pas le chargement).
+     */
+    public static Plan charger(String ressourceXml) throws IOException {
+        byte[] xml = lireRessource(ressourceXml);
+        return charger(ressourceXml, xml, empreinte(xml));
+    }
+
+    /** Idem, contenu et empreinte déjà lus par l'appelant (RegistrePlans). */
+    static Plan charger(String ressourceXml, byte[] xml, byte[] empreinte) throws IOException {
+        return charger(ressourceXml, xml, empreinte, cheminInstantane(ressourceXml));
+    }
+
+    /** Plan d'un XML envoyé par un client : parse et prétraitements, sans instantané (aucune ressource associée). */
+    static Plan chargerContenu(byte[] xml) throws IOException {
+        return charger("<envoi>", xml, null, null);
+    }
+
+    private static Plan charger(String nom, byte[] xml, byte[] empreinte, Path fichier) throws IOException {
+        if (fichier != null && Files.isRegularFile(fichier)) {
+            try {
+                Plan plan = lire(fichier, empreinte);
+                if (plan != null) {
+                    pretraiter(plan);
+                    return plan;
+                }
+            } catch (IOException | RuntimeException e) {
+                // instantané illisible ou corrompu : on reparse
+            }
+        }
+
+        Plan plan = new Plan();
+        try {
+            new XmlPlanParser().parsePlan(new ByteArrayInputStream(xml), plan);
+        } catch (Exception e) {
+            throw new IOException("Plan XML invalide: " + nom, e);
+        }
+        pretraiter(plan);
+        if (fichier == null) return plan;
+        try {
+            ecrire(plan, empreinte, fichier);
+        } catch (IOException e) {
+            // lecture seule, disque plein... le plan reste utilisable
+        }
+        return plan;
+    }
+
+    /** Construit ce que l'instantané n'apportait pas (tout, pour un plan parsé). */
+    private static void pretraiter(Plan plan) {
+        if (plan.getGraphe() == null) plan.construireGraphe();
+        if (plan.getHierarchie() == null) plan.construireHierarchie();
+        if (plan.getReperes() == null) plan.construireReperes();
+    }
+
+    static byte[] lireRessource(String ressourceXml) throws IOException {
+        try (InputStream is = InstantanePlan.class.getClassLoader().getResourceAsStream(ressourceXml)) {
+            if (is == null) throw new NoSuchFileException(ressourceXml + " not found");
+            return is.readAllBytes();
+        }
+    }
+
+    /** SHA-256 du contenu XML. */
+    public static byte[] empreinte(byte[] contenu) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(contenu);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    static Path cheminInstantane(String ressourceXml) {
+        URL url = InstantanePlan.class.getClassLoader().getResource(ressourceXml);
+        if (url != null && "file".equals(url.getProtocol())) {
+            try {
+                Path xml = Paths.get(url.toURI());
+                return xml.resolveSibling(xml.getFileName() + SUFFIXE);
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                // repli sur le répertoire temporaire
+            }
+        }
+        String nom = ressourceXml.replaceAll("[^A-Za-z0-9._-]", "_");
+        return Paths.get(System.getProperty("java.io.tmpdir"), "agile-plans", nom + SUFFIXE);
+    }
+
+    // ==================== Ecriture ====================
+
+    /**
+     * Ecrit le plan (produit par XmlPlanParser : les tronçons résolus de getTroncons forment getVraiTroncons),
+     * avec sa hiérarchie et ses repères s'ils sont construits.
+     */
+    public static void ecrire(Plan plan, byte[] empreinte, Path fichier) throws IOException {
+        if (empreinte.length != TAILLE_EMPREINTE) throw new IllegalArgumentException("Empreinte SHA-256 attendue");
+
+        int n = plan.getNbNoeuds();
+        List<Troncon> troncons = plan.getTroncons();
+        int nbTroncons = troncons.size();
+        int m = 0;
+        for (Troncon t : troncons) if (t.estResolu()) m++;
+        int r = nbTroncons - m;
+
+        // CSR des tronçons résolus, comme GrapheRoutier.depuisPlan (tri stable par origine)
+        int[] debut = new int[n + 1];
+        for (Troncon t : troncons) if (t.estResolu()) debut[t.getIndexOrigine() + 1]++;
+        for (int i = 0; i < n; i++) debut[i + 1] += debut[i];
+        int[] cible = new int[m], nom = new int[m];
+        double[] longueur = new double[m];
+        int[] curseur = Arrays.copyOf(debut, n);
+
+        int[] ordre = new int[nbTroncons];
+        long[] origineNr = new long[r], destinationNr = new long[r];
+        double[] longueurNr = new double[r];
+        int[] nomNr = new int[r];
+        Map<String, Integer> noms = new LinkedHashMap<>();
+        int k = 0;
+        for (int i = 0; i < nbTroncons; i++) {
+            Troncon t = troncons.get(i);
+            int idNom = t.getNomRue() == null ? -1 : noms.computeIfAbsent(t.getNomRue(), s -> noms.size());
+            if (t.estResolu()) {
+                int a = curseur[t.getIndexOrigine()]++;
+                cible[a] = t.getIndexDestination();
+                longueur[a] = t.getLongueur();
+                nom[a] = idNom;
+                ordre[i] = a;
+            } else {
+                origineNr[k] = t.getOrigine() == null ? ABSENT : t.getOrigine();
+                destinationNr[k] = t.getDestination() == null ? ABSENT : t.getDestination();
+                longueurNr[k] = t.getLongueur();
+                nomNr[k] = idNom;
+                ordre[i] = -(k + 1);
+                k++;
+            }
+        }
+        List<byte[]> nomsUtf8 = new ArrayList<>(noms.size());
+        long tailleNoms = 0;
+        for (String s : noms.keySet()) {
+            byte[] b = s.getBytes(StandardCharsets.UTF_8);
+            nomsUtf8.add(b);
+            tailleNoms += 4 + b.length;
+        }
+
+        HierarchieContraction ch = plan.getHierarchie();
+        Reperes reperes = plan.getReperes();
+        int drapeaux = (ch != null ? AVEC_HIERARCHIE : 0) | (reperes != null ? AVEC_REPERES : 0);
+
+        long taille = TAILLE_EN_TETE + 24L * n + 4L * (n + 1) + 16L * m + 4L * nbTroncons + 28L * r + tailleNoms
+                + (ch != null ? ch.tailleOctets() : 0) + (reperes != null ? reperes.tailleOctets(n) : 0);
+        if (taille > Integer.MAX_VALUE) throw new IOException("Plan trop grand pour le format v" + FORMAT_VERSION);
+        ByteBuffer buf = ByteBuffer.allocate((int) taille).order(ByteOrder.LITTLE_ENDIAN);
+        buf.putInt(MAGIC).putInt(FORMAT_VERSION).put(empreinte)
+                .putInt(n).putInt(m).putInt(nbTroncons).putInt(r).putInt(noms.size()).putInt(drapeaux);
+        for (int i = 0; i < n; i++) buf.putLong(plan.getId(i));
+        for (int i = 0; i < n; i++) buf.putDouble(plan.getLatitude(i));
+        for (int i = 0; i < n; i++) buf.putDouble(plan.getLongitude(i));
+        ecrireInts(buf, debut);
+        ecrireInts(buf, cible);
+        ecrireDoubles(buf, longueur);
+        ecrireInts(buf, nom);
+        ecrireInts(buf, ordre);
+        for (long id : origineNr) buf.putLong(id);
+        for (long id : destinationNr) buf.putLong(id);
+        ecrireDoubles(buf, longueurNr);
+        ecrireInts(buf, nomNr);
+        for (byte[] b : nomsUtf8) buf.putInt(b.length).put(b);
+        if (ch != null) ch.ecrire(buf);
+        if (reperes != null) reperes.ecrire(buf);
+        buf.flip();
+
+        // Ecriture dans un fichier temporaire puis renommage atomique : jamais d'instantané à moitié écrit
+        Files.createDirectories(fichier.toAbsolutePath().getParent());
+        Path tmp = Files.createTempFile(fichier.toAbsolutePath().getParent(), fichier.getFileName().toString(), ".tmp");
+        try (FileChannel canal = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            while (buf.hasRemaining()) canal.write(buf);
+        }
+        try {
+            Files.move(tmp, fichier, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, fichier, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    // ==================== Lecture ====================
+
+    /**
+     * Plan relu avec son graphe (construit sur le CSR de l'instantané), sa hiérarchie et ses repères s'ils y sont ;
+     * les tronçons ne sont matérialisés qu'à la demande.
+     * @param empreinteAttendue SHA-256 du XML courant, null pour ne pas vérifier
+     * @return null si l'instantané ne correspond pas (autre version du format ou autre contenu XML)
+     */
+    public static Plan lire(Path fichier, byte[] empreinteAttendue) throws IOException {
+        MappedByteBuffer map;
+        try (FileChannel ch = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            map = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+        }
+        ByteBuffer buf = map.order(ByteOrder.LITTLE_ENDIAN);
+        if (buf.remaining() < TAILLE_EN_TETE || buf.getInt() != MAGIC) throw new IOException("Instantané invalide: " + fichier);
+        if (buf.getInt() != FORMAT_VERSION) return null;
+        byte[] empreinte = new byte[TAILLE_EMPREINTE];
+        buf.get(empreinte);
+        if (empreinteAttendue != null && !Arrays.equals(empreinte, empreinteAttendue)) return null;
+
+        int n = buf.getInt(), m = buf.getInt(), nbTroncons = buf.getInt(), r = buf.getInt();
+        int nbNoms = buf.getInt(), drapeaux = buf.getInt();
+
+        long[] ids = lireLongs(buf, n);
+        double[] lat = lireDoubles(buf, n);
+        double[] lon = lireDoubles(buf, n);
+        int[] debut = lireInts(buf, n + 1);
+        int[] cible = lireInts(buf, m);
+        double[] longueur = lireDoubles(buf, m);
+        int[] nom = lireInts(buf, m);
+        int[] ordre = lireInts(buf, nbTroncons);
+        long[] origineNr = lireLongs(buf, r);
+        long[] destinationNr = lireLongs(buf, r);
+        double[] longueurNr = lireDoubles(buf, r);
+        int[] nomNr = lireInts(buf, r);
+        String[] noms = new String[nbNoms];
+        for (int k = 0; k < nbNoms; k++) {
+            byte[] b = new byte[buf.getInt()];
+            buf.get(b);
+            noms[k] = new String(b, StandardCharsets.UTF_8);
+        }
+        HierarchieContraction hierarchie = (drapeaux & AVEC_HIERARCHIE) != 0 ? HierarchieContraction.lire(buf) : null;
+        Reperes reperes = (drapeaux & AVEC_REPERES) != 0 ? Reperes.lire(buf, n) : null;
+
+        Plan plan = new Plan();
+        for (int i = 0; i < n; i++) plan.addNoeud(ids[i], lat[i], lon[i]);
+        if (plan.getNbNoeuds() != n) throw new IOException("Instantané invalide (ids en double): " + fichier);
+        plan.installerPretraitements(GrapheRoutier.depuisCsr(plan, debut, cible, longueur), hierarchie, reperes);
+        plan.setTronconsDifferes(() -> {
+            int[] origine = new int[m];
+            for (int u = 0; u < n; u++) Arrays.fill(origine, debut[u], debut[u + 1], u);
+            List<Troncon> troncons = new ArrayList<>(nbTroncons);
+            for (int a : ordre) {
+                if (a >= 0) {
+                    troncons.add(new Troncon(plan, origine[a], cible[a], longueur[a], nom[a] < 0 ? null : noms[nom[a]]));
+                } else {
+                    int k = -a - 1;
+                    troncons.add(new Troncon(origineNr[k] == ABSENT ? null : origineNr[k],
+                            destinationNr[k] == ABSENT ? null : destinationNr[k],
+                            longueurNr[k], nomNr[k] < 0 ? null : noms[nomNr[k]]));
+                }
+            }
+            return troncons;
+        });
+        return plan;
+    }
+
+    // ==================== Sections (aussi pour HierarchieContraction et Reperes) ====================
+
+    static int[] lireInts(ByteBuffer buf, int taille) {
+        int[] t = new int[taille];
+        buf.asIntBuffer().get(t);
+        buf.position(buf.position() + 4 * taille);
+        return t;
+    }
+
+    static long[] lireLongs(ByteBuffer buf, int taille) {
+        long[] t = new long[taille];
+        buf.asLongBuffer().get(t);
+        buf.position(buf.position() + 8 * taille);
+        return t;
+    }
+
+    static double[] lireDoubles(ByteBuffer buf, int taille) {
+        double[] t = new double[taille];
+        buf.asDoubleBuffer().get(t);
+        buf.position(buf.position() + 8 * taille);
+        return t;
+    }
+
+    static void ecrireInts(ByteBuffer buf, int[] t) {
+        buf.asIntBuffer().put(t);
+        buf.position(buf.position() + 4 * t.length);
+    }
+
+    static void ecrireDoubles(ByteBuffer buf, double[] t) {
+        buf.asDoubleBuffer().put(t);
+        buf.position(buf.position() + 8 * t.length);
+    }
+}
@@ -6,6 +6,15 @@ import java.util.Objects;
 
 public class MatriceCout {
     private final double[][] costMatrix;
-    public MatriceCout(double[][] costMatrix) { this.costMatrix = costMatrix; }
+    private final CacheSousTSP cacheSousTsp;
+    /** Matrice isolée : cache de sous-TSP propre à cette matrice. */
+    public MatriceCout(double[][] costMatrix) { this(costMatrix, new CacheSousTSP(CacheSousTSP.CAPACITE_DEFAUT)); }
+    /** Matrice des plus courts chemins d'un plan : cache partagé avec les autres matrices du même plan. */
+    public MatriceCout(double[][] costMatrix, CacheSousTSP cacheSousTsp) {
+        this.costMatrix = costMatrix;
+        this.cacheSousTsp = Objects.requireNonNull(cacheSousTsp);
+    }
     public double[][] getCostMatrix() { return costMatrix; }
+    /** Sous-TSP déjà résolus (sur ce plan, ou sur cette seule matrice). */
+    public CacheSousTSP getCacheSousTsp() { return cacheSousTsp; }
 }
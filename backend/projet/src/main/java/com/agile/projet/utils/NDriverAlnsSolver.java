@@ -0,0 +1,587 @@
+package com.agile.projet.utils;
+
+import com.agile.projet.model.Delivery;
+import com.agile.projet.model.PickupDeliveryModel;
+
+import java.util.*;
+
+/**
+ * Recherche adaptative à grand voisinage (ALNS) pour le pickup & delivery à N livreurs.
+ * - Solution = N tournées dépôt -> visites -> dépôt ; une visite est le pickup (2r) ou la livraison (2r+1) de la demande r.
+ * - Destruction : aléatoire, pire coût, Shaw (demandes proches) ; reconstruction : insertion gloutonne, regret-2, regret-3,
+ *   le pickup toujours avant sa livraison dans la même tournée.
+ * - Choix des opérateurs par roulette, poids adaptés par segments ; acceptation par recuit simulé.
+ * - Objectif (secondes) : somme des durées + POIDS_MAKESPAN * durée max + PENALITE_DEPASSEMENT * dépassements de tempsMax.
+ * Pas de calcul de TSP exact : utilisable pour des centaines de demandes, dans la limite de temps donnée.
+ */
+public class NDriverAlnsSolver {
+
+    private static final double POIDS_MAKESPAN = 1.0;
+    private static final double PENALITE_DEPASSEMENT = 10.0;
+    private static final double PENALITE_NON_AFFECTEE = 1e9;
+
+    // Recuit simulé : une solution 5 % moins bonne est acceptée avec proba 1/2 au départ, température finale ~0
+    private static final double ECART_TEMPERATURE_INITIALE = 0.05;
+    private static final double RATIO_TEMPERATURE_FINALE = 0.002;
+
+    // Scores adaptatifs (Ropke & Pisinger)
+    private static final int TAILLE_SEGMENT = 100;
+    private static final double SCORE_MEILLEURE = 33, SCORE_AMELIORE = 9, SCORE_ACCEPTEE = 13;
+    private static final double REACTION = 0.1;
+
+    private static final int NB_DESTRUCTIONS = 3;   // 0 aléatoire, 1 pire, 2 Shaw
+    private static final int NB_RECONSTRUCTIONS = 3; // regret-1 (glouton), regret-2, regret-3
+
+    private final double[][] cost;
+    private final List<Long> vertexOrder;
+    private final int depot;
+    private final int nbRequetes;
+    private final int[] noeud;        // noeud[v] : indice matrice de la visite v
+    private final double[] service;   // service[v] : durée de service (s) de la visite v
+    private final int nbRoutes;
+    private final double vitesse;
+    private final double tempsMax;    // <= 0 : pas de limite par livreur
+    private final double coutMax;
+
+    private long graine = 0L;
+    private int maxIterations = 25_000;
+    private Echeance echeance = Echeance.jamais();
+    private List<List<Integer>> groupesInitiaux;
+    private ObservateurSolution observateur;
+
+    public NDriverAlnsSolver(PickupDeliveryModel model, int nDrivers, double speedMetersPerSec,
+                             double maxTimePerDriverSeconds) {
+        if (model == null || model.getMatriceCout() == null || model.getVertexOrder() == null)
+            throw new IllegalStateException("Modèle non initialisé");
+        if (nDrivers <= 0)
+            throw new IllegalArgumentException("nDrivers >= 1 requis");
+        if (speedMetersPerSec <= 0)
+            throw new IllegalArgumentException("Vitesse > 0 requise");
+
+        this.cost = model.getMatriceCout().getCostMatrix();
+        this.vertexOrder = model.getVertexOrder();
+        Map<Long, Integer> index = new HashMap<>();
+        for (int i = 0; i < vertexOrder.size(); i++) index.put(vertexOrder.get(i), i);
+
+        Integer d = index.get(model.getEntrepot().getAdresse());
+        if (d == null) throw new IllegalStateException("Entrepôt absent de la matrice");
+        this.depot = d;
+
+        List<Delivery> deliveries = model.getDemandeDelivery().getDeliveries();
+        this.nbRequetes = deliveries.size();
+        this.noeud = new int[2 * nbRequetes];
+        this.service = new double[2 * nbRequetes];
+        for (int r = 0; r < nbRequetes; r++) {
+            Delivery del = deliveries.get(r);
+            Integer p = index.get(del.getAdresseEnlevement());
+            Integer l = index.get(del.getAdresseLivraison());
+            if (p == null || l == null)
+                throw new IllegalStateException("Adresse de la demande " + r + " absente de la matrice");
+            noeud[2 * r] = p;
+            noeud[2 * r + 1] = l;
+            service[2 * r] = del.getDureeEnlevement();
+            service[2 * r + 1] = del.getDureeLivraison();
+        }
+
+        this.nbRoutes = nDrivers;
+        this.vitesse = speedMetersPerSec;
+        this.tempsMax = maxTimePerDriverSeconds;
+
+        double m = 0.0;
+        for (double[] ligne : cost)
+            for (double c : ligne)
+                if (!Double.isInfinite(c) && c > m) m = c;
+        this.coutMax = m > 0 ? m : 1.0;
+    }
+
+    public NDriverAlnsSolver setGraine(long graine) {
+        this.graine = graine;
+        return this;
+    }
+
+    public NDriverAlnsSolver setMaxIterations(int maxIterations) {
+        this.maxIterations = maxIterations;
+        return this;
+    }
+
+    public NDriverAlnsSolver setEcheance(Echeance echeance) {
+        this.echeance = echeance != null ? echeance : Echeance.jamais();
+        return this;
+    }
+
+    /**
+     * Solution de départ imposée : groupesInitiaux.get(k) = demandes (indices dans la liste des deliveries)
+     * du livreur k, insérées dans cet ordre à leur meilleure place. Les demandes absentes sont insérées par regret-2.
+     */
+    public NDriverAlnsSolver setGroupesInitiaux(List<List<Integer>> groupesInitiaux) {
+        this.groupesInitiaux = groupesInitiaux;
+        return this;
+    }
+
+    /** Notifié de la solution initiale puis de chaque nouvelle meilleure solution. */
+    public NDriverAlnsSolver setObservateur(ObservateurSolution observateur) {
+        this.observateur = observateur;
+        return this;
+    }
+
+    // ==================== Solution ====================
+
+    /** Tournées + caches (durées, affectation des demandes). Copiable pour garder courante / meilleure. */
+    final class Solution {
+        final int[][] visites = new int[nbRoutes][2 * nbRequetes];
+        final int[] taille = new int[nbRoutes];
+        final double[] duree = new double[nbRoutes];
+        final int[] routeDe = new int[nbRequetes];   // -1 si non affectée
+
+        Solution() {
+            Arrays.fill(routeDe, -1);
+        }
+
+        Solution copie() {
+            Solution s = new Solution();
+            for (int k = 0; k < nbRoutes; k++) {
+                System.arraycopy(visites[k], 0, s.visites[k], 0, taille[k]);
+            }
+            System.arraycopy(taille, 0, s.taille, 0, nbRoutes);
+            System.arraycopy(duree, 0, s.duree, 0, nbRoutes);
+            System.arraycopy(routeDe, 0, s.routeDe, 0, nbRequetes);
+            return s;
+        }
+
+        double makespan() {
+            double m = 0.0;
+            for (double d : duree) m = Math.max(m, d);
+            return m;
+        }
+
+        double objectif() {
+            double total = 0.0;
+            for (double d : duree) total += d + depassement(d);
+            for (int r : routeDe) if (r < 0) total += PENALITE_NON_AFFECTEE;
+            return total + POIDS_MAKESPAN * makespan();
+        }
+
+        void recalculerDuree(int k) {
+            double t = 0.0;
+            int prec = depot;
+            for (int i = 0; i < taille[k]; i++) {
+                int v = visites[k][i];
+                t += cost[prec][noeud[v]] / vitesse + service[v];
+                prec = noeud[v];
+            }
+            duree[k] = t + cost[prec][depot] / vitesse;
+        }
+
+        int noeudA(int k, int i) {
+            return (i < 0 || i >= taille[k]) ? depot : noeud[visites[k][i]];
+        }
+
+        void retirer(int r) {
+            int k = routeDe[r];
+            if (k < 0) return;
+            int w = 0;
+            for (int i = 0; i < taille[k]; i++) {
+                int v = visites[k][i];
+                if (v >> 1 != r) visites[k][w++] = v;
+            }
+            taille[k] = w;
+            routeDe[r] = -1;
+            recalculerDuree(k);
+        }
+
+        /** Insère le pickup de r après la position i et la livraison après la position j >= i (positions avant insertion). */
+        void inserer(int r, int k, int i, int j) {
+            int[] t = visites[k];
+            int n = taille[k];
+            // décalage : [0..i] [p] [i+1..j] [d] [j+1..n-1]
+            System.arraycopy(t, j + 1, t, j + 3, n - j - 1);
+            t[j + 2] = 2 * r + 1;
+            System.arraycopy(t, i + 1, t, i + 2, j - i);
+            t[i + 1] = 2 * r;
+            taille[k] = n + 2;
+            routeDe[r] = k;
+            recalculerDuree(k);
+        }
+    }
+
+    private double depassement(double duree) {
+        return tempsMax > 0 && duree > tempsMax ? PENALITE_DEPASSEMENT * (duree - tempsMax) : 0.0;
+    }
+
+    /** Variation de l'objectif si la tournée k passe de duree à duree + delta (makespan courant m). */
+    private double variationObjectif(double duree, double delta, double m) {
+        double nouvelle = duree + delta;
+        return delta + depassement(nouvelle) - depassement(duree)
+                + POIDS_MAKESPAN * (Math.max(m, nouvelle) - m);
+    }
+
+    // ==================== Résolution ====================
+
+    public NDriverTspBalancer2.NDriverSolution solve() {
+        Random rnd = new Random(graine);
+
+        Solution courante = solutionInitiale();
+
+        Solution meilleure = courante.copie();
+        double fCourante = courante.objectif();
+        double fMeilleure = fCourante;
+        notifier(meilleure, fMeilleure);
+
+        double[] poidsD = new double[NB_DESTRUCTIONS], scoreD = new double[NB_DESTRUCTIONS];
+        double[] poidsR = new double[NB_RECONSTRUCTIONS], scoreR = new double[NB_RECONSTRUCTIONS];
+        int[] usageD = new int[NB_DESTRUCTIONS], usageR = new int[NB_RECONSTRUCTIONS];
+        Arrays.fill(poidsD, 1.0);
+        Arrays.fill(poidsR, 1.0);
+
+        double t0 = -ECART_TEMPERATURE_INITIALE * Math.max(fCourante, 1.0) / Math.log(0.5);
+
+        for (int it = 0; it < maxIterations && nbRequetes > 1; it++) {
+            if (echeance.estAtteinte()) break;
+
+            int op = roulette(poidsD, rnd);
+            int oi = roulette(poidsR, rnd);
+            Solution candidate = courante.copie();
+
+            int q = nombreARetirer(rnd);
+            List<Integer> retirees = switch (op) {
+                case 0 -> destructionAleatoire(candidate, q, rnd);
+                case 1 -> destructionPire(candidate, q, rnd);
+                default -> destructionShaw(candidate, q, rnd);
+            };
+            reconstruire(candidate, retirees, oi + 1);
+            double f = candidate.objectif();
+
+            // Température : décroissance géométrique selon l'avancement (itérations)
+            double avancement = (double) it / maxIterations;
+            double temperature = t0 * Math.pow(RATIO_TEMPERATURE_FINALE, avancement);
+
+            double score = 0.0;
+            if (f < fMeilleure - 1e-9) {
+                meilleure = candidate.copie();
+                fMeilleure = f;
+                score = SCORE_MEILLEURE;
+                notifier(meilleure, fMeilleure);
+            } else if (f < fCourante - 1e-9) {
+                score = SCORE_AMELIORE;
+            } else if (rnd.nextDouble() < Math.exp((fCourante - f) / temperature)) {
+                score = SCORE_ACCEPTEE;
+            }
+            if (score > 0 || f < fCourante) {
+                courante = candidate;
+                fCourante = f;
+            }
+
+            scoreD[op] += score;
+            scoreR[oi] += score;
+            usageD[op]++;
+            usageR[oi]++;
+            if ((it + 1) % TAILLE_SEGMENT == 0) {
+                ajusterPoids(poidsD, scoreD, usageD);
+                ajusterPoids(poidsR, scoreR, usageR);
+            }
+        }
+
+        return versSolution(meilleure);
+    }
+
+    private Solution solutionInitiale() {
+        Solution s = new Solution();
+        if (groupesInitiaux != null) {
+            double[][] delta = new double[1][nbRoutes];
+            int[][] posP = new int[1][nbRoutes], posD = new int[1][nbRoutes];
+            double[] suite = new double[2 * nbRequetes + 2];
+            int[] argSuite = new int[2 * nbRequetes + 2];
+            for (int k = 0; k < Math.min(nbRoutes, groupesInitiaux.size()); k++) {
+                for (int r : groupesInitiaux.get(k)) {
+                    if (r < 0 || r >= nbRequetes || s.routeDe[r] >= 0) continue;
+                    meilleurePlace(s, r, k, 0, delta, posP, posD, suite, argSuite);
+                    if (!Double.isInfinite(delta[0][k])) s.inserer(r, k, posP[0][k], posD[0][k]);
+                }
+            }
+        }
+        List<Integer> restantes = new ArrayList<>();
+        for (int r = 0; r < nbRequetes; r++) if (s.routeDe[r] < 0) restantes.add(r);
+        reconstruire(s, restantes, 2);
+        return s;
+    }
+
+    private void notifier(Solution s, double objectif) {
+        if (observateur != null) observateur.nouvelleMeilleure(versSolution(s), objectif);
+    }
+
+    private static void ajusterPoids(double[] poids, double[] score, int[] usage) {
+        for (int i = 0; i < poids.length; i++) {
+            if (usage[i] > 0) {
+                poids[i] = (1 - REACTION) * poids[i] + REACTION * score[i] / usage[i];
+                poids[i] = Math.max(poids[i], 0.05);
+            }
+            score[i] = 0;
+            usage[i] = 0;
+        }
+    }
+
+    private static int roulette(double[] poids, Random rnd) {
+        double total = 0.0;
+        for (double p : poids) total += p;
+        double x = rnd.nextDouble() * total;
+        for (int i = 0; i < poids.length; i++) {
+            x -= poids[i];
+            if (x <= 0) return i;
+        }
+        return poids.length - 1;
+    }
+
+    private int nombreARetirer(Random rnd) {
+        int min = Math.max(1, nbRequetes / 20);
+        int max = Math.max(min, Math.min(50, (int) Math.ceil(nbRequetes * 0.3)));
+        return Math.min(nbRequetes, min + rnd.nextInt(max - min + 1));
+    }
+
+    // ==================== Destruction ====================
+
+    private List<Integer> destructionAleatoire(Solution s, int q, Random rnd) {
+        List<Integer> demandes = new ArrayList<>(nbRequetes);
+        for (int r = 0; r < nbRequetes; r++) demandes.add(r);
+        Collections.shuffle(demandes, rnd);
+        List<Integer> retirees = new ArrayList<>(demandes.subList(0, q));
+        for (int r : retirees) s.retirer(r);
+        return retirees;
+    }
+
+    /** Retire en priorité les demandes qui coûtent le plus (tirage biaisé y^3 pour diversifier). */
+    private List<Integer> destructionPire(Solution s, int q, Random rnd) {
+        List<Integer> retirees = new ArrayList<>(q);
+        double[] gain = new double[nbRequetes];
+        while (retirees.size() < q) {
+            List<Integer> candidats = new ArrayList<>();
+            for (int r = 0; r < nbRequetes; r++) {
+                if (s.routeDe[r] >= 0) {
+                    candidats.add(r);
+                    gain[r] = gainRetrait(s, r);
+                }
+            }
+            if (candidats.isEmpty()) break;
+            candidats.sort((a, b) -> Double.compare(gain[b], gain[a]));
+            int r = candidats.get((int) (Math.pow(rnd.nextDouble(), 3) * candidats.size()));
+            s.retirer(r);
+            retirees.add(r);
+        }
+        return retirees;
+    }
+
+    /** Distance économisée (en secondes de trajet) en retirant la demande r de sa tournée. */
+    private double gainRetrait(Solution s, int r) {
+        int k = s.routeDe[r];
+        int[] t = s.visites[k];
+        int ip = -1, id = -1;
+        for (int i = 0; i < s.taille[k]; i++) {
+            if (t[i] == 2 * r) ip = i;
+            else if (t[i] == 2 * r + 1) id = i;
+        }
+        int p = noeud[2 * r], d = noeud[2 * r + 1];
+        double g;
+        if (id == ip + 1) {
+            int a = s.noeudA(k, ip - 1), b = s.noeudA(k, id + 1);
+            g = cost[a][p] + cost[p][d] + cost[d][b] - cost[a][b];
+        } else {
+            int a = s.noeudA(k, ip - 1), b = s.noeudA(k, ip + 1);
+            int c = s.noeudA(k, id - 1), e = s.noeudA(k, id + 1);
+            g = cost[a][p] + cost[p][b] - cost[a][b] + cost[c][d] + cost[d][e] - cost[c][e];
+        }
+        return g / vitesse + service[2 * r] + service[2 * r + 1];
+    }
+
+    /** Shaw : retire des demandes "proches" (pickups et livraisons voisins, même tournée) d'une demande tirée au hasard. */
+    private List<Integer> destructionShaw(Solution s, int q, Random rnd) {
+        List<Integer> retirees = new ArrayList<>(q);
+        boolean[] retiree = new boolean[nbRequetes];
+        int germe = rnd.nextInt(nbRequetes);
+        retirees.add(germe);
+        retiree[germe] = true;
+
+        double[] proximite = new double[nbRequetes];
+        while (retirees.size() < q) {
+            int ref = retirees.get(rnd.nextInt(retirees.size()));
+            List<Integer> candidats = new ArrayList<>();
+            for (int r = 0; r < nbRequetes; r++) {
+                if (retiree[r]) continue;
+                candidats.add(r);
+                proximite[r] = relation(s, ref, r);
+            }
+            if (candidats.isEmpty()) break;
+            candidats.sort(Comparator.comparingDouble(r -> proximite[r]));
+            int r = candidats.get((int) (Math.pow(rnd.nextDouble(), 6) * candidats.size()));
+            retirees.add(r);
+            retiree[r] = true;
+        }
+        for (int r : retirees) s.retirer(r);
+        return retirees;
+    }
+
+    private double relation(Solution s, int a, int b) {
+        int pa = noeud[2 * a], da = noeud[2 * a + 1];
+        int pb = noeud[2 * b], db = noeud[2 * b + 1];
+        double distance = (fini(cost[pa][pb]) + fini(cost[pb][pa]) + fini(cost[da][db]) + fini(cost[db][da])) / (4 * coutMax);
+        double memeRoute = (s.routeDe[a] >= 0 && s.routeDe[a] == s.routeDe[b]) ? 0.0 : 0.2;
+        return distance + memeRoute;
+    }
+
+    private double fini(double c) {
+        return Double.isInfinite(c) ? coutMax : c;
+    }
+
+    // ==================== Reconstruction ====================
+
+    /**
+     * Insertion regret-k : à chaque pas, la demande dont le regret (écart entre sa meilleure tournée et ses
+     * k-1 suivantes) est le plus grand est insérée à sa meilleure place. k = 1 : insertion gloutonne.
+     * Les meilleures places par (demande, tournée) sont en cache, seule la tournée modifiée est recalculée.
+     */
+    private void reconstruire(Solution s, List<Integer> aInserer, int k) {
+        int u = aInserer.size();
+        if (u == 0) return;
+        double[][] delta = new double[u][nbRoutes];
+        int[][] posP = new int[u][nbRoutes];
+        int[][] posD = new int[u][nbRoutes];
+        boolean[] faite = new boolean[u];
+        double[] suite = new double[2 * nbRequetes + 2];
+        int[] argSuite = new int[2 * nbRequetes + 2];
+
+        for (int a = 0; a < u; a++)
+            for (int route = 0; route < nbRoutes; route++)
+                meilleurePlace(s, aInserer.get(a), route, a, delta, posP, posD, suite, argSuite);
+
+        double[] valeurs = new double[nbRoutes];
+        for (int etape = 0; etape < u; etape++) {
+            double m = s.makespan();
+            int choisie = -1, routeChoisie = -1;
+            double meilleurRegret = Double.NEGATIVE_INFINITY, meilleurCout = Double.POSITIVE_INFINITY;
+
+            for (int a = 0; a < u; a++) {
+                if (faite[a]) continue;
+                int meilleureRoute = -1;
+                for (int route = 0; route < nbRoutes; route++) {
+                    valeurs[route] = Double.isInfinite(delta[a][route])
+                            ? Double.POSITIVE_INFINITY
+                            : variationObjectif(s.duree[route], delta[a][route], m);
+                    if (meilleureRoute < 0 || valeurs[route] < valeurs[meilleureRoute]) meilleureRoute = route;
+                }
+                double c1 = valeurs[meilleureRoute];
+                if (Double.isInfinite(c1)) continue;
+
+                double regret = 0.0;
+                if (k > 1) {
+                    double[] tri = valeurs.clone();
+                    Arrays.sort(tri);
+                    for (int i = 1; i < Math.min(k, nbRoutes); i++) {
+                        regret += Double.isInfinite(tri[i]) ? PENALITE_NON_AFFECTEE : tri[i] - c1;
+                    }
+                }
+                boolean mieux = k > 1
+                        ? (regret > meilleurRegret || (regret == meilleurRegret && c1 < meilleurCout))
+                        : c1 < meilleurCout;
+                if (mieux) {
+                    meilleurRegret = regret;
+                    meilleurCout = c1;
+                    choisie = a;
+                    routeChoisie = meilleureRoute;
+                }
+            }
+            if (choisie < 0) return; // plus aucune insertion possible : demandes restantes non affectées
+
+            faite[choisie] = true;
+            s.inserer(aInserer.get(choisie), routeChoisie, posP[choisie][routeChoisie], posD[choisie][routeChoisie]);
+            for (int a = 0; a < u; a++) {
+                if (!faite[a]) meilleurePlace(s, aInserer.get(a), routeChoisie, a, delta, posP, posD, suite, argSuite);
+            }
+        }
+    }
+
+    /**
+     * Meilleure insertion (en secondes ajoutées) de la demande r dans la tournée k : pickup après i, livraison après j >= i.
+     * O(taille) grâce au minimum suffixe des coûts d'insertion de la livraison.
+     */
+    private void meilleurePlace(Solution s, int r, int k, int a,
+                                double[][] delta, int[][] posP, int[][] posD,
+                                double[] suite, int[] argSuite) {
+        int n = s.taille[k];
+        int p = noeud[2 * r], d = noeud[2 * r + 1];
+
+        // suite[j] = min_{j' >= j} coût d'insérer d entre les positions j' et j'+1 (-1 = dépôt de départ)
+        suite[n + 1] = Double.POSITIVE_INFINITY;
+        argSuite[n + 1] = -1;
+        for (int j = n - 1; j >= -1; j--) {
+            int x = s.noeudA(k, j), y = s.noeudA(k, j + 1);
+            double c = cost[x][d] + cost[d][y] - cost[x][y];
+            if (!Double.isNaN(c) && c < suite[j + 2]) {
+                suite[j + 1] = c;
+                argSuite[j + 1] = j;
+            } else {
+                suite[j + 1] = suite[j + 2];
+                argSuite[j + 1] = argSuite[j + 2];
+            }
+        }
+
+        double best = Double.POSITIVE_INFINITY;
+        int bi = -1, bj = -1;
+        for (int i = -1; i < n; i++) {
+            int x = s.noeudA(k, i), y = s.noeudA(k, i + 1);
+            double cp = cost[x][p] + cost[p][y] - cost[x][y];
+            if (Double.isNaN(cp) || Double.isInfinite(cp)) continue;
+            // livraison juste après le pickup
+            double cpd = cost[x][p] + cost[p][d] + cost[d][y] - cost[x][y];
+            if (cpd < best) {
+                best = cpd;
+                bi = i;
+                bj = i;
+            }
+            // livraison plus loin
+            double cd = suite[i + 2];
+            if (cp + cd < best) {
+                best = cp + cd;
+                bi = i;
+                bj = argSuite[i + 2];
+            }
+        }
+        delta[a][k] = Double.isInfinite(best) ? best : best / vitesse + service[2 * r] + service[2 * r + 1];
+        posP[a][k] = bi;
+        posD[a][k] = bj;
+    }
+
+    // ==================== Conversion ====================
+
+    private NDriverTspBalancer2.NDriverSolution versSolution(Solution s) {
+        List<NDriverTspBalancer2.DriverTour> tours = new ArrayList<>();
+        double total = 0.0;
+        int numero = 1;
+        for (int k = 0; k < nbRoutes; k++) {
+            if (s.taille[k] == 0) continue;
+
+            List<Long> ids = new ArrayList<>();
+            List<NDriverTspBalancer2.StepTimeline> timeline = new ArrayList<>();
+            ids.add(vertexOrder.get(depot));
+            timeline.add(new NDriverTspBalancer2.StepTimeline(vertexOrder.get(depot), 0, 0, 0));
+
+            double distance = 0, trajet = 0, services = 0, cumul = 0;
+            int prec = depot;
+            for (int i = 0; i <= s.taille[k]; i++) {
+                boolean retour = i == s.taille[k];
+                int v = retour ? -1 : s.visites[k][i];
+                int to = retour ? depot : noeud[v];
+                double dist = cost[prec][to];
+                double t = dist / vitesse;
+                double sv = retour ? 0 : service[v];
+                distance += dist;
+                trajet += t;
+                services += sv;
+                cumul += t + sv;
+                if (!retour) ids.add(vertexOrder.get(to));
+                timeline.add(new NDriverTspBalancer2.StepTimeline(vertexOrder.get(to), t, sv, cumul));
+                prec = to;
+            }
+            total += trajet + services;
+            tours.add(new NDriverTspBalancer2.DriverTour(numero++, ids, distance, trajet, services, trajet + services, timeline));
+        }
+        return new NDriverTspBalancer2.NDriverSolution(tours, tempsMax, total, false);
+    }
+}
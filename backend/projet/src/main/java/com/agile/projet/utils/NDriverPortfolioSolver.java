@@ -0,0 +1,255 @@
+package com.agile.projet.utils;
+
+import com.agile.projet.model.Delivery;
+import com.agile.projet.model.Noeud;
+import com.agile.projet.model.PickupDeliveryModel;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Portfolio de recherches multi-livreurs lancées en parallèle, la meilleure NDriverSolution est rendue.
+ * - Chaque recherche est un NDriverAlnsSolver avec sa graine et sa solution de départ :
+ *   regret-2, découpage en préfixes d'une tournée globale (esprit NDriverTspBalancer2), balayage angulaire autour du dépôt.
+ * - Meilleure solution partagée : chaque recherche publie ses améliorations.
+ * - Arrêt anticipé de toutes les recherches quand la meilleure solution stagne (ou à l'échéance).
+ */
+public class NDriverPortfolioSolver {
+
+    public enum Depart { REGRET, PREFIXES, BALAYAGE }
+
+    private static final long ATTENTE_MS = 20;
+
+    private final PickupDeliveryModel model;
+    private final int nDrivers;
+    private final double vitesse;
+    private final double tempsMax;
+
+    private int nbRecherches = Math.max(3, Runtime.getRuntime().availableProcessors());
+    private long stagnationMs = 1000;
+    private int maxIterations = 25_000;
+    private long graine = 0L;
+    private Echeance echeance = Echeance.jamais();
+    private ExecutorService executor;            // null => pool de threads plateforme propre au solve
+    private ObservateurSolution observateur;
+
+    // Meilleure solution partagée entre recherches
+    private NDriverTspBalancer2.NDriverSolution meilleure;
+    private double objectifMeilleur;
+    private long derniereAmeliorationNanos;
+
+    public NDriverPortfolioSolver(PickupDeliveryModel model, int nDrivers, double speedMetersPerSec,
+                                  double maxTimePerDriverSeconds) {
+        if (model == null || model.getMatriceCout() == null || model.getVertexOrder() == null)
+            throw new IllegalStateException("Modèle non initialisé");
+        this.model = model;
+        this.nDrivers = nDrivers;
+        this.vitesse = speedMetersPerSec;
+        this.tempsMax = maxTimePerDriverSeconds;
+    }
+
+    public NDriverPortfolioSolver setNbRecherches(int nbRecherches) {
+        if (nbRecherches <= 0) throw new IllegalArgumentException("nbRecherches >= 1 requis");
+        this.nbRecherches = nbRecherches;
+        return this;
+    }
+
+    /** Arrêt de toutes les recherches si la meilleure solution n'a pas progressé depuis ce délai. */
+    public NDriverPortfolioSolver setStagnationMs(long stagnationMs) {
+        this.stagnationMs = stagnationMs;
+        return this;
+    }
+
+    public NDriverPortfolioSolver setMaxIterations(int maxIterations) {
+        this.maxIterations = maxIterations;
+        return this;
+    }
+
+    public NDriverPortfolioSolver setGraine(long graine) {
+        this.graine = graine;
+        return this;
+    }
+
+    public NDriverPortfolioSolver setEcheance(Echeance echeance) {
+        this.echeance = echeance != null ? echeance : Echeance.jamais();
+        return this;
+    }
+
+    /**
+     * Pool d'exécution des recherches (le pool de calcul de l'application) ; par défaut un pool de
+     * nbRecherches threads plateforme, créé et arrêté par chaque solve.
+     */
+    public NDriverPortfolioSolver setExecutor(ExecutorService executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    public NDriverPortfolioSolver setObservateur(ObservateurSolution observateur) {
+        this.observateur = observateur;
+        return this;
+    }
+
+    public NDriverTspBalancer2.NDriverSolution solve() throws InterruptedException {
+        meilleure = null;
+        objectifMeilleur = Double.POSITIVE_INFINITY;
+        derniereAmeliorationNanos = System.nanoTime();
+
+        Echeance arret = echeance.fille();
+        boolean avecCoordonnees = coordonneesDisponibles();
+
+        // Solveurs construits avant le lancement : lecture du modèle sur ce thread uniquement
+        List<NDriverAlnsSolver> recherches = new ArrayList<>();
+        for (int i = 0; i < nbRecherches; i++) {
+            Depart depart = Depart.values()[i % Depart.values().length];
+            if (depart == Depart.BALAYAGE && !avecCoordonnees) depart = Depart.REGRET;
+            recherches.add(new NDriverAlnsSolver(model, nDrivers, vitesse, tempsMax)
+                    .setGraine(graine + i)
+                    .setMaxIterations(maxIterations)
+                    .setEcheance(arret)
+                    .setGroupesInitiaux(groupes(depart, new Random(graine + i)))
+                    .setObservateur(this::publier));
+        }
+
+        ExecutorService pool = executor != null ? executor
+                : Executors.newFixedThreadPool(nbRecherches, Thread.ofPlatform().name("portfolio-", 0).daemon().factory());
+        try {
+            List<Future<?>> taches = new ArrayList<>();
+            for (NDriverAlnsSolver r : recherches) taches.add(pool.submit(r::solve));
+
+            while (!toutesTerminees(taches)) {
+                if (stagnationDepassee()) arret.annuler();
+                TimeUnit.MILLISECONDS.sleep(ATTENTE_MS);
+            }
+            for (Future<?> t : taches) {
+                try {
+                    t.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Recherche du portfolio en échec: " + e.getCause().getMessage(), e.getCause());
+                }
+            }
+        } finally {
+            arret.annuler();
+            if (executor == null) pool.shutdownNow();
+        }
+
+        synchronized (this) {
+            return meilleure;
+        }
+    }
+
+    private synchronized void publier(NDriverTspBalancer2.NDriverSolution solution, double objectif) {
+        if (objectif < objectifMeilleur - 1e-9) {
+            objectifMeilleur = objectif;
+            meilleure = solution;
+            derniereAmeliorationNanos = System.nanoTime();
+            if (observateur != null) observateur.nouvelleMeilleure(solution, objectif);
+        }
+    }
+
+    private synchronized boolean stagnationDepassee() {
+        return meilleure != null
+                && System.nanoTime() - derniereAmeliorationNanos > stagnationMs * 1_000_000L;
+    }
+
+    private static boolean toutesTerminees(List<Future<?>> taches) {
+        for (Future<?> t : taches) if (!t.isDone()) return false;
+        return true;
+    }
+
+    // ==================== Solutions de départ ====================
+
+    private List<List<Integer>> groupes(Depart depart, Random rnd) {
+        return switch (depart) {
+            case REGRET -> null;
+            case PREFIXES -> groupesPrefixes();
+            case BALAYAGE -> groupesBalayage(rnd);
+        };
+    }
+
+    /**
+     * Comme NDriverTspBalancer2 : demandes ordonnées selon une tournée globale, puis découpées en préfixes
+     * consécutifs de durées estimées égales (tournée globale heuristique, pas de TSP exact).
+     */
+    private List<List<Integer>> groupesPrefixes() {
+        double[][] cost = model.getMatriceCout().getCostMatrix();
+        List<Long> ordre = model.getVertexOrder();
+        List<Delivery> deliveries = model.getDemandeDelivery().getDeliveries();
+        int depot = ordre.indexOf(model.getEntrepot().getAdresse());
+
+        int[] pickup = new int[cost.length];
+        Arrays.fill(pickup, -1);
+        for (Delivery d : deliveries) {
+            int p = ordre.indexOf(d.getAdresseEnlevement());
+            int l = ordre.indexOf(d.getAdresseLivraison());
+            if (p >= 0 && l >= 0) pickup[l] = p;
+        }
+        int[] tournee = HeuristiqueInsertion.construire(cost, pickup, depot, echeance);
+        if (tournee == null) return null;
+
+        int[] position = new int[cost.length];
+        double[] cumul = new double[cost.length];
+        double t = 0.0;
+        for (int i = 0; i < tournee.length; i++) {
+            if (i > 0) t += cost[tournee[i - 1]][tournee[i]] / vitesse;
+            position[tournee[i]] = i;
+            cumul[i] = t;
+        }
+        double total = t + cost[tournee[tournee.length - 1]][depot] / vitesse;
+
+        List<List<Integer>> groupes = vide();
+        for (int r = 0; r < deliveries.size(); r++) {
+            int p = ordre.indexOf(deliveries.get(r).getAdresseEnlevement());
+            if (p < 0) continue;
+            int k = (int) Math.min(nDrivers - 1, cumul[position[p]] * nDrivers / Math.max(total, 1e-9));
+            groupes.get(k).add(r);
+        }
+        return groupes;
+    }
+
+    /** Balayage : demandes triées par angle (milieu pickup/livraison) autour du dépôt, départ angulaire aléatoire. */
+    private List<List<Integer>> groupesBalayage(Random rnd) {
+        List<Delivery> deliveries = model.getDemandeDelivery().getDeliveries();
+        Noeud depot = model.getPlan().getNoeud(model.getEntrepot().getAdresse());
+        double origine = rnd.nextDouble() * 2 * Math.PI;
+
+        int nb = deliveries.size();
+        double[] angle = new double[nb];
+        List<Integer> demandes = new ArrayList<>(nb);
+        for (int r = 0; r < nb; r++) {
+            Noeud p = model.getPlan().getNoeud(deliveries.get(r).getAdresseEnlevement());
+            Noeud l = model.getPlan().getNoeud(deliveries.get(r).getAdresseLivraison());
+            double lat = (p.getLatitude() + l.getLatitude()) / 2 - depot.getLatitude();
+            double lon = (p.getLongitude() + l.getLongitude()) / 2 - depot.getLongitude();
+            double a = Math.atan2(lat, lon) - origine;
+            angle[r] = a < 0 ? a + 2 * Math.PI : a;
+            demandes.add(r);
+        }
+        demandes.sort(Comparator.comparingDouble(r -> angle[r]));
+
+        List<List<Integer>> groupes = vide();
+        for (int i = 0; i < nb; i++) {
+            groupes.get((int) ((long) i * nDrivers / nb)).add(demandes.get(i));
+        }
+        return groupes;
+    }
+
+    private List<List<Integer>> vide() {
+        List<List<Integer>> groupes = new ArrayList<>(nDrivers);
+        for (int k = 0; k < nDrivers; k++) groupes.add(new ArrayList<>());
+        return groupes;
+    }
+
+    private boolean coordonneesDisponibles() {
+        if (model.getPlan() == null || model.getEntrepot() == null) return false;
+        if (model.getPlan().getNoeud(model.getEntrepot().getAdresse()) == null) return false;
+        for (Delivery d : model.getDemandeDelivery().getDeliveries()) {
+            if (model.getPlan().getNoeud(d.getAdresseEnlevement()) == null
+                    || model.getPlan().getNoeud(d.getAdresseLivraison()) == null) return false;
+        }
+        return true;
+    }
+}
@@ -101,13 +101,14 @@ public class NDriverTspBalancer {
         long depotId = entrepot.getAdresse();
 
         double[][] globalCost = model.getMatriceCout().getCostMatrix();
+        CacheSousTSP cache = model.getMatriceCout().getCacheSousTsp();
         List<Long> globalVertexOrder = model.getVertexOrder();
         int[] globalPickup = model.getPickupOfDelivery();
 
         Map<Long, Long> serviceTimes = buildServiceTimeMap(demande);
 
-        /* ===== TSP GLOBAL ===== */
-        CalculTSP globalTsp = new CalculTSP(globalCost, globalVertexOrder, globalPickup);
+        /* ===== ORDRE GLOBAL (OrdreGlobal) ===== */
+        SolveurTSP globalTsp = OrdreGlobal.pour(model, globalPickup);
         globalTsp.solveFromId(depotId);
 
         TourStats globalStats = computeTourStats(
@@ -156,7 +157,7 @@ public class NDriverTspBalancer {
             SubTspData sub = buildSubProblem(globalCost, globalVertexOrder, depotId, assigned);
             int[] subPickup = buildSubPickupOfDelivery(globalPickup, globalVertexOrder, sub.vertexOrder);
 
-            CalculTSP tsp = new CalculTSP(sub.costMatrix, sub.vertexOrder, subPickup);
+            SolveurTSP tsp = cache.solveur(sub.costMatrix, sub.vertexOrder, subPickup);
             tsp.solveFromId(depotId);
 
             TourStats stats = computeTourStats(
@@ -273,7 +274,7 @@ public class NDriverTspBalancer {
         }
     }
 
-    private static TourStats computeTourStats(CalculTSP tsp,
+    private static TourStats computeTourStats(SolveurTSP tsp,
                                               double[][] matrix,
                                               List<Long> order,
                                               Map<Long, Long> serviceTimes,
@@ -330,7 +331,7 @@ public class NDriverTspBalancer {
                     sub.vertexOrder
             );
 
-            CalculTSP tsp = new CalculTSP(sub.costMatrix, sub.vertexOrder, pickup);
+            SolveurTSP tsp = model.getMatriceCout().getCacheSousTsp().solveur(sub.costMatrix, sub.vertexOrder, pickup);
             tsp.solveFromId(depotId);
 
             TourStats stats = computeTourStats(
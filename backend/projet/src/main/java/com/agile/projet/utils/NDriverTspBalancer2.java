@@ -6,9 +6,16 @@ import com.agile.projet.model.Entrepot;
 import com.agile.projet.model.PickupDeliveryModel;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 public class NDriverTspBalancer2 {
 
+    /**
+     * Au-delà de ce nombre de demandes, les TSP exacts sont trop coûteux : résolution par NDriverAlnsSolver
+     * (NDriverPortfolioSolver, une recherche par thread du pool de calcul fourni).
+     */
+    public static final int SEUIL_ALNS = 12;
+
     public static final class StepTimeline {
         private final long nodeId;
         private final double travelFromPrevSec;
@@ -66,16 +73,25 @@ public class NDriverTspBalancer2 {
         private final List<DriverTour> tours;
         private final double targetSeconds;
         private final double globalTotalSeconds;
+        private final boolean optimaliteProuvee;
 
         public NDriverSolution(List<DriverTour> tours, double targetSeconds, double globalTotalSeconds) {
+            this(tours, targetSeconds, globalTotalSeconds, true);
+        }
+
+        public NDriverSolution(List<DriverTour> tours, double targetSeconds, double globalTotalSeconds,
+                               boolean optimaliteProuvee) {
             this.tours = tours;
             this.targetSeconds = targetSeconds;
             this.globalTotalSeconds = globalTotalSeconds;
+            this.optimaliteProuvee = optimaliteProuvee;
         }
 
         public List<DriverTour> getTours() { return tours; }
         public double getTargetSeconds() { return targetSeconds; }
         public double getGlobalTotalSeconds() { return globalTotalSeconds; }
+        /** false si au moins un TSP a été interrompu par l'échéance (tournées valides mais pas prouvées optimales). */
+        public boolean isOptimaliteProuvee() { return optimaliteProuvee; }
     }
 
     /**
@@ -86,6 +102,45 @@ public class NDriverTspBalancer2 {
                                         int nDrivers,
                                         double speedMetersPerSec,
                                         double maxTimePerDriverSeconds) {
+        return solve(model, nDrivers, speedMetersPerSec, maxTimePerDriverSeconds, Echeance.aucune());
+    }
+
+    /**
+     * @param echeance limite de temps de calcul partagée par tous les TSP ; à expiration chaque TSP
+     *                 rend sa meilleure tournée connue
+     */
+    public static NDriverSolution solve(PickupDeliveryModel model,
+                                        int nDrivers,
+                                        double speedMetersPerSec,
+                                        double maxTimePerDriverSeconds,
+                                        Echeance echeance) {
+        return solve(model, nDrivers, speedMetersPerSec, maxTimePerDriverSeconds, echeance, null);
+    }
+
+    /**
+     * @param observateur notifié des solutions intermédiaires des recherches ALNS / portfolio, sinon des
+     *                    améliorations de chaque sous-TSP et de chaque tournée terminée (peut être null)
+     */
+    public static NDriverSolution solve(PickupDeliveryModel model,
+                                        int nDrivers,
+                                        double speedMetersPerSec,
+                                        double maxTimePerDriverSeconds,
+                                        Echeance echeance,
+                                        ObservateurSolution observateur) {
+        return solve(model, nDrivers, speedMetersPerSec, maxTimePerDriverSeconds, echeance, observateur, null);
+    }
+
+    /**
+     * @param pool pool de calcul des recherches du portfolio (une par thread) et des Branch & Bound parallèles ;
+     *             null : tout le calcul se fait sur le thread appelant (une seule ALNS pour les grandes demandes)
+     */
+    public static NDriverSolution solve(PickupDeliveryModel model,
+                                        int nDrivers,
+                                        double speedMetersPerSec,
+                                        double maxTimePerDriverSeconds,
+                                        Echeance echeance,
+                                        ObservateurSolution observateur,
+                                        ForkJoinPool pool) {
 
         if (model == null || model.getMatriceCout() == null || model.getVertexOrder() == null)
             throw new IllegalStateException("Modèle non initialisé");
@@ -97,18 +152,40 @@ public class NDriverTspBalancer2 {
             throw new IllegalArgumentException("Vitesse > 0 requise");
 
         DemandeDelivery demande = model.getDemandeDelivery();
+        if (demande.getDeliveries().size() > SEUIL_ALNS) {
+            if (pool == null || pool.getParallelism() == 1) {
+                return new NDriverAlnsSolver(model, nDrivers, speedMetersPerSec, maxTimePerDriverSeconds)
+                        .setEcheance(echeance)
+                        .setObservateur(observateur)
+                        .solve();
+            }
+            try {
+                return new NDriverPortfolioSolver(model, nDrivers, speedMetersPerSec, maxTimePerDriverSeconds)
+                        .setNbRecherches(pool.getParallelism())
+                        .setExecutor(pool)
+                        .setEcheance(echeance)
+                        .setObservateur(observateur)
+                        .solve();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Résolution multi-livreurs interrompue", e);
+            }
+        }
+
         Entrepot entrepot = model.getEntrepot();
         long depotId = entrepot.getAdresse();
 
         double[][] globalCost = model.getMatriceCout().getCostMatrix();
+        CacheSousTSP cache = model.getMatriceCout().getCacheSousTsp();
         List<Long> globalVertexOrder = model.getVertexOrder();
         int[] globalPickup = model.getPickupOfDelivery();
 
         Map<Long, Long> serviceTimes = buildServiceTimeMap(demande);
 
-        /* ===== TSP GLOBAL ===== */
-        CalculTSP globalTsp = new CalculTSP(globalCost, globalVertexOrder, globalPickup);
+        /* ===== ORDRE GLOBAL (OrdreGlobal) ===== */
+        SolveurTSP globalTsp = OrdreGlobal.pour(model, globalPickup).setEcheance(echeance);
         globalTsp.solveFromId(depotId);
+        boolean optimaliteProuvee = true; // l'ordre global ne sert qu'au découpage
 
         TourStats globalStats = computeTourStats(
                 globalTsp, globalCost, globalVertexOrder,
@@ -150,7 +227,7 @@ public class NDriverTspBalancer2 {
                 // on prend le plus gros préfixe qui respecte la cible
                 k = pickMaxPrefixUnderTarget(
                         model, depotId, remaining,
-                        effectiveTarget, speedMetersPerSec, serviceTimes
+                        effectiveTarget, speedMetersPerSec, serviceTimes, echeance
                 );
                 if (k <= 0) k = 1;
             }
@@ -161,15 +238,20 @@ public class NDriverTspBalancer2 {
             SubTspData sub = buildSubProblem(globalCost, globalVertexOrder, depotId, assigned);
             int[] subPickup = buildSubPickupOfDelivery(globalPickup, globalVertexOrder, sub.vertexOrder);
 
-            CalculTSP tsp = new CalculTSP(sub.costMatrix, sub.vertexOrder, subPickup);
+            SolveurTSP tsp = cache.solveur(sub.costMatrix, sub.vertexOrder, subPickup).setEcheance(echeance).setPool(pool);
+            if (observateur != null) {
+                int livreur = d;
+                tsp.setObservateur(cout -> observateur.sousTourneeAmelioree(livreur, cout));
+            }
             tsp.solveFromId(depotId);
+            optimaliteProuvee &= tsp.isOptimaliteProuvee();
 
             TourStats stats = computeTourStats(
                     tsp, sub.costMatrix, sub.vertexOrder,
                     serviceTimes, sub.depotIndex, speedMetersPerSec
             );
 
-            result.add(new DriverTour(
+            DriverTour tour = new DriverTour(
                     d,
                     tsp.getBestPathIds(),
                     stats.distanceMeters,
@@ -177,13 +259,15 @@ public class NDriverTspBalancer2 {
                     stats.serviceSeconds,
                     stats.totalSeconds,
                     stats.timeline
-            ));
+            );
+            result.add(tour);
+            if (observateur != null) observateur.tourneeTerminee(tour);
 
             d++;
         }
 
 
-        return new NDriverSolution(result, effectiveTarget, globalTotal);
+        return new NDriverSolution(result, effectiveTarget, globalTotal, optimaliteProuvee);
     }
 
     /* ==================== TOUT LE RESTE STRICTEMENT IDENTIQUE ==================== */
@@ -219,10 +303,24 @@ public class NDriverTspBalancer2 {
         }
     }
 
+    private static Map<Long, Integer> indexGlobal(List<Long> globalVertexOrder) {
+        Map<Long, Integer> gIndex = new HashMap<>();
+        for (int i = 0; i < globalVertexOrder.size(); i++)
+            gIndex.put(globalVertexOrder.get(i), i);
+        return gIndex;
+    }
+
     private static SubTspData buildSubProblem(double[][] globalCost,
                                               List<Long> globalVertexOrder,
                                               long depotId,
                                               List<Delivery> deliveries) {
+        return buildSubProblem(globalCost, indexGlobal(globalVertexOrder), depotId, deliveries);
+    }
+
+    private static SubTspData buildSubProblem(double[][] globalCost,
+                                              Map<Long, Integer> gIndex,
+                                              long depotId,
+                                              List<Delivery> deliveries) {
 
         LinkedHashSet<Long> ids = new LinkedHashSet<>();
         ids.add(depotId);
@@ -231,10 +329,6 @@ public class NDriverTspBalancer2 {
             ids.add(d.getAdresseLivraison());
         }
 
-        Map<Long, Integer> gIndex = new HashMap<>();
-        for (int i = 0; i < globalVertexOrder.size(); i++)
-            gIndex.put(globalVertexOrder.get(i), i);
-
         List<Long> local = new ArrayList<>(ids);
         int n = local.size();
         double[][] m = new double[n][n];
@@ -249,14 +343,17 @@ public class NDriverTspBalancer2 {
     private static int[] buildSubPickupOfDelivery(int[] globalPickup,
                                                   List<Long> globalOrder,
                                                   List<Long> subOrder) {
+        return buildSubPickupOfDelivery(globalPickup, globalOrder, indexGlobal(globalOrder), subOrder);
+    }
+
+    private static int[] buildSubPickupOfDelivery(int[] globalPickup,
+                                                  List<Long> globalOrder,
+                                                  Map<Long, Integer> gIndex,
+                                                  List<Long> subOrder) {
 
         int[] sub = new int[subOrder.size()];
         Arrays.fill(sub, -1);
 
-        Map<Long, Integer> gIndex = new HashMap<>();
-        for (int i = 0; i < globalOrder.size(); i++)
-            gIndex.put(globalOrder.get(i), i);
-
         Map<Long, Integer> lIndex = new HashMap<>();
         for (int i = 0; i < subOrder.size(); i++)
             lIndex.put(subOrder.get(i), i);
@@ -281,7 +378,7 @@ public class NDriverTspBalancer2 {
         }
     }
 
-    private static TourStats computeTourStats(CalculTSP tsp,
+    private static TourStats computeTourStats(SolveurTSP tsp,
                                               double[][] matrix,
                                               List<Long> order,
                                               Map<Long, Long> serviceTimes,
@@ -317,37 +414,78 @@ public class NDriverTspBalancer2 {
         return new TourStats(dist, travel, service, travel + service, tl);
     }
 
+    /**
+     * Plus grand préfixe k de remaining dont la tournée tient dans target.
+     * La durée étant quasi monotone en k, recherche dichotomique : O(log m) évaluations au lieu de m.
+     * Chaque évaluation tente d'abord deux estimations bon marché (voir prefixeTient) avant un TSP exact.
+     */
     private static int pickMaxPrefixUnderTarget(PickupDeliveryModel model,
                                                 long depotId,
                                                 List<Delivery> remaining,
                                                 double target,
                                                 double speed,
-                                                Map<Long, Long> serviceTimes) {
-
-        for (int k = remaining.size(); k >= 1; k--) {
-            SubTspData sub = buildSubProblem(
-                    model.getMatriceCout().getCostMatrix(),
-                    model.getVertexOrder(),
-                    depotId,
-                    remaining.subList(0, k)
-            );
+                                                Map<Long, Long> serviceTimes,
+                                                Echeance echeance) {
 
-            int[] pickup = buildSubPickupOfDelivery(
-                    model.getPickupOfDelivery(),
-                    model.getVertexOrder(),
-                    sub.vertexOrder
-            );
+        Map<Long, Integer> gIndex = indexGlobal(model.getVertexOrder());
+        List<Delivery> demandes = new ArrayList<>(remaining); // remaining est une LinkedList : subList O(k)
 
-            CalculTSP tsp = new CalculTSP(sub.costMatrix, sub.vertexOrder, pickup);
-            tsp.solveFromId(depotId);
+        int ok = 0, ko = demandes.size() + 1;   // invariant : préfixe ok admissible, préfixe ko non
+        while (ko - ok > 1) {
+            int k = (ok + ko) >>> 1;
+            if (prefixeTient(model, gIndex, depotId, demandes.subList(0, k), target, speed, serviceTimes, echeance)) {
+                ok = k;
+            } else {
+                ko = k;
+            }
+        }
+        return ok;
+    }
 
-            TourStats stats = computeTourStats(
-                    tsp, sub.costMatrix, sub.vertexOrder,
-                    serviceTimes, sub.depotIndex, speed
-            );
+    /**
+     * La tournée optimale des demandes tient-elle dans target ?
+     * - minorant (service + arc entrant le moins cher de chaque sommet) > target : non, sans TSP ;
+     * - tournée d'insertion + 2-opt/Or-opt admissible et <= target : oui, sans TSP (l'exact ne fera pas pire) ;
+     * - sinon TSP exact.
+     */
+    private static boolean prefixeTient(PickupDeliveryModel model,
+                                        Map<Long, Integer> gIndex,
+                                        long depotId,
+                                        List<Delivery> demandes,
+                                        double target,
+                                        double speed,
+                                        Map<Long, Long> serviceTimes,
+                                        Echeance echeance) {
+
+        SubTspData sub = buildSubProblem(model.getMatriceCout().getCostMatrix(), gIndex, depotId, demandes);
+        int n = sub.vertexOrder.size();
+
+        double service = 0.0, minorant = 0.0;
+        for (int j = 0; j < n; j++) {
+            if (j != sub.depotIndex) service += serviceTimes.getOrDefault(sub.vertexOrder.get(j), 0L);
+            double entrant = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < n; i++) if (i != j) entrant = Math.min(entrant, sub.costMatrix[i][j]);
+            if (n > 1) minorant += entrant;
+        }
+        if (service + minorant / speed > target) return false;
 
-            if (stats.totalSeconds <= target) return k;
+        int[] pickup = buildSubPickupOfDelivery(model.getPickupOfDelivery(), model.getVertexOrder(), gIndex, sub.vertexOrder);
+
+        // Raccourci "passe nettement" : seulement sur une tournée admissible (sinon son coût n'est pas une borne
+        // supérieure du sous-TSP) ; à défaut, résolution exacte ci-dessous
+        int[] tournee = HeuristiqueInsertion.construire(sub.costMatrix, pickup, sub.depotIndex, echeance);
+        if (HeuristiqueInsertion.estAdmissible(tournee, pickup, sub.depotIndex)
+                && service + HeuristiqueInsertion.coutTournee(sub.costMatrix, tournee) / speed <= target) {
+            return true;
         }
-        return 0;
+
+        SolveurTSP tsp = model.getMatriceCout().getCacheSousTsp().solveur(sub.costMatrix, sub.vertexOrder, pickup).setEcheance(echeance);
+        tsp.solveFromId(depotId);
+
+        TourStats stats = computeTourStats(
+                tsp, sub.costMatrix, sub.vertexOrder,
+                serviceTimes, sub.depotIndex, speed
+        );
+        return stats.totalSeconds <= target;
     }
 }
@@ -6,6 +6,10 @@ import com.agile.projet.model.Entrepot;
 import com.agile.projet.model.PickupDeliveryModel;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Répartit une tournée sur N livreurs en respectant :
@@ -15,10 +19,11 @@ import java.util.*;
  *  - calcule la durée cumulée par driver (trajet + temps de service)
  *
  * Stratégie de répartition :
- *  1) TSP global (avec précédence) pour obtenir un ordre "raisonnable"
+ *  1) Ordre global (avec précédence, OrdreGlobal) pour obtenir un ordre "raisonnable"
  *  2) Trier les Delivery selon leur première apparition (pickup ou delivery) dans ce chemin global
  *  3) Découper en N "chunks" contigus aussi équitables que possible (diff ≤ 1)
- *  4) Pour chaque chunk : sous-problème, TSP local (avec précédence), durée
+ *  4) Pour chaque chunk : sous-problème, TSP local (avec précédence), durée ; les chunks sont résolus
+ *     en parallèle sur l'executor fourni (PoolCalcul.getParallele en production), sinon l'un après l'autre
  */
 public class NDriverTspSolver {
 
@@ -66,10 +71,22 @@ public class NDriverTspSolver {
      * @param model PickupDeliveryModel déjà prêt: matrice de coûts + vertexOrder + pickupOfDelivery + demande + entrepot
      * @param nDrivers nombre de livreurs
      * @param speedMetersPerSec vitesse (m/s) pour convertir la distance en temps
+     * Les TSP par driver sont résolus l'un après l'autre sur le thread appelant.
      */
     public static MultiDriverSolution solveForNDrivers(PickupDeliveryModel model,
                                                        int nDrivers,
                                                        double speedMetersPerSec) {
+        return solveForNDrivers(model, nDrivers, speedMetersPerSec, Runnable::run);
+    }
+
+    /**
+     * @param executor exécute les TSP par driver (indépendants) ; la latence suit alors le plus gros sous-problème.
+     *                 Un ForkJoinPool sert aussi à paralléliser chaque Branch & Bound.
+     */
+    public static MultiDriverSolution solveForNDrivers(PickupDeliveryModel model,
+                                                       int nDrivers,
+                                                       double speedMetersPerSec,
+                                                       Executor executor) {
         if (model == null) throw new IllegalArgumentException("model null");
         if (nDrivers <= 0) throw new IllegalArgumentException("nDrivers doit être > 0");
         if (speedMetersPerSec <= 0) throw new IllegalArgumentException("La vitesse doit être > 0");
@@ -95,11 +112,10 @@ public class NDriverTspSolver {
         }
         long depotId = entrepot.getAdresse();
 
-        double[][] globalCost = model.getMatriceCout().getCostMatrix();
-        List<Long> globalVertexOrder = model.getVertexOrder();
+        CacheSousTSP cache = model.getMatriceCout().getCacheSousTsp();
 
-        // 1) TSP global AVEC précédence pickup->delivery
-        CalculTSP globalTsp = new CalculTSP(globalCost, globalVertexOrder, model.getPickupOfDelivery());
+        // 1) Ordre global AVEC précédence pickup->delivery (OrdreGlobal, heuristique par défaut)
+        SolveurTSP globalTsp = OrdreGlobal.pour(model, model.getPickupOfDelivery());
         globalTsp.solveFromId(depotId);
         List<Long> globalRouteIds = globalTsp.getBestPathIds();
 
@@ -112,47 +128,71 @@ public class NDriverTspSolver {
         // 4) Temps de service
         Map<Long, Long> serviceTimes = buildServiceTimeMap(demande);
 
-        // 5) TSP par driver (sous-problème)
-        List<DriverSolution> result = new ArrayList<>(nDrivers);
-
+        // 5) TSP par driver (sous-problèmes indépendants) : lancés en parallèle, résultats dans l'ordre des drivers
+        ForkJoinPool pool = executor instanceof ForkJoinPool fj ? fj : null;
+        List<CompletableFuture<DriverSolution>> taches = new ArrayList<>(nDrivers);
         for (int i = 0; i < nDrivers; i++) {
+            int driver = i;
             List<Delivery> assigned = buckets.get(i);
+            taches.add(CompletableFuture.supplyAsync(() -> solveDriver(
+                    model, cache, pool, driver, assigned, depotId, serviceTimes, speedMetersPerSec
+            ), executor));
+        }
 
-            if (assigned.isEmpty()) {
-                result.add(new DriverSolution(i, List.of(), 0.0));
-                continue;
-            }
+        List<DriverSolution> result = new ArrayList<>(nDrivers);
+        try {
+            for (CompletableFuture<DriverSolution> t : taches) result.add(t.join());
+        } catch (CompletionException e) {
+            for (CompletableFuture<DriverSolution> t : taches) t.cancel(true);
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw e;
+        }
 
-            SubTspData sub = buildSubProblem(globalCost, globalVertexOrder, depotId, assigned);
+        return new MultiDriverSolution(result);
+    }
 
-            if (sub.vertexOrder.size() <= 1) {
-                result.add(new DriverSolution(i, List.of(), 0.0));
-                continue;
-            }
+    /** Sous-problème d'un driver : buildSubProblem + TSP local (avec précédence) + durée. */
+    private static DriverSolution solveDriver(PickupDeliveryModel model,
+                                              CacheSousTSP cache,
+                                              ForkJoinPool pool,
+                                              int i,
+                                              List<Delivery> assigned,
+                                              long depotId,
+                                              Map<Long, Long> serviceTimes,
+                                              double speedMetersPerSec) {
+        if (assigned.isEmpty()) {
+            return new DriverSolution(i, List.of(), 0.0);
+        }
 
-            int[] subPickup = buildSubPickupOfDelivery(
-                    model.getPickupOfDelivery(),
-                    globalVertexOrder,
-                    sub.vertexOrder
-            );
+        double[][] globalCost = model.getMatriceCout().getCostMatrix();
+        List<Long> globalVertexOrder = model.getVertexOrder();
 
-            CalculTSP tsp = new CalculTSP(sub.costMatrix, sub.vertexOrder, subPickup);
-            tsp.solveFromId(depotId);
-            List<Long> pathIds = tsp.getBestPathIds();
-
-            double duration = 0.0;
-            if (pathIds != null && !pathIds.isEmpty()) {
-                duration = computeTourDurationSeconds(
-                        tsp, sub.costMatrix, sub.vertexOrder, serviceTimes, sub.depotIndex, speedMetersPerSec
-                );
-            } else {
-                duration = Double.POSITIVE_INFINITY; // pas de solution valable
-            }
+        SubTspData sub = buildSubProblem(globalCost, globalVertexOrder, depotId, assigned);
 
-            result.add(new DriverSolution(i, pathIds == null ? List.of() : pathIds, duration));
+        if (sub.vertexOrder.size() <= 1) {
+            return new DriverSolution(i, List.of(), 0.0);
         }
 
-        return new MultiDriverSolution(result);
+        int[] subPickup = buildSubPickupOfDelivery(
+                model.getPickupOfDelivery(),
+                globalVertexOrder,
+                sub.vertexOrder
+        );
+
+        SolveurTSP tsp = cache.solveur(sub.costMatrix, sub.vertexOrder, subPickup).setPool(pool);
+        tsp.solveFromId(depotId);
+        List<Long> pathIds = tsp.getBestPathIds();
+
+        double duration = 0.0;
+        if (pathIds != null && !pathIds.isEmpty()) {
+            duration = computeTourDurationSeconds(
+                    tsp, sub.costMatrix, sub.vertexOrder, serviceTimes, sub.depotIndex, speedMetersPerSec
+            );
+        } else {
+            duration = Double.POSITIVE_INFINITY; // pas de solution valable
+        }
+
+        return new DriverSolution(i, pathIds == null ? List.of() : pathIds, duration);
     }
 
     // -------------------- Structures internes --------------------
@@ -310,7 +350,7 @@ public class NDriverTspSolver {
      * Durée = somme(distance)/vitesse + somme(temps service sur chaque arrivée (hors dépôt)).
      * On parcourt le cycle implicite du meilleur chemin (dernier -> premier).
      */
-    private static double computeTourDurationSeconds(CalculTSP solver,
+    private static double computeTourDurationSeconds(SolveurTSP solver,
                                                      double[][] matrix,
                                                      List<Long> vertexOrder,
                                                      Map<Long, Long> serviceTimes,
@@ -0,0 +1,20 @@
+package com.agile.projet.utils;
+
+/**
+ * Notifié à chaque nouvelle meilleure solution multi-livreurs trouvée par une recherche (ALNS, portfolio).
+ * Appelé depuis le thread de la recherche : l'implémentation doit être rapide et thread-safe.
+ * Pour les demandes résolues livreur par livreur (TSP exacts de NDriverTspBalancer2), les méthodes par défaut
+ * reçoivent la progression de chaque sous-tournée.
+ */
+@FunctionalInterface
+public interface ObservateurSolution {
+
+    /** @param objectif valeur de l'objectif de la recherche (plus petit = meilleur) */
+    void nouvelleMeilleure(NDriverTspBalancer2.NDriverSolution solution, double objectif);
+
+    /** Meilleure tournée du TSP du livreur améliorée (distance, en mètres). */
+    default void sousTourneeAmelioree(int livreur, double cout) {}
+
+    /** Tournée définitive d'un livreur. */
+    default void tourneeTerminee(NDriverTspBalancer2.DriverTour tour) {}
+}
@@ -0,0 +1,12 @@
+package com.agile.projet.utils;
+
+/**
+ * Notifié à chaque amélioration de la meilleure tournée d'un SolveurTSP pendant le solve.
+ * Peut être appelé depuis les workers de la recherche parallèle : l'implémentation doit être rapide et thread-safe.
+ */
+@FunctionalInterface
+public interface ObservateurTSP {
+
+    /** @param cout coût de la nouvelle meilleure tournée (strictement inférieur au précédent) */
+    void nouveauCout(double cout);
+}
@@ -0,0 +1,244 @@
+package com.agile.projet.utils;
+
+import com.agile.projet.model.Noeud;
+import com.agile.projet.model.Plan;
+import com.agile.projet.model.PickupDeliveryModel;
+
+import java.util.*;
+
+/**
+ * Etape "ordre global" des pipelines multi-livreurs : une tournée sur tous les POI, utilisée seulement pour
+ * ordonner les livraisons avant découpage (et estimer la durée totale). Un TSP exact y est superflu.
+ * Stratégies :
+ *  - TSP_EXACT : SolveurTSP.pour (ancien comportement, infaisable au-delà d'une douzaine de POI)
+ *  - PLUS_PROCHE_VOISIN : O(n²), précédences respectées
+ *  - HILBERT : tri le long d'une courbe de Hilbert (lat/lon du plan), O(n log n) ; plus proche voisin sans coordonnées
+ *  - TOURNEE_HEURISTIQUE : insertion + 2-opt/Or-opt (HeuristiqueInsertion), défaut
+ * La stratégie des pipelines est celle du modèle (PickupDeliveryModel), réglée par la propriété
+ * ordre.global.strategie (Controller).
+ * Même API que les solveurs TSP (SolveurTSP) pour rester interchangeable dans les pipelines.
+ */
+public class OrdreGlobal implements SolveurTSP {
+
+    public enum Strategie { TSP_EXACT, PLUS_PROCHE_VOISIN, HILBERT, TOURNEE_HEURISTIQUE }
+
+    private static final int ORDRE_HILBERT = 16; // grille 2^16 x 2^16
+
+    public static final Strategie STRATEGIE_DEFAUT = Strategie.TOURNEE_HEURISTIQUE;
+
+    private final double[][] cost;
+    private final List<Long> vertexOrder;
+    private final int[] pickupOfDelivery;
+    private final Strategie strategie;
+    private final Plan plan;
+    private Echeance echeance = Echeance.jamais();
+
+    private SolveurTSP exact;                 // TSP_EXACT uniquement
+    private int[] bestPath = new int[0];
+    private double bestCost = Double.POSITIVE_INFINITY;
+
+    /**
+     * @param pickupOfDelivery null si pas de contrainte pickup -> delivery
+     * @param plan coordonnées des noeuds (HILBERT), peut être null
+     */
+    public OrdreGlobal(double[][] costMatrix, List<Long> vertexOrder, int[] pickupOfDelivery,
+                       Strategie strategie, Plan plan) {
+        Objects.requireNonNull(costMatrix);
+        Objects.requireNonNull(vertexOrder);
+        if (costMatrix.length != vertexOrder.size())
+            throw new IllegalArgumentException("vertexOrder.size != matrix size");
+        if (pickupOfDelivery != null && pickupOfDelivery.length != costMatrix.length)
+            throw new IllegalArgumentException("pickupOfDelivery wrong length");
+
+        this.cost = costMatrix;
+        this.vertexOrder = vertexOrder;
+        this.pickupOfDelivery = pickupOfDelivery;
+        this.strategie = Objects.requireNonNull(strategie);
+        this.plan = plan;
+    }
+
+    /** Ordre global du modèle avec la stratégie du modèle. */
+    public static OrdreGlobal pour(PickupDeliveryModel model, int[] pickupOfDelivery) {
+        return new OrdreGlobal(model.getMatriceCout().getCostMatrix(), model.getVertexOrder(),
+                pickupOfDelivery, model.getStrategieOrdreGlobal(), model.getPlan());
+    }
+
+    @Override
+    public SolveurTSP setEcheance(Echeance echeance) {
+        this.echeance = echeance != null ? echeance : Echeance.jamais();
+        return this;
+    }
+
+    @Override
+    public void solveFromId(long startId) {
+        int start = vertexOrder.indexOf(startId);
+        if (start < 0) throw new IllegalArgumentException("Unknown start ID: " + startId);
+        solveFromIndex(start);
+    }
+
+    @Override
+    public void solveFromIndex(int startIndex) {
+        int n = cost.length;
+        if (startIndex < 0 || startIndex >= n)
+            throw new IllegalArgumentException("startIndex out of range: " + startIndex);
+
+        int[] pickup = pickupOfDelivery;
+        if (pickup == null) {
+            pickup = new int[n];
+            Arrays.fill(pickup, -1);
+        }
+
+        bestPath = switch (strategie) {
+            case TSP_EXACT -> cheminExact(startIndex);
+            case PLUS_PROCHE_VOISIN -> plusProcheVoisin(pickup, startIndex);
+            case HILBERT -> {
+                int[] t = hilbert(pickup, startIndex);
+                yield t != null ? t : plusProcheVoisin(pickup, startIndex);
+            }
+            case TOURNEE_HEURISTIQUE -> {
+                int[] t = HeuristiqueInsertion.construire(cost, pickup, startIndex, echeance);
+                yield t != null ? t : plusProcheVoisin(pickup, startIndex);
+            }
+        };
+        bestCost = strategie == Strategie.TSP_EXACT ? exact.getBestCost() : HeuristiqueInsertion.coutTournee(cost, bestPath);
+    }
+
+    @Override
+    public double getBestCost() {
+        return bestCost;
+    }
+
+    @Override
+    public List<Integer> getBestPathIndices() {
+        List<Integer> indices = new ArrayList<>(bestPath.length);
+        for (int idx : bestPath) indices.add(idx);
+        return indices;
+    }
+
+    @Override
+    public List<Long> getBestPathIds() {
+        List<Long> ids = new ArrayList<>(bestPath.length);
+        for (int idx : bestPath) ids.add(vertexOrder.get(idx));
+        return ids;
+    }
+
+    @Override
+    public boolean isOptimaliteProuvee() {
+        return exact != null && exact.isOptimaliteProuvee();
+    }
+
+    // ---------- Stratégies ----------
+
+    private int[] cheminExact(int start) {
+        exact = pickupOfDelivery != null
+                ? SolveurTSP.pour(cost, vertexOrder, pickupOfDelivery)
+                : SolveurTSP.pour(cost, vertexOrder);
+        exact.setEcheance(echeance).solveFromIndex(start);
+        List<Integer> chemin = exact.getBestPathIndices();
+        int[] t = new int[chemin.size()];
+        for (int i = 0; i < t.length; i++) t[i] = chemin.get(i);
+        return t;
+    }
+
+    /** Plus proche voisin admissible : une livraison n'est candidate qu'une fois son pickup visité. */
+    private int[] plusProcheVoisin(int[] pickup, int start) {
+        int n = cost.length;
+        boolean[] vu = new boolean[n];
+        int[] t = new int[n];
+        t[0] = start;
+        vu[start] = true;
+        for (int pos = 1; pos < n; pos++) {
+            int courant = t[pos - 1], suivant = -1;
+            for (int j = 0; j < n; j++) {
+                if (vu[j] || (pickup[j] >= 0 && !vu[pickup[j]])) continue;
+                if (suivant < 0 || cost[courant][j] < cost[courant][suivant]) suivant = j;
+            }
+            t[pos] = suivant;
+            vu[suivant] = true;
+        }
+        return t;
+    }
+
+    /**
+     * Tri des noeuds selon leur position sur une courbe de Hilbert (boîte englobante du plan),
+     * une livraison rencontrée avant son pickup est reportée juste après lui.
+     * @return null si des coordonnées manquent
+     */
+    private int[] hilbert(int[] pickup, int start) {
+        int n = cost.length;
+        if (plan == null) return null;
+        double[] lat = new double[n], lon = new double[n];
+        double minLat = Double.POSITIVE_INFINITY, maxLat = Double.NEGATIVE_INFINITY;
+        double minLon = Double.POSITIVE_INFINITY, maxLon = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            Noeud noeud = plan.getNoeud(vertexOrder.get(i));
+            if (noeud == null) return null;
+            lat[i] = noeud.getLatitude();
+            lon[i] = noeud.getLongitude();
+            minLat = Math.min(minLat, lat[i]);
+            maxLat = Math.max(maxLat, lat[i]);
+            minLon = Math.min(minLon, lon[i]);
+            maxLon = Math.max(maxLon, lon[i]);
+        }
+
+        int cote = 1 << ORDRE_HILBERT;
+        double etendue = Math.max(Math.max(maxLat - minLat, maxLon - minLon), 1e-12);
+        long[] cle = new long[n];
+        Integer[] noeuds = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            int x = (int) Math.min(cote - 1, (lon[i] - minLon) / etendue * cote);
+            int y = (int) Math.min(cote - 1, (lat[i] - minLat) / etendue * cote);
+            cle[i] = distanceHilbert(cote, x, y);
+            noeuds[i] = i;
+        }
+        Arrays.sort(noeuds, Comparator.comparingLong((Integer i) -> cle[i]).thenComparingInt(i -> i));
+
+        // Départ en tête, puis la courbe à partir de la position du départ (tournée circulaire)
+        int debut = 0;
+        while (noeuds[debut] != start) debut++;
+        boolean[] vu = new boolean[n];
+        List<List<Integer>> enAttente = new ArrayList<>(n);   // pickup -> livraisons rencontrées avant lui
+        for (int i = 0; i < n; i++) enAttente.add(null);
+        int[] t = new int[n];
+        int pos = 0;
+        t[pos++] = start;
+        vu[start] = true;
+        Deque<Integer> aPlacer = new ArrayDeque<>();
+        for (int k = 1; k < n; k++) {
+            int v = noeuds[(debut + k) % n];
+            if (pickup[v] >= 0 && !vu[pickup[v]]) {
+                if (enAttente.get(pickup[v]) == null) enAttente.set(pickup[v], new ArrayList<>());
+                enAttente.get(pickup[v]).add(v);
+                continue;
+            }
+            aPlacer.push(v);
+            while (!aPlacer.isEmpty()) {
+                int u = aPlacer.pop();
+                t[pos++] = u;
+                vu[u] = true;
+                if (enAttente.get(u) != null) for (int d : enAttente.get(u)) aPlacer.push(d);
+            }
+        }
+        return t;
+    }
+
+    /** Indice (x, y) -> distance le long de la courbe de Hilbert d'une grille cote x cote. */
+    private static long distanceHilbert(int cote, int x, int y) {
+        long d = 0;
+        for (int s = cote / 2; s > 0; s /= 2) {
+            int rx = (x & s) > 0 ? 1 : 0;
+            int ry = (y & s) > 0 ? 1 : 0;
+            d += (long) s * s * ((3 * rx) ^ ry);
+            if (ry == 0) {
+                if (rx == 1) {
+                    x = s - 1 - x;
+                    y = s - 1 - y;
+                }
+                int tmp = x;
+                x = y;
+                y = tmp;
+            }
+        }
+        return d;
+    }
+}
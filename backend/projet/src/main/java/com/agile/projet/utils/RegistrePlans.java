@@ -0,0 +1,153 @@
+package com.agile.projet.utils;
+
+import com.agile.projet.model.Plan;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Plans prêts à l'emploi (graphe CSR, hiérarchie CH, repères ALT construits), indexés par SHA-256 du XML.
+ * - Une requête sur un plan inchangé ne reparse rien et ne reconstruit aucune structure.
+ * - Eviction LRU au-delà de la capacité, sauf pour les plans épinglés (préchargés au démarrage), qui restent
+ *   en mémoire et ne comptent pas dans la capacité.
+ * - Lecteurs concurrents : un seul chargement par contenu, les autres appelants attendent son résultat ;
+ *   des plans différents se chargent en parallèle.
+ * Les Plan rendus sont partagés entre requêtes : ils ne doivent plus être modifiés.
+ */
+public final class RegistrePlans {
+
+    public static final int CAPACITE_DEFAUT = 8;
+
+    private static final RegistrePlans GLOBAL = new RegistrePlans(CAPACITE_DEFAUT);
+
+    private int capacite;
+    private final LinkedHashMap<String, CompletableFuture<Plan>> plans;
+    private final Set<String> epingles = new HashSet<>();
+    private long nbChargements;
+
+    public RegistrePlans(int capacite) {
+        if (capacite <= 0) throw new IllegalArgumentException("Capacité > 0 requise");
+        this.capacite = capacite;
+        this.plans = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompletableFuture<Plan>> eldest) {
+                evincer();
+                return false;
+            }
+        };
+    }
+
+    /** Registre partagé par l'application. */
+    public static RegistrePlans global() {
+        return GLOBAL;
+    }
+
+    /** Plan de la ressource XML (classpath), chargé et prétraité au premier appel pour ce contenu. */
+    public Plan obtenir(String ressourceXml) throws IOException {
+        return obtenir(ressourceXml, false);
+    }
+
+    /** Comme obtenir, et le plan n'est plus jamais évincé (préchargement au démarrage). */
+    public Plan obtenirEpingle(String ressourceXml) throws IOException {
+        return obtenir(ressourceXml, true);
+    }
+
+    /**
+     * Plan d'un XML reçu (envoi client), indexé par son contenu comme les ressources : deux envois de même nom
+     * mais de contenus différents donnent deux plans distincts, deux envois identiques le même plan.
+     */
+    public Plan obtenir(byte[] xml) throws IOException {
+        return obtenir(null, xml, false);
+    }
+
+    private Plan obtenir(String ressourceXml, boolean epingler) throws IOException {
+        return obtenir(ressourceXml, InstantanePlan.lireRessource(ressourceXml), epingler);
+    }
+
+    /** @param ressourceXml ressource classpath du XML, null pour un contenu reçu */
+    private Plan obtenir(String ressourceXml, byte[] xml, boolean epingler) throws IOException {
+        byte[] empreinte = InstantanePlan.empreinte(xml);
+        String cle = HexFormat.of().formatHex(empreinte);
+
+        CompletableFuture<Plan> futur;
+        boolean charge = false;
+        synchronized (this) {
+            if (epingler) epingles.add(cle);
+            futur = plans.get(cle);
+            if (futur == null) {
+                futur = new CompletableFuture<>();
+                plans.put(cle, futur);
+                nbChargements++;
+                charge = true;
+            }
+        }
+
+        if (charge) {
+            try {
+                futur.complete(preparer(ressourceXml, xml, empreinte));
+            } catch (Throwable t) {
+                // Toute erreur (OutOfMemoryError comprise) libère les appelants en attente et l'entrée du cache
+                synchronized (this) {
+                    if (plans.remove(cle, futur)) epingles.remove(cle);
+                }
+                futur.completeExceptionally(t);
+                throw t;
+            }
+        }
+
+        try {
+            return futur.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            if (e.getCause() instanceof Error err) throw err;
+            throw e;
+        }
+    }
+
+    /** Graphe, hiérarchie et repères relus de l'instantané, ou construits puis enregistrés au premier chargement. */
+    private static Plan preparer(String ressourceXml, byte[] xml, byte[] empreinte) throws IOException {
+        if (ressourceXml == null) return InstantanePlan.chargerContenu(xml);
+        return InstantanePlan.charger(ressourceXml, xml, empreinte);
+    }
+
+    public synchronized int getCapacite() {
+        return capacite;
+    }
+
+    /** Capacité ajustable (plans non épinglés) ; une réduction évince les plus anciens. */
+    public synchronized void setCapacite(int capacite) {
+        if (capacite <= 0) throw new IllegalArgumentException("Capacité > 0 requise");
+        this.capacite = capacite;
+        evincer();
+    }
+
+    /** Evince les moins récemment utilisés parmi les plans non épinglés jusqu'à revenir à la capacité. */
+    private void evincer() {
+        Iterator<String> it = plans.keySet().iterator();
+        while (plans.size() - epingles.size() > capacite && it.hasNext()) {
+            if (!epingles.contains(it.next())) it.remove();
+        }
+    }
+
+    public synchronized int taille() {
+        return plans.size();
+    }
+
+    /** Nombre de chargements effectifs (parse ou instantané + prétraitements) depuis la création. */
+    public synchronized long getNbChargements() {
+        return nbChargements;
+    }
+
+    public synchronized void vider() {
+        plans.clear();
+        epingles.clear();
+    }
+}
@@ -0,0 +1,133 @@
+package com.agile.projet.utils;
+
+import com.agile.projet.model.GrapheRoutier;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Repères (landmarks) pour l'heuristique ALT, choisis une fois par Plan.
+ * - Sélection "point le plus éloigné" : chaque nouveau repère maximise sa distance au plus proche des repères déjà choisis.
+ * - Pour chaque repère L : depuis[L][v] = d(L, v) et vers[L][v] = d(v, L) (graphe orienté, +∞ si inatteignable).
+ */
+public final class Reperes {
+
+    public static final int NB_REPERES_DEFAUT = 8;
+
+    private final int[] reperes;
+    private final double[][] depuis;
+    private final double[][] vers;
+
+    private Reperes(int[] reperes, double[][] depuis, double[][] vers) {
+        this.reperes = reperes;
+        this.depuis = depuis;
+        this.vers = vers;
+    }
+
+    public static Reperes choisir(GrapheRoutier graphe, int nbReperes) {
+        int n = graphe.getNbNoeuds();
+        int k = Math.min(nbReperes, n);
+        DijkstraMultiCibles avant = new DijkstraMultiCibles(graphe);
+        DijkstraMultiCibles arriere = new DijkstraMultiCibles(graphe.inverse());
+
+        int[] reperes = new int[k];
+        double[][] depuis = new double[k][];
+        double[][] vers = new double[k][];
+
+        // Distance (aller + retour) de chaque noeud au repère le plus proche
+        double[] plusProche = new double[n];
+        Arrays.fill(plusProche, Double.POSITIVE_INFINITY);
+
+        // Premier repère : le plus éloigné du premier noeud ayant un arc sortant (un coin du plan plutôt que son centre)
+        int depart = 0;
+        while (depart < n && graphe.debutArcs(depart) == graphe.finArcs(depart)) depart++;
+        int courant = depart == n ? -1 : plusLoin(avant.toutesDistances(depart), null);
+        for (int r = 0; r < k && courant >= 0; r++) {
+            reperes[r] = courant;
+            depuis[r] = avant.toutesDistances(courant);
+            vers[r] = arriere.toutesDistances(courant);
+            for (int v = 0; v < n; v++) {
+                plusProche[v] = Math.min(plusProche[v], fini(depuis[r][v]) + fini(vers[r][v]));
+            }
+            courant = plusLoin(plusProche, depuis[r]);
+        }
+        return new Reperes(reperes, depuis, vers);
+    }
+
+    /** Indice du maximum fini (en ignorant les noeuds inatteignables depuis le dernier repère). */
+    private static int plusLoin(double[] valeurs, double[] atteignables) {
+        int best = -1;
+        double max = -1.0;
+        for (int v = 0; v < valeurs.length; v++) {
+            if (Double.isInfinite(valeurs[v])) continue;
+            if (atteignables != null && Double.isInfinite(atteignables[v])) continue;
+            if (valeurs[v] > max) {
+                max = valeurs[v];
+                best = v;
+            }
+        }
+        return best;
+    }
+
+    private static double fini(double d) {
+        return Double.isInfinite(d) ? 0.0 : d;
+    }
+
+    /**
+     * Borne inférieure de d(v, t) par inégalité triangulaire :
+     * max_L max( d(L,t) - d(L,v), d(v,L) - d(t,L) ), termes infinis ignorés.
+     */
+    public double borneInferieure(int v, int t) {
+        double h = 0.0;
+        for (int r = 0; r < depuis.length; r++) {
+            double[] dl = depuis[r];
+            double[] vl = vers[r];
+            if (dl == null) break;
+            double a = dl[t] - dl[v];
+            if (!Double.isNaN(a) && !Double.isInfinite(a) && a > h) h = a;
+            double b = vl[v] - vl[t];
+            if (!Double.isNaN(b) && !Double.isInfinite(b) && b > h) h = b;
+        }
+        return h;
+    }
+
+    public int getNbReperes() {
+        int k = 0;
+        while (k < depuis.length && depuis[k] != null) k++;
+        return k;
+    }
+
+    public int getRepere(int r) { return reperes[r]; }
+
+    // ==================== Instantané (InstantanePlan) ====================
+
+    /** Taille en octets de la section écrite par ecrire (n = nombre de noeuds du graphe). */
+    long tailleOctets(int n) {
+        int k = getNbReperes();
+        return 4L + 4L * k + 16L * k * n;
+    }
+
+    /** Ecrit les repères effectivement choisis et leurs distances (depuis puis vers, par repère). */
+    void ecrire(ByteBuffer buf) {
+        int k = getNbReperes();
+        buf.putInt(k);
+        for (int r = 0; r < k; r++) buf.putInt(reperes[r]);
+        for (int r = 0; r < k; r++) {
+            InstantanePlan.ecrireDoubles(buf, depuis[r]);
+            InstantanePlan.ecrireDoubles(buf, vers[r]);
+        }
+    }
+
+    /** Relit une section écrite par ecrire, sans refaire les Dijkstra. */
+    static Reperes lire(ByteBuffer buf, int n) {
+        int k = buf.getInt();
+        int[] reperes = InstantanePlan.lireInts(buf, k);
+        double[][] depuis = new double[k][];
+        double[][] vers = new double[k][];
+        for (int r = 0; r < k; r++) {
+            depuis[r] = InstantanePlan.lireDoubles(buf, n);
+            vers[r] = InstantanePlan.lireDoubles(buf, n);
+        }
+        return new Reperes(reperes, depuis, vers);
+    }
+}
@@ -0,0 +1,74 @@
+package com.agile.projet.utils;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * API commune des solveurs TSP exacts sur matrice de coûts (indices 0..n-1, mapping via vertexOrder).
+ * Permet aux solveurs multi-livreurs de choisir le solveur selon la taille du sous-problème.
+ * Les solveurs sont "anytime" : voir setEcheance.
+ */
+public interface SolveurTSP {
+
+    void solveFromId(long startId);
+
+    void solveFromIndex(int startIndex);
+
+    double getBestCost();
+
+    List<Integer> getBestPathIndices();
+
+    List<Long> getBestPathIds();
+
+    /**
+     * Limite de temps / annulation du prochain solve. Une fois atteinte, le solveur rend sa meilleure
+     * tournée connue (ou une tournée gloutonne) et isOptimaliteProuvee() vaut false.
+     */
+    SolveurTSP setEcheance(Echeance echeance);
+
+    /** false si le dernier solve a été interrompu par l'échéance avant d'avoir prouvé l'optimalité. */
+    boolean isOptimaliteProuvee();
+
+    /**
+     * Observateur des améliorations pendant le solve (null pour aucun). Sans effet par défaut :
+     * seuls les solveurs qui font progresser une solution courante (Branch & Bound) notifient.
+     */
+    default SolveurTSP setObservateur(ObservateurTSP observateur) {
+        return this;
+    }
+
+    /**
+     * Pool fork/join sur lequel le solveur peut paralléliser sa recherche (null : séquentiel sur le thread
+     * appelant). Sans effet par défaut : seul le Branch & Bound se parallélise.
+     */
+    default SolveurTSP setPool(ForkJoinPool pool) {
+        return this;
+    }
+
+    /**
+     * Solveur adapté à la taille : Held-Karp (programmation dynamique) jusqu'à
+     * CalculTSPHeldKarp.MAX_NOEUDS noeuds, Branch & Bound (borne 1-tree, parallèle si setPool) jusqu'à
+     * CalculTSP.MAX_NOEUDS, heuristique d'insertion + recherche locale au-delà.
+     * Held-Karp se replie lui-même sur le Branch & Bound quand le budget mémoire commun des DP est épuisé.
+     */
+    static SolveurTSP pour(double[][] costMatrix, List<Long> vertexOrder, int[] pickupOfDelivery) {
+        if (costMatrix.length <= CalculTSPHeldKarp.MAX_NOEUDS) {
+            return new CalculTSPHeldKarp(costMatrix, vertexOrder, pickupOfDelivery);
+        }
+        if (costMatrix.length > CalculTSP.MAX_NOEUDS) {
+            return new HeuristiqueInsertion(costMatrix, vertexOrder, pickupOfDelivery);
+        }
+        return new CalculTSP(costMatrix, vertexOrder, pickupOfDelivery).setBorne(CalculTSP.Borne.UN_ARBRE);
+    }
+
+    /** Sans contrainte pickup -> delivery. */
+    static SolveurTSP pour(double[][] costMatrix, List<Long> vertexOrder) {
+        if (costMatrix.length <= CalculTSPHeldKarp.MAX_NOEUDS) {
+            return new CalculTSPHeldKarp(costMatrix, vertexOrder);
+        }
+        if (costMatrix.length > CalculTSP.MAX_NOEUDS) {
+            return new HeuristiqueInsertion(costMatrix, vertexOrder);
+        }
+        return new CalculTSP(costMatrix, vertexOrder).setBorne(CalculTSP.Borne.UN_ARBRE);
+    }
+}
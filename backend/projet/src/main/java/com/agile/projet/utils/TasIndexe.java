@@ -0,0 +1,95 @@
+package com.agile.projet.utils;
+
+import java.util.Arrays;
+
+/**
+ * Tas binaire min indexé sur des entiers 0..capacite-1, clés double.
+ * - Decrease-key en O(log n) via la table des positions (pas d'entrées obsolètes).
+ * - Aucune allocation après construction : réutilisable d'une recherche à l'autre via clear().
+ */
+final class TasIndexe {
+
+    private final int[] tas;        // position -> élément
+    private final int[] position;   // élément -> position (-1 si absent)
+    private final double[] cle;     // élément -> clé
+    private int taille;
+
+    TasIndexe(int capacite) {
+        this.tas = new int[capacite];
+        this.position = new int[capacite];
+        this.cle = new double[capacite];
+        Arrays.fill(position, -1);
+    }
+
+    boolean isEmpty() { return taille == 0; }
+
+    boolean contient(int x) { return position[x] >= 0; }
+
+    double cleDe(int x) { return cle[x]; }
+
+    double cleMin() { return cle[tas[0]]; }
+
+    /** Insère x ou diminue sa clé si elle est meilleure. */
+    void inserOuDiminue(int x, double k) {
+        int p = position[x];
+        if (p < 0) {
+            cle[x] = k;
+            tas[taille] = x;
+            position[x] = taille;
+            monter(taille++);
+        } else if (k < cle[x]) {
+            cle[x] = k;
+            monter(p);
+        }
+    }
+
+    int extraireMin() {
+        int min = tas[0];
+        position[min] = -1;
+        taille--;
+        if (taille > 0) {
+            tas[0] = tas[taille];
+            position[tas[0]] = 0;
+            descendre(0);
+        }
+        return min;
+    }
+
+    void clear() {
+        for (int i = 0; i < taille; i++) position[tas[i]] = -1;
+        taille = 0;
+    }
+
+    private void monter(int p) {
+        int x = tas[p];
+        double k = cle[x];
+        while (p > 0) {
+            int parent = (p - 1) >>> 1;
+            int y = tas[parent];
+            if (cle[y] <= k) break;
+            tas[p] = y;
+            position[y] = p;
+            p = parent;
+        }
+        tas[p] = x;
+        position[x] = p;
+    }
+
+    private void descendre(int p) {
+        int x = tas[p];
+        double k = cle[x];
+        int moitie = taille >>> 1;
+        while (p < moitie) {
+            int enfant = 2 * p + 1;
+            int droite = enfant + 1;
+            if (droite < taille && cle[tas[droite]] < cle[tas[enfant]]) enfant = droite;
+            int y = tas[enfant];
+            if (k <= cle[y]) break;
+            tas[p] = y;
+            position[y] = p;
+            p = enfant;
+        }
+        tas[p] = x;
+        position[x] = p;
+    }
+}
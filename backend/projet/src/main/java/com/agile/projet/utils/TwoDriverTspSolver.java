@@ -11,7 +11,7 @@ import java.util.*;
  * Calcule une répartition sur 2 livreurs à partir de la matrice de coûts et du modèle Pickup&Delivery.
  *
  * Idée :
- *  1. TSP global sur toutes les demandes (1 livreur).
+ *  1. Tournée globale sur toutes les demandes (1 livreur, OrdreGlobal).
  *  2. On ordonne les demandes dans l'ordre de cette tournée.
  *  3. On prend un préfixe de demandes pour le driver 1 (pickup+delivery ensemble),
  *     on calcule un TSP juste sur ce sous-ensemble et on vérifie son temps.
@@ -63,6 +63,7 @@ public class TwoDriverTspSolver {
         }
 
         double[][] globalCost = model.getMatriceCout().getCostMatrix();
+        CacheSousTSP cache = model.getMatriceCout().getCacheSousTsp();
         List<Long> globalVertexOrder = model.getVertexOrder();
         DemandeDelivery demande = model.getDemandeDelivery();
         if (demande == null || demande.getDeliveries().isEmpty()) {
@@ -77,7 +78,7 @@ public class TwoDriverTspSolver {
         long depotId = entrepot.getAdresse();
 
         // 1) Tournée globale (un seul livreur) pour obtenir un ordre "pseudo-optimisé"
-        CalculTSP globalTsp = new CalculTSP(globalCost, globalVertexOrder);
+        SolveurTSP globalTsp = OrdreGlobal.pour(model, null);
         globalTsp.solveFromId(depotId);
         List<Long> globalRouteIds = globalTsp.getBestPathIds();
 
@@ -106,7 +107,7 @@ public class TwoDriverTspSolver {
                 List<Long> path2 = List.of();
                 double t2 = 0.0;
                 if (sub2.vertexOrder.size() > 1) {
-                    CalculTSP tsp2 = new CalculTSP(sub2.costMatrix, sub2.vertexOrder);
+                    SolveurTSP tsp2 = cache.solveur(sub2.costMatrix, sub2.vertexOrder, null);
                     tsp2.solveFromId(depotId);
                     path2 = tsp2.getBestPathIds();
                     t2 = computeTourDurationSeconds(tsp2, sub2.costMatrix, sub2.vertexOrder,
@@ -118,7 +119,7 @@ public class TwoDriverTspSolver {
             }
 
             // TSP pour le driver 1
-            CalculTSP tsp1 = new CalculTSP(sub1.costMatrix, sub1.vertexOrder);
+            SolveurTSP tsp1 = cache.solveur(sub1.costMatrix, sub1.vertexOrder, null);
             tsp1.solveFromId(depotId);
             List<Long> path1 = tsp1.getBestPathIds();
             if (path1.isEmpty()) {
@@ -134,7 +135,7 @@ public class TwoDriverTspSolver {
                 double duration2 = 0.0;
 
                 if (sub2.vertexOrder.size() > 1) {
-                    CalculTSP tsp2 = new CalculTSP(sub2.costMatrix, sub2.vertexOrder);
+                    SolveurTSP tsp2 = cache.solveur(sub2.costMatrix, sub2.vertexOrder, null);
                     tsp2.solveFromId(depotId);
                     path2 = tsp2.getBestPathIds();
                     duration2 = computeTourDurationSeconds(tsp2, sub2.costMatrix, sub2.vertexOrder,
@@ -149,7 +150,7 @@ public class TwoDriverTspSolver {
         if (best == null) {
             // Cas simple : on met toutes les demandes sur le driver 2
             SubTspData sub2 = buildSubProblem(globalCost, globalVertexOrder, depotId, deliveriesOrdered);
-            CalculTSP tsp2 = new CalculTSP(sub2.costMatrix, sub2.vertexOrder);
+            SolveurTSP tsp2 = cache.solveur(sub2.costMatrix, sub2.vertexOrder, null);
             tsp2.solveFromId(depotId);
             List<Long> path2 = tsp2.getBestPathIds();
             double t2 = computeTourDurationSeconds(tsp2, sub2.costMatrix, sub2.vertexOrder,
@@ -173,6 +174,7 @@ public class TwoDriverTspSolver {
         }
 
         double[][] globalCost = model.getMatriceCout().getCostMatrix();
+        CacheSousTSP cache = model.getMatriceCout().getCacheSousTsp();
         List<Long> globalVertexOrder = model.getVertexOrder();
         DemandeDelivery demande = model.getDemandeDelivery();
         if (demande == null || demande.getDeliveries().isEmpty()) {
@@ -189,7 +191,7 @@ public class TwoDriverTspSolver {
         // 1) Tournée globale (un seul livreur) pour obtenir un ordre "pseudo-optimisé"
 
 
-        CalculTSP globalTsp = new CalculTSP(globalCost, globalVertexOrder);
+        SolveurTSP globalTsp = OrdreGlobal.pour(model, null);
         globalTsp.solveFromId(depotId);
         List<Long> globalRouteIds = globalTsp.getBestPathIds();
 
@@ -223,7 +225,7 @@ public class TwoDriverTspSolver {
                             model.getVertexOrder(),
                             sub2.vertexOrder
                     );
-                    CalculTSP tsp2 = new CalculTSP(sub2.costMatrix, sub2.vertexOrder,subPickup2);
+                    SolveurTSP tsp2 = cache.solveur(sub2.costMatrix, sub2.vertexOrder, subPickup2);
                     tsp2.solveFromId(depotId);
                     path2 = tsp2.getBestPathIds();
                     t2 = computeTourDurationSeconds(tsp2, sub2.costMatrix, sub2.vertexOrder,
@@ -240,7 +242,7 @@ public class TwoDriverTspSolver {
                     model.getVertexOrder(),
                     sub1.vertexOrder
             );
-            CalculTSP tsp1 = new CalculTSP(sub1.costMatrix, sub1.vertexOrder,subPickup);
+            SolveurTSP tsp1 = cache.solveur(sub1.costMatrix, sub1.vertexOrder, subPickup);
             tsp1.solveFromId(depotId);
             List<Long> path1 = tsp1.getBestPathIds();
             if (path1.isEmpty()) {
@@ -261,7 +263,7 @@ public class TwoDriverTspSolver {
                             model.getVertexOrder(),
                             sub2.vertexOrder
                     );
-                    CalculTSP tsp2 = new CalculTSP(sub2.costMatrix, sub2.vertexOrder,subPickup2);
+                    SolveurTSP tsp2 = cache.solveur(sub2.costMatrix, sub2.vertexOrder, subPickup2);
                     tsp2.solveFromId(depotId);
                     path2 = tsp2.getBestPathIds();
                     duration2 = computeTourDurationSeconds(tsp2, sub2.costMatrix, sub2.vertexOrder,
@@ -281,7 +283,7 @@ public class TwoDriverTspSolver {
                     model.getVertexOrder(),
                     sub2.vertexOrder
             );
-            CalculTSP tsp2 = new CalculTSP(sub2.costMatrix, sub2.vertexOrder,subPickup2);
+            SolveurTSP tsp2 = cache.solveur(sub2.costMatrix, sub2.vertexOrder, subPickup2);
             tsp2.solveFromId(depotId);
             List<Long> path2 = tsp2.getBestPathIds();
             double t2 = computeTourDurationSeconds(tsp2, sub2.costMatrix, sub2.vertexOrder,
@@ -405,7 +407,7 @@ public class TwoDriverTspSolver {
      * Calcule la durée d'une tournée TSP (cycle) en secondes :
      * somme(distance)/vitesse + somme(temps service sur chaque arrêt sauf le dépôt initial).
      */
-    private static double computeTourDurationSeconds(CalculTSP solver,
+    private static double computeTourDurationSeconds(SolveurTSP solver,
                                                      double[][] matrix,
                                                      List<Long> vertexOrder,
                                                      Map<Long, Long> serviceTimes,
@@ -5,17 +5,27 @@ import com.agile.projet.model.Delivery;
 import com.agile.projet.model.Entrepot;
 import org.w3c.dom.*;
 import javax.xml.parsers.*;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
 
 public class XmlDeliveryParser {
 
+    private static final XMLInputFactory FACTORY = creerFactory();
+
     public void parse(String xmlFilePath, DemandeDelivery demande) throws Exception {
         InputStream is = getClass().getClassLoader().getResourceAsStream(xmlFilePath);
         if (is == null) {
             throw new FileNotFoundException("plan.xml not found");
         }
+        parse(is, demande);
+    }
+
+    public void parse(InputStream is, DemandeDelivery demande) throws Exception {
         DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
         DocumentBuilder builder = factory.newDocumentBuilder();
         Document doc = builder.parse(is);
@@ -61,4 +71,28 @@ public class XmlDeliveryParser {
             }
         }
     }
+
+    /**
+     * Nombre d'éléments livraison de la demande, compté en flux (StAX) sans construire l'arbre ni les Delivery :
+     * sert à choisir le pool d'un job avant son exécution.
+     */
+    public static int compterLivraisons(InputStream is) throws XMLStreamException {
+        int nb = 0;
+        XMLStreamReader reader = FACTORY.createXMLStreamReader(is);
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT && "livraison".equals(reader.getLocalName())) nb++;
+            }
+        } finally {
+            reader.close();
+        }
+        return nb;
+    }
+
+    private static XMLInputFactory creerFactory() {
+        XMLInputFactory f = XMLInputFactory.newFactory();
+        f.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        f.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return f;
+    }
 }
@@ -1,77 +1,94 @@
-
 package com.agile.projet.utils;
 
-import javax.xml.parsers.DocumentBuilder;
-
-import javax.xml.parsers.DocumentBuilderFactory;
-
-
-import com.agile.projet.model.Noeud;
 import com.agile.projet.model.Plan;
-import com.agile.projet.model.Troncon;
-import org.springframework.stereotype.Component;
-import org.w3c.dom.*;
 
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Parseur de plan en flux (StAX) : une seule passe, mémoire bornée (pas d'arbre DOM).
+ * Les tronçons sont résolus directement vers les index du plan, sans créer de Noeud
+ * (Plan.joinNoeudTroncons n'a plus rien à faire). A partir du premier tronçon qui référence un noeud déclaré
+ * plus loin dans le fichier, les tronçons sont mis de côté jusqu'à la fin : l'ordre du fichier est conservé.
+ * Comme l'ancien parseur DOM, un nomRue absent donne "".
+ */
+public class XmlPlanParser {
 
+    private static final XMLInputFactory FACTORY = creerFactory();
 
-public class XmlPlanParser {
     public void parsePlan(String planXML, Plan plan) {
-        try {
-            /// open xml document
-            InputStream is = getClass().getClassLoader().getResourceAsStream(planXML);
+        try (InputStream is = getClass().getClassLoader().getResourceAsStream(planXML)) {
             if (is == null) {
                 throw new FileNotFoundException("plan.xml not found");
             }
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            Document doc = builder.parse(is);
-
-            doc.getDocumentElement().normalize();
-            /// open xml document
-
-            // ---------------------------
-            //        PARSER NOEUDS
-            // ---------------------------
-            NodeList noeuds = doc.getElementsByTagName("noeud");
-
-            for (int i = 0; i < noeuds.getLength(); i++) {
-                Element n = (Element) noeuds.item(i);
-
-
-                String id = n.getAttribute("id");
-                String lat = n.getAttribute("latitude");
-                String lon = n.getAttribute("longitude");
-
-                Noeud noeud = new Noeud(Long.parseLong(id),Double.parseDouble(lat),Double.parseDouble(lon));
-                plan.addNoeud(noeud);
-
-            }
-
-            // ---------------------------
-            //      PARSER TRONCONS
-            // ---------------------------
-            NodeList troncons = doc.getElementsByTagName("troncon");
-
-            for (int i = 0; i < troncons.getLength(); i++) {
-                Element t = (Element) troncons.item(i);
-
-                String origine = t.getAttribute("origine");
-                String destination = t.getAttribute("destination");
-                String longueur = t.getAttribute("longueur");
-                String nomRue = t.getAttribute("nomRue");
-                Troncon troncon = new Troncon(Long.parseLong(origine), Long.parseLong(destination), Double.parseDouble(longueur), nomRue);
-                plan.addTroncon(troncon);
-
+            parsePlan(is, plan);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
 
+    public void parsePlan(InputStream is, Plan plan) throws XMLStreamException {
+        Map<String, String> nomsRues = new HashMap<>();   // une seule instance par nom de rue
+        List<Object[]> enAttente = new ArrayList<>();      // {origine, destination, longueur, nomRue}
 
+        XMLStreamReader reader = FACTORY.createXMLStreamReader(is);
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT) continue;
+
+                switch (reader.getLocalName()) {
+                    // ---------------------------
+                    //        PARSER NOEUDS
+                    // ---------------------------
+                    case "noeud" -> plan.addNoeud(
+                            Long.parseLong(reader.getAttributeValue(null, "id")),
+                            Double.parseDouble(reader.getAttributeValue(null, "latitude")),
+                            Double.parseDouble(reader.getAttributeValue(null, "longitude"))
+                    );
+
+                    // ---------------------------
+                    //      PARSER TRONCONS
+                    // ---------------------------
+                    case "troncon" -> {
+                        long origine = Long.parseLong(reader.getAttributeValue(null, "origine"));
+                        long destination = Long.parseLong(reader.getAttributeValue(null, "destination"));
+                        double longueur = Double.parseDouble(reader.getAttributeValue(null, "longueur"));
+                        String nomRue = reader.getAttributeValue(null, "nomRue");
+                        nomRue = nomsRues.computeIfAbsent(nomRue != null ? nomRue : "", s -> s);
+
+                        if (enAttente.isEmpty() && plan.indexOf(origine) >= 0 && plan.indexOf(destination) >= 0) {
+                            plan.addTroncon(origine, destination, longueur, nomRue);
+                        } else {
+                            enAttente.add(new Object[]{origine, destination, longueur, nomRue});
+                        }
+                    }
+                    default -> { }
+                }
             }
+        } finally {
+            reader.close();
+        }
 
-        } catch (Exception e) {
-            e.printStackTrace();
+        // Résolus s'ils le peuvent maintenant ; noeud absent du plan : conservé non résolu, comme l'ancien parseur
+        for (Object[] t : enAttente) {
+            plan.addTroncon((Long) t[0], (Long) t[1], (Double) t[2], (String) t[3]);
         }
     }
-   
-}
 
+    private static XMLInputFactory creerFactory() {
+        XMLInputFactory f = XMLInputFactory.newFactory();
+        f.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        f.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        f.setProperty(XMLInputFactory.IS_COALESCING, false);
+        return f;
+    }
+}
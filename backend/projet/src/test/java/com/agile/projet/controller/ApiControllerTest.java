@@ -7,6 +7,7 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -19,6 +20,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(ApiController.class)
+@Import(PoolCalcul.class)
 class ApiControllerTest {
 
     @Autowired
@@ -94,6 +96,14 @@ class ApiControllerTest {
         Mockito.verify(controller, times(1)).createPlan("grandPlan.xml");
     }
 
+    @Test
+    @DisplayName("GET /load-plan/{planName} returns 400 when the plan cannot be loaded")
+    void loadPlan_missing_400() throws Exception {
+        Mockito.doThrow(new java.io.IOException("absent")).when(controller).createPlan("absent.xml");
+        mockMvc.perform(get("/load-plan/absent.xml"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @DisplayName("GET /plans/{filename} returns 200 or 404 from classpath")
     void getPlanFile_ok_or_404() throws Exception {
@@ -0,0 +1,97 @@
+package com.agile.projet.controller;
+
+import com.agile.projet.utils.CacheSousTSP;
+import com.agile.projet.utils.Echeance;
+import com.agile.projet.utils.OrdreGlobal;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContexteResolutionTest {
+
+    private static final String[][] REQUETES = {
+            {"moyenPlan.xml", "demandeMoyen5.xml"},
+            {"petitPlan.xml", "demandePetit1.xml"},
+            {"petitPlan.xml", "demandePetit2.xml"},
+            {"moyenPlan.xml", "demandeMoyen5.xml"},
+    };
+
+    @Test
+    @DisplayName("Contextes distincts : le plan est partagé, la demande et les matrices non")
+    void contextesIndependants() throws Exception {
+        ContexteResolution a = ContexteResolution.charger("petitPlan.xml", "demandePetit1.xml");
+        ContexteResolution b = ContexteResolution.charger("petitPlan.xml", "demandePetit2.xml");
+
+        assertSame(a.getPlan(), b.getPlan());
+        assertNotSame(a.getModel(), b.getModel());
+        assertNotSame(a.getModel().getMatriceCout(), b.getModel().getMatriceCout());
+        assertNotNull(a.getModel().getMatriceCout());
+        assertNotNull(a.getModel().getVertexOrder());
+    }
+
+    @Test
+    @DisplayName("Cache des sous-TSP porté par le plan : une requête répétée le réutilise")
+    void cacheSousTspPartage() throws Exception {
+        Controller controller = new Controller();
+        ContexteResolution a = ContexteResolution.charger("moyenPlan.xml", "demandeMoyen5.xml");
+        ContexteResolution b = ContexteResolution.charger("moyenPlan.xml", "demandeMoyen5.xml");
+        CacheSousTSP cache = a.getPlan().getCacheSousTsp();
+        assertSame(cache, a.getModel().getMatriceCout().getCacheSousTsp());
+        assertSame(cache, b.getModel().getMatriceCout().getCacheSousTsp());
+
+        Controller.Resolution premiere = controller.resoudre(a, 2, 4.0, 3600, Echeance.aucune());
+        long succes = cache.getNbSucces();
+        Controller.Resolution seconde = controller.resoudre(b, 2, 4.0, 3600, Echeance.aucune());
+
+        assertTrue(cache.getNbSucces() > succes);
+        assertEquals(premiere.chemins(), seconde.chemins());
+    }
+
+    @Test
+    @DisplayName("Stratégie d'ordre global du Controller (ordre.global.strategie) appliquée au contexte résolu")
+    void strategieOrdreGlobal() throws Exception {
+        assertEquals(OrdreGlobal.STRATEGIE_DEFAUT, new Controller().getStrategieOrdreGlobal());
+
+        Controller controller = new Controller(OrdreGlobal.Strategie.PLUS_PROCHE_VOISIN);
+        ContexteResolution contexte = ContexteResolution.charger("petitPlan.xml", "demandePetit2.xml");
+        Controller.Resolution resolution = controller.resoudre(contexte, 2, 4.0, 3600, Echeance.aucune());
+
+        assertEquals(OrdreGlobal.Strategie.PLUS_PROCHE_VOISIN, contexte.getModel().getStrategieOrdreGlobal());
+        assertFalse(resolution.chemins().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Résolutions concurrentes sur un même Controller : mêmes résultats qu'en séquentiel")
+    void resolutionsConcurrentes() throws Exception {
+        Controller controller = new Controller();
+
+        List<Controller.Resolution> attendues = new ArrayList<>();
+        for (String[] r : REQUETES) attendues.add(resoudre(controller, r));
+
+        ExecutorService pool = Executors.newFixedThreadPool(REQUETES.length);
+        try {
+            List<Future<Controller.Resolution>> obtenues = new ArrayList<>();
+            for (String[] r : REQUETES) obtenues.add(pool.submit(() -> resoudre(controller, r)));
+            for (int i = 0; i < REQUETES.length; i++) {
+                assertEquals(attendues.get(i).chemins(), obtenues.get(i).get().chemins(), "requête " + i);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // L'API historique n'a pas été touchée par ces résolutions
+        assertNull(controller.pickupDeliveryModel.plan);
+    }
+
+    private static Controller.Resolution resoudre(Controller controller, String[] requete) throws Exception {
+        ContexteResolution contexte = ContexteResolution.charger(requete[0], requete[1]);
+        return controller.resoudre(contexte, 2, 4.0, 3600, Echeance.aucune());
+    }
+}
@@ -54,6 +54,14 @@ public class ControllerTest {
         assertDoesNotThrow(() -> controller.createPlan("grandPlan.xml"));
     }
 
+    @Test
+    @DisplayName("createPlan rethrows when the plan cannot be loaded and leaves no plan")
+    void createPlan_missing_throws() {
+        assertThrows(java.io.IOException.class, () -> controller.createPlan("absent.xml"));
+        assertNull(controller.pickupDeliveryModel.plan);
+        assertNull(controller.getPlanCharge());
+    }
+
     @Test
     @DisplayName("createDeliveryFromXml loads deliveries without exceptions")
     void createDelivery_success() throws Exception {
@@ -61,6 +69,21 @@ public class ControllerTest {
         assertDoesNotThrow(() -> controller.createDeliveryFromXml("demandeGrand7.xml"));
     }
 
+    @Test
+    @DisplayName("loaded plan and delivery snapshots are not affected by in-place changes to the model")
+    void snapshots_notMutatedByModel() throws Exception {
+        assertNull(controller.getPlanCharge());
+        assertNull(controller.getDemandeChargee());
+        controller.createPlan("grandPlan.xml");
+        controller.createDeliveryFromXml("demandeGrand7.xml");
+
+        assertSame(controller.pickupDeliveryModel.plan, controller.getPlanCharge());
+        int nb = controller.getDemandeChargee().getDeliveries().size();
+        assertTrue(nb > 0);
+        controller.pickupDeliveryModel.demandeDelivery.getDeliveries().clear();
+        assertEquals(nb, controller.getDemandeChargee().getDeliveries().size());
+    }
+
     @Test
     @DisplayName("printMatriceChemins works after computeShortestPaths")
     void printMatriceChemins_afterCompute() throws Exception {
@@ -0,0 +1,118 @@
+package com.agile.projet.controller;
+
+import com.agile.projet.utils.Echeance;
+import com.agile.projet.utils.ObservateurSolution;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GestionnaireJobsTest {
+
+    private final PoolCalcul poolCalcul = new PoolCalcul(1, 1, 16);
+    private GestionnaireJobs gestionnaire;
+
+    @AfterEach
+    void arreter() {
+        if (gestionnaire != null) gestionnaire.arreter();
+        poolCalcul.arreter();
+    }
+
+    private static Job attendre(Job job) throws InterruptedException {
+        long fin = System.currentTimeMillis() + 60_000;
+        while (!job.estFini() && System.currentTimeMillis() < fin) Thread.sleep(10);
+        assertTrue(job.estFini(), "job non terminé à temps");
+        return job;
+    }
+
+    @Test
+    @DisplayName("Job soumis : terminé avec le même résultat qu'une résolution directe")
+    void jobTermine() throws Exception {
+        Controller controller = new Controller();
+        gestionnaire = new GestionnaireJobs(controller, poolCalcul, 1, 1, 4, 16);
+
+        Job job = gestionnaire.soumettre("plans/petitPlan.xml", "requests/demandePetit1.xml", 2, 4.0, 3600, 0);
+        assertSame(job, gestionnaire.obtenir(job.getId()));
+        attendre(job);
+
+        assertEquals(Job.Etat.TERMINE, job.getEtat());
+        Controller.Resolution attendue = controller.resoudre(
+                ContexteResolution.charger("plans/petitPlan.xml", "requests/demandePetit1.xml"),
+                2, 4.0, 3600, Echeance.aucune());
+        assertEquals(attendue.chemins(), job.getResultat().chemins());
+        assertEquals(1.0, job.vue().get("progress"));
+        assertEquals(1, job.getNbDeliveries());
+    }
+
+    @Test
+    @DisplayName("Error pendant le calcul : job en ECHEC et rappel de fin ; demande inconnue refusée")
+    void erreurDuCalcul() throws Exception {
+        Controller controller = new Controller() {
+            @Override
+            public Resolution resoudre(ContexteResolution contexte, int nbDrivers, double speed, double maxDurationSec,
+                                       Echeance echeance, ObservateurSolution observateur,
+                                       ForkJoinPool parallele) {
+                throw new StackOverflowError("simulée");
+            }
+        };
+        gestionnaire = new GestionnaireJobs(controller, poolCalcul, 1, 1, 4, 16);
+        CountDownLatch fin = new CountDownLatch(1);
+
+        Job job = gestionnaire.soumettre("plans/petitPlan.xml", "requests/demandePetit1.xml", 2, 4.0, 3600, 0,
+                null, j -> fin.countDown());
+        assertTrue(fin.await(60, TimeUnit.SECONDS), "rappel de fin non reçu");
+
+        assertEquals(Job.Etat.ECHEC, job.getEtat());
+        assertEquals("simulée", job.vue().get("error"));
+        assertThrows(IllegalArgumentException.class, () ->
+                gestionnaire.soumettre("plans/petitPlan.xml", "requests/inconnue.xml", 2, 4.0, 3600, 0));
+    }
+
+    @Test
+    @DisplayName("File pleine : RejectedExecutionException ; annulation d'un job en attente")
+    void filePleineEtAnnulation() throws Exception {
+        CountDownLatch bloque = new CountDownLatch(1);
+        // Controller dont la résolution reste bloquée : le seul thread "rapides" est occupé
+        Controller controller = new Controller() {
+            @Override
+            public Resolution resoudre(ContexteResolution contexte, int nbDrivers, double speed, double maxDurationSec,
+                                       Echeance echeance, ObservateurSolution observateur,
+                                       ForkJoinPool parallele) {
+                try {
+                    bloque.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.resoudre(contexte, nbDrivers, speed, maxDurationSec, echeance, observateur, parallele);
+            }
+        };
+        gestionnaire = new GestionnaireJobs(controller, poolCalcul, 1, 1, 1, 16);
+
+        Job enCours = gestionnaire.soumettre("plans/petitPlan.xml", "requests/demandePetit1.xml", 2, 4.0, 3600, 0);
+        long fin = System.currentTimeMillis() + 10_000;
+        while (enCours.getEtat() == Job.Etat.EN_ATTENTE && System.currentTimeMillis() < fin) Thread.sleep(5);
+        Job enAttente = gestionnaire.soumettre("plans/petitPlan.xml", "requests/demandePetit1.xml", 2, 4.0, 3600, 0);
+
+        assertThrows(RejectedExecutionException.class, () ->
+                gestionnaire.soumettre("plans/petitPlan.xml", "requests/demandePetit1.xml", 2, 4.0, 3600, 0));
+
+        // Annulé en file : libère la place, ne démarrera pas
+        assertSame(enAttente, gestionnaire.annuler(enAttente.getId()));
+        assertEquals(Job.Etat.ANNULE, enAttente.getEtat());
+        assertTrue(enAttente.estFini());
+        Job suivant = gestionnaire.soumettre("plans/petitPlan.xml", "requests/demandePetit1.xml", 2, 4.0, 3600, 0);
+
+        bloque.countDown();
+        attendre(enCours);
+        attendre(suivant);
+        assertEquals(Job.Etat.TERMINE, enCours.getEtat());
+        assertNull(enAttente.getResultat());
+        assertNull(gestionnaire.annuler("inconnu"));
+    }
+}
@@ -0,0 +1,100 @@
+package com.agile.projet.controller;
+
+import com.agile.projet.utils.Echeance;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PoolCalculTest {
+
+    private PoolCalcul pool;
+
+    @AfterEach
+    void arreter() {
+        if (pool != null) pool.arreter();
+    }
+
+    @Test
+    @DisplayName("executer : calcul sur un thread plateforme du pool, appelé depuis un thread virtuel")
+    void calculHorsThreadVirtuel() throws Exception {
+        pool = new PoolCalcul(2, 2, 16);
+        assertEquals(2, pool.getNbThreads());
+
+        Thread[] calcul = new Thread[1];
+        Thread requete = Thread.ofVirtual().start(() -> {
+            try {
+                calcul[0] = pool.executer(Thread::currentThread);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        requete.join();
+
+        assertNotNull(calcul[0]);
+        assertFalse(calcul[0].isVirtual());
+        assertTrue(calcul[0].getName().startsWith("calcul-"));
+    }
+
+    @Test
+    @DisplayName("executer : l'exception du calcul est relancée telle quelle ; 0 thread = un par cœur")
+    void exceptionPropagee() {
+        pool = new PoolCalcul(0, 0, 16);
+        assertEquals(Runtime.getRuntime().availableProcessors(), pool.getNbThreads());
+        assertEquals(Runtime.getRuntime().availableProcessors(), pool.getParallele().getParallelism());
+
+        IOException ex = assertThrows(IOException.class, () -> pool.executer(() -> {
+            throw new IOException("plan introuvable");
+        }));
+        assertEquals("plan introuvable", ex.getMessage());
+    }
+
+    @Test
+    @DisplayName("getParallele : ForkJoinPool propre au pool, workers calcul-fj-")
+    void poolParallele() throws Exception {
+        pool = new PoolCalcul(1, 3, 16);
+        assertEquals(3, pool.getParallele().getParallelism());
+        assertNotSame(ForkJoinPool.commonPool(), pool.getParallele());
+
+        Thread worker = pool.getParallele().submit(Thread::currentThread).get();
+        assertTrue(worker.getName().startsWith("calcul-fj-"));
+        assertFalse(worker.isVirtual());
+    }
+
+    @Test
+    @DisplayName("File pleine : RejectedExecutionException ; interruption de l'appelant : échéance annulée")
+    void filePleineEtInterruption() throws Exception {
+        pool = new PoolCalcul(1, 1, 1);
+        CountDownLatch demarre = new CountDownLatch(1);
+        Echeance echeance = Echeance.aucune();
+        // Calcul qui ne s'arrête que sur son échéance, comme les solveurs
+        Thread requete = Thread.ofVirtual().start(() -> {
+            try {
+                pool.executer(() -> {
+                    demarre.countDown();
+                    while (!echeance.estAtteinte()) Thread.onSpinWait();
+                    return null;
+                }, echeance);
+            } catch (Exception ignore) {
+                // interrompue
+            }
+        });
+        assertTrue(demarre.await(10, TimeUnit.SECONDS));
+
+        Future<Object> enFile = pool.soumettre(() -> null);
+        assertThrows(RejectedExecutionException.class, () -> pool.soumettre(() -> null));
+
+        requete.interrupt();
+        requete.join(10_000);
+        assertTrue(echeance.estAtteinte());
+        assertNull(enFile.get(10, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,74 @@
+package com.agile.projet.controller;
+
+import com.agile.projet.model.Plan;
+import com.agile.projet.utils.RegistrePlans;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class PrechargementPlansTest {
+
+    private final PoolCalcul pool = new PoolCalcul(2, 1, 16);
+
+    @AfterEach
+    void arreter() {
+        pool.arreter();
+    }
+
+    @Test
+    @DisplayName("demarrer : tous les plans du classpath prêts (graphe, CH, repères) et épinglés, sans rechargement ensuite")
+    void plansPrecharges() throws Exception {
+        RegistrePlans registre = new RegistrePlans(1);
+        PrechargementPlans prechargement = new PrechargementPlans(pool, registre, true);
+        assertFalse(prechargement.estPret());
+
+        List<String> ressources = PrechargementPlans.listerPlans();
+        assertTrue(ressources.containsAll(List.of("plans/petitPlan.xml", "plans/moyenPlan.xml", "plans/grandPlan.xml")));
+
+        Map<String, Future<Plan>> chargements = prechargement.demarrer();
+        for (Future<Plan> f : chargements.values()) {
+            Plan plan = f.get();
+            assertNotNull(plan.getGraphe());
+            assertNotNull(plan.getHierarchie());
+            assertNotNull(plan.getReperes());
+        }
+
+        assertTrue(prechargement.estPret());
+        assertEquals(1, registre.getCapacite(), "plans préchargés épinglés, hors capacité");
+        prechargement.getEtats().values().forEach(e -> assertEquals(PrechargementPlans.Etat.PRET, e.etat()));
+
+        long chargements0 = registre.getNbChargements();
+        assertSame(chargements.get("plans/petitPlan.xml").get(), registre.obtenir("plans/petitPlan.xml"));
+        assertEquals(chargements0, registre.getNbChargements());
+    }
+
+    @Test
+    @DisplayName("GET /health/plans : 503 avant le préchargement, 200 UP une fois les plans prêts")
+    void santePlans() throws Exception {
+        PrechargementPlans prechargement = new PrechargementPlans(pool, new RegistrePlans(8), true);
+        HealthController health = new HealthController();
+        health.prechargementPlans = prechargement;
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(health).build();
+
+        mockMvc.perform(get("/health/plans")).andExpect(status().isServiceUnavailable());
+
+        for (Future<Plan> f : prechargement.demarrer().values()) f.get();
+
+        mockMvc.perform(get("/health/plans"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status", is("UP")))
+                .andExpect(jsonPath("$.plans['plans/petitPlan.xml'].status", is("PRET")));
+    }
+}
@@ -0,0 +1,63 @@
+package com.agile.projet.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class StreamControllerTest {
+
+    private final PoolCalcul poolCalcul = new PoolCalcul(1, 1, 16);
+    private GestionnaireJobs gestionnaire;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        gestionnaire = new GestionnaireJobs(new Controller(), poolCalcul, 1, 1, 4, 16);
+        StreamController streamController = new StreamController();
+        streamController.gestionnaireJobs = gestionnaire;
+        mockMvc = MockMvcBuilders.standaloneSetup(streamController).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        gestionnaire.arreter();
+        poolCalcul.arreter();
+    }
+
+    @Test
+    @DisplayName("GET /get-tsp/stream : événement job, une tournée par livreur, puis le résultat")
+    void streamEvenements() throws Exception {
+        MvcResult resultat = mockMvc.perform(get("/get-tsp/stream")
+                        .param("planName", "petitPlan.xml")
+                        .param("requestName", "demandePetit1.xml"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        resultat.getAsyncResult(60_000);
+
+        String corps = resultat.getResponse().getContentAsString();
+        int job = corps.indexOf("event:job");
+        int driver = corps.indexOf("event:driver");
+        int fin = corps.indexOf("event:result");
+        assertTrue(job >= 0 && driver > job && fin > driver, corps);
+        assertTrue(corps.contains("\"status\":\"TERMINE\""), corps);
+        assertTrue(corps.contains("elapsedMs"));
+    }
+
+    @Test
+    @DisplayName("GET /get-tsp/stream : demande inconnue -> 400")
+    void streamDemandeInconnue() throws Exception {
+        mockMvc.perform(get("/get-tsp/stream")
+                        .param("planName", "petitPlan.xml")
+                        .param("requestName", "inexistante.xml"))
+                .andExpect(status().isBadRequest());
+    }
+}
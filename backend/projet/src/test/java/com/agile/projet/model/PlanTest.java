@@ -0,0 +1,88 @@
+package com.agile.projet.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Plan Tests")
+class PlanTest {
+
+    @Test
+    @DisplayName("addNoeud/getNoeud: index dense sans boxing, Noeud créé à la demande puis réutilisé")
+    void testStockagePrimitif() {
+        Plan plan = new Plan();
+        Random rnd = new Random(1);
+        long[] ids = new long[5000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = rnd.nextLong() >>> 1;
+            if (i % 7 == 0) ids[i] = -ids[i];
+            assertEquals(i, plan.addNoeud(ids[i], i * 1e-3, -i * 1e-3));
+        }
+
+        assertEquals(ids.length, plan.getNbNoeuds());
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals(i, plan.indexOf(ids[i]));
+            Noeud n = plan.getNoeud(ids[i]);
+            assertEquals(ids[i], n.getId());
+            assertEquals(i * 1e-3, n.getLatitude());
+            assertSame(n, plan.getNoeud(ids[i]));
+        }
+        assertNull(plan.getNoeud(42L));
+        assertNull(plan.getNoeudById(null));
+        assertEquals(-1, plan.indexOf(Long.MIN_VALUE));
+    }
+
+    @Test
+    @DisplayName("addNoeud: un id déjà présent garde son index et prend les nouvelles coordonnées")
+    void testRemplacement() {
+        Plan plan = new Plan();
+        plan.addNoeud(new Noeud(10L, 45.0, 4.0));
+        Noeud avant = plan.getNoeud(10L);
+        assertEquals(0, plan.addNoeud(10L, 46.0, 5.0));
+
+        assertEquals(1, plan.getNbNoeuds());
+        assertNotSame(avant, plan.getNoeud(10L));
+        assertEquals(46.0, plan.getNoeud(10L).getLatitude());
+        assertEquals(1, plan.getAllNoeuds().size());
+    }
+
+    @Test
+    @DisplayName("addTroncon/construireGraphe: tronçons en index du plan, graphe indexé par le plan")
+    void testTronconsEtGrapheParIndex() {
+        Plan plan = new Plan();
+        plan.addNoeud(10L, 45.0, 4.0);
+        plan.addNoeud(20L, 45.1, 4.1);
+        plan.addNoeud(30L, 45.2, 4.2);
+        plan.addTroncon(20L, 30L, 5.0, "Rue B");
+        plan.addTroncon(10L, 20L, 2.5, "Rue A");
+        plan.addTroncon(30L, 99L, 1.0, "Rue C");     // noeud absent : non résolu
+
+        assertEquals(3, plan.getTroncons().size());
+        assertEquals(2, plan.getVraiTroncons().size());
+        Troncon t = plan.getVraiTroncons().get(1);
+        assertTrue(t.estResolu());
+        assertEquals(0, t.getIndexOrigine());
+        assertEquals(1, t.getIndexDestination());
+        assertEquals(10L, t.getOrigine());
+        assertSame(plan.getNoeud(10L), t.getOrigineNoeud());
+        Troncon nonResolu = plan.getTroncons().get(2);
+        assertFalse(nonResolu.estResolu());
+        assertEquals(99L, nonResolu.getDestination());
+        assertNull(nonResolu.getDestinationNoeud());
+
+        plan.construireGraphe();
+        GrapheRoutier g = plan.getGraphe();
+        assertEquals(3, g.getNbNoeuds());
+        assertEquals(2, g.getNbArcs());
+        for (long id : new long[]{10L, 20L, 30L}) assertEquals(plan.indexOf(id), g.indexOf(id));
+        assertEquals(-1, g.indexOf(99L));
+        assertSame(plan.getNoeud(20L), g.getNoeud(1));
+        int u = g.indexOf(10L);
+        assertEquals(1, g.finArcs(u) - g.debutArcs(u));
+        assertEquals(g.indexOf(20L), g.cible(g.debutArcs(u)));
+        assertEquals(2.5, g.longueur(g.debutArcs(u)));
+    }
+}
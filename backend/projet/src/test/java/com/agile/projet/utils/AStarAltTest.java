@@ -0,0 +1,69 @@
+package com.agile.projet.utils;
+
+import com.agile.projet.model.GrapheRoutier;
+import com.agile.projet.model.Noeud;
+import com.agile.projet.model.Plan;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("AStarAlt Tests")
+class AStarAltTest {
+
+    private Plan plan;
+
+    @BeforeEach
+    void setUp() {
+        plan = new Plan();
+        new XmlPlanParser().parsePlan("grandPlan.xml", plan);
+        plan.construireGraphe();
+        plan.construireReperes();
+    }
+
+    @Test
+    @DisplayName("chemin: mêmes distances que Dijkstra, beaucoup moins de noeuds fixés")
+    void testAltExactEtPlusSelectif() {
+        GrapheRoutier g = plan.getGraphe();
+        AStarAlt alt = new AStarAlt(g, plan.getReperes());
+        AStarAlt dijkstra = new AStarAlt(g, null);
+
+        Random rnd = new Random(7);
+        long fixesAlt = 0, fixesDijkstra = 0;
+        for (int k = 0; k < 50; k++) {
+            int s = rnd.nextInt(g.getNbNoeuds());
+            int t = rnd.nextInt(g.getNbNoeuds());
+
+            int[] c1 = alt.chemin(s, t);
+            fixesAlt += alt.getNbFixes();
+            int[] c2 = dijkstra.chemin(s, t);
+            fixesDijkstra += dijkstra.getNbFixes();
+
+            assertEquals(c2 == null, c1 == null);
+            assertEquals(dijkstra.getDistance(), alt.getDistance(), 1e-6);
+        }
+        assertTrue(fixesAlt * 3 < fixesDijkstra,
+                "ALT devrait fixer bien moins de noeuds : " + fixesAlt + " vs " + fixesDijkstra);
+    }
+
+    @Test
+    @DisplayName("getCostEstimate: borne admissible (jamais au-dessus de la vraie distance)")
+    void testHeuristiqueAdmissible() {
+        GrapheRoutier g = plan.getGraphe();
+        HeuristiqueAlt h = new HeuristiqueAlt(g, plan.getReperes());
+        DijkstraMultiCibles dijkstra = new DijkstraMultiCibles(g);
+
+        Random rnd = new Random(11);
+        for (int k = 0; k < 5; k++) {
+            int t = rnd.nextInt(g.getNbNoeuds());
+            Noeud cible = g.getNoeud(t);
+            for (int v = 0; v < g.getNbNoeuds(); v += 37) {
+                double vrai = dijkstra.depuis(v, new int[]{t}).getDistance(0);
+                assertTrue(h.getCostEstimate(g.getNoeud(v), cible) <= vrai + 1e-6);
+            }
+        }
+    }
+}
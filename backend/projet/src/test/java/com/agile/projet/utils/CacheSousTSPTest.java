@@ -0,0 +1,82 @@
+package com.agile.projet.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CacheSousTSP Tests")
+class CacheSousTSPTest {
+
+    private static double[][] matrice(List<Long> ids) {
+        int n = ids.size();
+        double[][] cost = new double[n][n];
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < n; j++)
+                cost[i][j] = i == j ? 0.0 : Math.abs(ids.get(i) - ids.get(j)) * 10 + (ids.get(i) * 7 + ids.get(j) * 3) % 11;
+        return cost;
+    }
+
+    /** pickup -> delivery : 1 -> 2 et 3 -> 4, exprimé en indices locaux de ids. */
+    private static int[] precedences(List<Long> ids) {
+        int[] pickup = new int[ids.size()];
+        Arrays.fill(pickup, -1);
+        pickup[ids.indexOf(2L)] = ids.indexOf(1L);
+        pickup[ids.indexOf(4L)] = ids.indexOf(3L);
+        return pickup;
+    }
+
+    @Test
+    @DisplayName("solveur: même sous-ensemble dans un autre ordre -> lu dans le cache, même tournée")
+    void testCleCanonique() {
+        CacheSousTSP cache = new CacheSousTSP(8);
+        List<Long> a = List.of(0L, 1L, 2L, 3L, 4L);
+        List<Long> b = List.of(0L, 3L, 4L, 1L, 2L);
+
+        SolveurTSP s1 = cache.solveur(matrice(a), a, precedences(a));
+        s1.solveFromId(0L);
+        SolveurTSP s2 = cache.solveur(matrice(b), b, precedences(b));
+        s2.solveFromId(0L);
+
+        assertEquals(1, cache.getNbSucces());
+        assertEquals(1, cache.getNbEchecs());
+        assertEquals(s1.getBestCost(), s2.getBestCost(), 1e-9);
+        assertEquals(s1.getBestPathIds(), s2.getBestPathIds());
+        List<Long> viaIndices = new ArrayList<>();
+        for (int i : s2.getBestPathIndices()) viaIndices.add(b.get(i));
+        assertEquals(s2.getBestPathIds(), viaIndices);
+        assertTrue(s2.isOptimaliteProuvee());
+
+        SolveurTSP sansPrecedence = cache.solveur(matrice(a), a, null);
+        sansPrecedence.solveFromId(0L);
+        assertEquals(2, cache.getNbEchecs(), "les précédences font partie de la clé");
+    }
+
+    @Test
+    @DisplayName("solveur: éviction LRU au-delà de la capacité, résultats interrompus non mémorisés")
+    void testEvictionEtEcheance() {
+        CacheSousTSP cache = new CacheSousTSP(2);
+        for (long k = 1; k <= 3; k++) {
+            List<Long> ids = List.of(0L, k, k + 10);
+            cache.solveur(matrice(ids), ids, null).solveFromId(0L);
+        }
+        assertEquals(2, cache.taille());
+
+        List<Long> premier = List.of(0L, 1L, 11L);
+        cache.solveur(matrice(premier), premier, null).solveFromId(0L);
+        assertEquals(0, cache.getNbSucces(), "la plus ancienne entrée a été évincée");
+
+        Echeance annulee = Echeance.aucune();
+        annulee.annuler();
+        cache.vider();
+        List<Long> ids = new ArrayList<>();
+        for (long k = 0; k < 19; k++) ids.add(k);
+        SolveurTSP s = cache.solveur(matrice(ids), ids, precedences(ids)).setEcheance(annulee);
+        s.solveFromId(0L);
+        assertFalse(s.isOptimaliteProuvee());
+        assertEquals(19, s.getBestPathIds().size());
+        assertEquals(0, cache.taille());
+    }
+}
@@ -0,0 +1,138 @@
+package com.agile.projet.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CalculTSPHeldKarp Tests")
+class CalculTSPHeldKarpTest {
+
+    /** Dépôt en 0, puis paires (pickup 2k+1, delivery 2k+2). */
+    private static int[] precedences(int n) {
+        int[] pickupOfDelivery = new int[n];
+        java.util.Arrays.fill(pickupOfDelivery, -1);
+        for (int d = 2; d < n; d += 2) pickupOfDelivery[d] = d - 1;
+        return pickupOfDelivery;
+    }
+
+    private static double[][] matriceAleatoire(int n, Random rnd) {
+        double[][] cost = new double[n][n];
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < n; j++)
+                cost[i][j] = i == j ? 0.0 : 1 + rnd.nextInt(1000);
+        return cost;
+    }
+
+    private static List<Long> ids(int n) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < n; i++) ids.add(100L + i);
+        return ids;
+    }
+
+    @Test
+    @DisplayName("solveFromId: même coût optimal que le Branch & Bound, précédences respectées")
+    void testMemeCoutQueBranchAndBound() {
+        Random rnd = new Random(3);
+        for (int essai = 0; essai < 20; essai++) {
+            int n = 3 + 2 * rnd.nextInt(4); // 3..9
+            double[][] cost = matriceAleatoire(n, rnd);
+            int[] pickup = precedences(n);
+
+            CalculTSP bb = new CalculTSP(cost, ids(n), pickup);
+            bb.solveFromId(100L);
+            CalculTSPHeldKarp hk = new CalculTSPHeldKarp(cost, ids(n), pickup);
+            hk.solveFromId(100L);
+
+            assertEquals(bb.getBestCost(), hk.getBestCost(), 1e-6);
+
+            List<Integer> chemin = hk.getBestPathIndices();
+            assertEquals(n, chemin.size());
+            assertEquals(0, chemin.get(0));
+            for (int d = 2; d < n; d += 2) {
+                assertTrue(chemin.indexOf(d - 1) < chemin.indexOf(d), "pickup avant delivery");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("solveFromIndex: aucune tournée faisable -> coût infini et chemin vide")
+    void testInfaisable() {
+        double inf = Double.POSITIVE_INFINITY;
+        double[][] cost = {
+                {0, 1, inf},
+                {inf, 0, inf},
+                {1, inf, 0}
+        };
+        CalculTSPHeldKarp hk = new CalculTSPHeldKarp(cost, ids(3));
+        hk.solveFromIndex(0);
+
+        assertTrue(Double.isInfinite(hk.getBestCost()));
+        assertTrue(hk.getBestPathIds().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Constructeur: table de DP plus grande que la moitié du tas -> refusée")
+    void testTableTropGrande() {
+        assertEquals(((1L << 19) * 19) * 9, CalculTSPHeldKarp.octetsTable(20));
+        int n = 40;
+        assertTrue(CalculTSPHeldKarp.octetsTable(n) > Runtime.getRuntime().maxMemory());
+        assertThrows(IllegalArgumentException.class,
+                () -> new CalculTSPHeldKarp(matriceAleatoire(n, new Random(3)), ids(n)));
+    }
+
+    @Test
+    @DisplayName("SolveurTSP.pour: Held-Karp pour les petites instances")
+    void testFabrique() {
+        int n = 5;
+        assertInstanceOf(CalculTSPHeldKarp.class,
+                SolveurTSP.pour(matriceAleatoire(n, new Random(1)), ids(n), precedences(n)));
+    }
+
+    @Test
+    @DisplayName("setEcheance: DP interrompue -> tournée gloutonne admissible")
+    void testEcheanceAnnulee() {
+        int n = 19;
+        Echeance echeance = Echeance.aucune();
+        echeance.annuler();
+        CalculTSPHeldKarp hk = new CalculTSPHeldKarp(matriceAleatoire(n, new Random(2)), ids(n), precedences(n));
+        hk.setEcheance(echeance).solveFromIndex(0);
+
+        assertFalse(hk.isOptimaliteProuvee());
+        List<Integer> chemin = hk.getBestPathIndices();
+        assertEquals(n, chemin.size());
+        for (int d = 2; d < n; d += 2) {
+            assertTrue(chemin.indexOf(d - 1) < chemin.indexOf(d), "pickup avant delivery");
+        }
+    }
+
+    @Test
+    @DisplayName("Budget mémoire commun épuisé (DP concurrentes) -> Branch & Bound, même optimum, budget rendu")
+    void testBudgetEpuise() {
+        int n = 13;
+        double[][] cost = matriceAleatoire(n, new Random(5));
+        CalculTSPHeldKarp reference = new CalculTSPHeldKarp(cost, ids(n), precedences(n));
+        reference.solveFromIndex(0);
+        int disponible = CalculTSPHeldKarp.BUDGET_KO.availablePermits();
+
+        int pris = CalculTSPHeldKarp.BUDGET_KO.drainPermits();
+        try {
+            CalculTSPHeldKarp hk = new CalculTSPHeldKarp(cost, ids(n), precedences(n));
+            hk.solveFromIndex(0);
+            assertTrue(hk.isOptimaliteProuvee());
+            assertEquals(reference.getBestCost(), hk.getBestCost(), 1e-6);
+            List<Integer> chemin = hk.getBestPathIndices();
+            assertEquals(n, chemin.size());
+            for (int d = 2; d < n; d += 2) {
+                assertTrue(chemin.indexOf(d - 1) < chemin.indexOf(d), "pickup avant delivery");
+            }
+        } finally {
+            CalculTSPHeldKarp.BUDGET_KO.release(pris);
+        }
+        assertEquals(disponible, CalculTSPHeldKarp.BUDGET_KO.availablePermits());
+    }
+}
@@ -0,0 +1,144 @@
+package com.agile.projet.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CalculTSP Tests")
+class CalculTSPTest {
+
+    private static double[][] matriceAleatoire(int n, Random rnd) {
+        double[][] cost = new double[n][n];
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < n; j++)
+                cost[i][j] = i == j ? 0.0 : 1 + rnd.nextInt(1000);
+        return cost;
+    }
+
+    private static List<Long> ids(int n) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < n; i++) ids.add(100L + i);
+        return ids;
+    }
+
+    /** Dépôt en 0, puis paires (pickup 2k+1, delivery 2k+2). */
+    private static int[] precedences(int n) {
+        int[] pickupOfDelivery = new int[n];
+        Arrays.fill(pickupOfDelivery, -1);
+        for (int d = 2; d < n; d += 2) pickupOfDelivery[d] = d - 1;
+        return pickupOfDelivery;
+    }
+
+    @Test
+    @DisplayName("setBorne: toutes les bornes donnent le même optimum, les plus fortes explorent moins")
+    void testBornesExactesEtPlusSelectives() {
+        Random rnd = new Random(5);
+        long explorationsMin = 0, explorationsReduite = 0, explorationsArbre = 0;
+        for (int essai = 0; essai < 10; essai++) {
+            int n = 11;
+            double[][] cost = matriceAleatoire(n, rnd);
+            int[] pickup = precedences(n);
+
+            CalculTSP aMin = new CalculTSP(cost, ids(n), pickup).setBorne(CalculTSP.Borne.ARETE_MIN);
+            CalculTSP reduite = new CalculTSP(cost, ids(n), pickup).setBorne(CalculTSP.Borne.MATRICE_REDUITE);
+            CalculTSP arbre = new CalculTSP(cost, ids(n), pickup).setBorne(CalculTSP.Borne.UN_ARBRE);
+            aMin.solveFromIndex(0);
+            reduite.solveFromIndex(0);
+            arbre.solveFromIndex(0);
+
+            assertEquals(aMin.getBestCost(), reduite.getBestCost(), 1e-6);
+            assertEquals(aMin.getBestCost(), arbre.getBestCost(), 1e-6);
+
+            explorationsMin += aMin.getNbNoeudsExplores();
+            explorationsReduite += reduite.getNbNoeudsExplores();
+            explorationsArbre += arbre.getNbNoeudsExplores();
+        }
+        assertTrue(explorationsReduite * 5 < explorationsMin,
+                "matrice réduite : " + explorationsReduite + " vs " + explorationsMin);
+        assertTrue(explorationsArbre <= explorationsReduite,
+                "1-tree : " + explorationsArbre + " vs " + explorationsReduite);
+    }
+
+    @Test
+    @DisplayName("setPool: résultat parallèle identique au séquentiel, y compris à coût égal")
+    void testParalleleIdentiqueAuSequentiel() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Random rnd = new Random(9);
+            for (int essai = 0; essai < 10; essai++) {
+                int n = 13;
+                double[][] cost = new double[n][n];
+                for (int i = 0; i < n; i++)
+                    for (int j = 0; j < n; j++)
+                        cost[i][j] = i == j ? 0.0 : 1 + rnd.nextInt(4); // beaucoup d'ex aequo
+                int[] pickup = precedences(n);
+
+                CalculTSP sequentiel = new CalculTSP(cost, ids(n), pickup);
+                CalculTSP parallele = new CalculTSP(cost, ids(n), pickup).setPool(pool);
+                sequentiel.solveFromIndex(0);
+                parallele.solveFromIndex(0);
+
+                assertEquals(sequentiel.getBestCost(), parallele.getBestCost(), 0.0);
+                assertEquals(sequentiel.getBestPathIds(), parallele.getBestPathIds());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("setEcheance: échéance dépassée -> tournée valide rendue, optimalité non prouvée")
+    void testEcheanceDepassee() {
+        int n = 31;
+        double[][] cost = matriceAleatoire(n, new Random(13));
+        int[] pickup = precedences(n);
+
+        CalculTSP tsp = new CalculTSP(cost, ids(n), pickup).setEcheance(Echeance.dans(0));
+        tsp.solveFromIndex(0);
+
+        assertFalse(tsp.isOptimaliteProuvee());
+        List<Integer> chemin = tsp.getBestPathIndices();
+        assertEquals(n, chemin.size());
+        for (int d = 2; d < n; d += 2) {
+            assertTrue(chemin.indexOf(d - 1) < chemin.indexOf(d), "pickup avant delivery");
+        }
+        assertFalse(Double.isInfinite(tsp.getBestCost()));
+
+        CalculTSP complet = new CalculTSP(matriceAleatoire(9, new Random(1)), ids(9), precedences(9));
+        complet.solveFromIndex(0);
+        assertTrue(complet.isOptimaliteProuvee());
+    }
+
+    @Test
+    @DisplayName("setObservateur: coûts notifiés strictement décroissants, le dernier est l'optimum")
+    void testObservateurAmeliorations() {
+        int n = 11;
+        double[][] cost = matriceAleatoire(n, new Random(21));
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (ForkJoinPool parallele : Arrays.asList(null, pool)) {
+                List<Double> couts = Collections.synchronizedList(new ArrayList<>());
+                CalculTSP tsp = new CalculTSP(cost, ids(n), precedences(n)).setPool(parallele);
+                tsp.setObservateur(couts::add);
+                tsp.solveFromIndex(0);
+
+                assertFalse(couts.isEmpty());
+                assertEquals(tsp.getBestCost(), couts.stream().mapToDouble(Double::doubleValue).min().orElseThrow(), 1e-9);
+                if (parallele == null) {
+                    for (int i = 1; i < couts.size(); i++) assertTrue(couts.get(i) < couts.get(i - 1));
+                    assertEquals(tsp.getBestCost(), couts.get(couts.size() - 1), 1e-9);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
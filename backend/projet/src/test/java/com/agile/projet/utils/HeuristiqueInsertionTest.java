@@ -0,0 +1,117 @@
+package com.agile.projet.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("HeuristiqueInsertion Tests")
+class HeuristiqueInsertionTest {
+
+    private static double[][] matriceEuclidienne(int n, Random rnd) {
+        double[] x = new double[n], y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = rnd.nextDouble() * 1000;
+            y[i] = rnd.nextDouble() * 1000;
+        }
+        double[][] cost = new double[n][n];
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < n; j++)
+                cost[i][j] = Math.hypot(x[i] - x[j], y[i] - y[j]);
+        return cost;
+    }
+
+    private static List<Long> ids(int n) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < n; i++) ids.add(100L + i);
+        return ids;
+    }
+
+    /** Dépôt en 0, puis paires (pickup 2k+1, delivery 2k+2). */
+    private static int[] precedences(int n) {
+        int[] pickupOfDelivery = new int[n];
+        Arrays.fill(pickupOfDelivery, -1);
+        for (int d = 2; d < n; d += 2) pickupOfDelivery[d] = d - 1;
+        return pickupOfDelivery;
+    }
+
+    private static void verifierTournee(List<Integer> chemin, int n) {
+        assertEquals(n, chemin.size());
+        assertEquals(0, chemin.get(0));
+        assertEquals(n, chemin.stream().distinct().count());
+        for (int d = 2; d < n; d += 2) {
+            assertTrue(chemin.indexOf(d - 1) < chemin.indexOf(d), "pickup avant delivery");
+        }
+    }
+
+    @Test
+    @DisplayName("solveFromIndex: tournée admissible proche de l'optimum")
+    void testProcheOptimum() {
+        Random rnd = new Random(4);
+        for (int essai = 0; essai < 10; essai++) {
+            int n = 15;
+            double[][] cost = matriceEuclidienne(n, rnd);
+            int[] pickup = precedences(n);
+
+            HeuristiqueInsertion h = new HeuristiqueInsertion(cost, ids(n), pickup);
+            h.solveFromIndex(0);
+            CalculTSPHeldKarp exact = new CalculTSPHeldKarp(cost, ids(n), pickup);
+            exact.solveFromIndex(0);
+
+            verifierTournee(h.getBestPathIndices(), n);
+            assertTrue(h.getBestCost() >= exact.getBestCost() - 1e-6);
+            assertTrue(h.getBestCost() <= exact.getBestCost() * 1.15,
+                    h.getBestCost() + " vs optimum " + exact.getBestCost());
+        }
+    }
+
+    @Test
+    @DisplayName("SolveurTSP.pour: mode rapide pour les grandes demandes")
+    void testGrandeDemande() {
+        int n = 401; // 200 paires
+        double[][] cost = matriceEuclidienne(n, new Random(8));
+        SolveurTSP solveur = SolveurTSP.pour(cost, ids(n), precedences(n));
+        assertInstanceOf(HeuristiqueInsertion.class, solveur);
+
+        solveur.solveFromId(100L);
+        verifierTournee(solveur.getBestPathIndices(), n);
+        assertFalse(solveur.isOptimaliteProuvee());
+    }
+
+    @Test
+    @DisplayName("Précédences enchaînées (livraison d'une paire = pickup d'une autre) : aucun noeud perdu")
+    void testPrecedencesEnchainees() {
+        // 1 -> 2 -> 3 : le noeud 2 est la livraison de 1 et le pickup de 3
+        int[] chaine = {-1, -1, 1, 2};
+        double[][] cost = matriceEuclidienne(4, new Random(1));
+        HeuristiqueInsertion h = new HeuristiqueInsertion(cost, ids(4), chaine);
+        h.solveFromIndex(0);
+        assertEquals(List.of(0, 1, 2, 3), h.getBestPathIndices());
+
+        // Chaînes et arbres aléatoires : heuristique admissible, B&B amorcé par elle = Held-Karp
+        Random rnd = new Random(12);
+        for (int essai = 0; essai < 20; essai++) {
+            int n = 9;
+            cost = matriceEuclidienne(n, rnd);
+            int[] pickup = new int[n];
+            Arrays.fill(pickup, -1);
+            for (int d = 2; d < n; d++) if (rnd.nextBoolean()) pickup[d] = 1 + rnd.nextInt(d - 1);
+
+            int[] tournee = HeuristiqueInsertion.construire(cost, pickup, 0, Echeance.jamais());
+            assertTrue(HeuristiqueInsertion.estAdmissible(tournee, pickup, 0), Arrays.toString(tournee));
+
+            CalculTSP bb = new CalculTSP(cost, ids(n), pickup);
+            bb.solveFromIndex(0);
+            CalculTSPHeldKarp hk = new CalculTSPHeldKarp(cost, ids(n), pickup);
+            hk.solveFromIndex(0);
+            assertEquals(hk.getBestCost(), bb.getBestCost(), 1e-6);
+            int[] chemin = bb.getBestPathIndices().stream().mapToInt(Integer::intValue).toArray();
+            assertTrue(HeuristiqueInsertion.estAdmissible(chemin, pickup, 0), Arrays.toString(chemin));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.agile.projet.utils;
+
+import com.agile.projet.model.GrapheRoutier;
+import com.agile.projet.model.Plan;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("HierarchieContraction Tests")
+class HierarchieContractionTest {
+
+    @Test
+    @DisplayName("plusieursVersPlusieurs: petit graphe orienté, raccourcis dépliés")
+    void testPetitGraphe() {
+        Plan plan = new Plan();
+        plan.addNoeud(1, 0, 0);
+        plan.addNoeud(2, 0, 1);
+        plan.addNoeud(3, 0, 2);
+        plan.addNoeud(4, 1, 1);
+        plan.addTroncon(1, 2, 1.0, "r1");
+        plan.addTroncon(2, 3, 1.0, "r2");
+        plan.addTroncon(1, 4, 5.0, "r3");
+        plan.addTroncon(4, 3, 5.0, "r4");
+        plan.addTroncon(3, 1, 3.0, "r5");
+        plan.construireGraphe();
+        GrapheRoutier g = plan.getGraphe();
+        HierarchieContraction ch = HierarchieContraction.construire(g);
+
+        int[] pts = {g.indexOf(1), g.indexOf(3), g.indexOf(4)};
+        HierarchieContraction.ResultatMatrice res = ch.plusieursVersPlusieurs(pts, pts);
+
+        assertEquals(2.0, res.getDistances()[0][1], 1e-9);   // a -> b -> c
+        assertEquals(3.0, res.getDistances()[1][0], 1e-9);   // c -> a
+        assertEquals(8.0, res.getDistances()[1][2], 1e-9);   // c -> a -> d
+        assertArrayEquals(new int[]{g.indexOf(1), g.indexOf(2), g.indexOf(3)}, res.getChemin(0, 1));
+    }
+
+    @Test
+    @DisplayName("plusieursVersPlusieurs: identique à Dijkstra sur grandPlan.xml")
+    void testIdentiqueDijkstraGrandPlan() {
+        Plan plan = new Plan();
+        new XmlPlanParser().parsePlan("grandPlan.xml", plan);
+        plan.construireGraphe();
+        plan.construireHierarchie();
+
+        GrapheRoutier g = plan.getGraphe();
+        Random rnd = new Random(42);
+        int[] pts = new int[25];
+        for (int i = 0; i < pts.length; i++) pts[i] = rnd.nextInt(g.getNbNoeuds());
+
+        HierarchieContraction.ResultatMatrice res = plan.getHierarchie().plusieursVersPlusieurs(pts, pts);
+        DijkstraMultiCibles dijkstra = new DijkstraMultiCibles(g);
+
+        for (int i = 0; i < pts.length; i++) {
+            DijkstraMultiCibles.Resultat ref = dijkstra.depuis(pts[i], pts);
+            for (int j = 0; j < pts.length; j++) {
+                assertEquals(ref.getDistance(j), res.getDistances()[i][j], 1e-6, "distance " + i + " -> " + j);
+
+                int[] chemin = res.getChemin(i, j);
+                if (ref.getChemin(j) == null) {
+                    assertNull(chemin);
+                    continue;
+                }
+                assertEquals(pts[i], chemin[0]);
+                assertEquals(pts[j], chemin[chemin.length - 1]);
+                assertEquals(ref.getDistance(j), longueur(g, chemin), 1e-6, "chemin " + i + " -> " + j);
+            }
+        }
+    }
+
+    /** Somme des plus petits arcs consécutifs du chemin (échoue si un arc n'existe pas). */
+    private static double longueur(GrapheRoutier g, int[] chemin) {
+        double total = 0.0;
+        for (int k = 1; k < chemin.length; k++) {
+            double best = Double.POSITIVE_INFINITY;
+            for (int e = g.debutArcs(chemin[k - 1]); e < g.finArcs(chemin[k - 1]); e++) {
+                if (g.cible(e) == chemin[k]) best = Math.min(best, g.longueur(e));
+            }
+            assertTrue(best < Double.POSITIVE_INFINITY, "arc absent dans le chemin déplié");
+            total += best;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,150 @@
+package com.agile.projet.utils;
+
+import com.agile.projet.model.Noeud;
+import com.agile.projet.model.Plan;
+import com.agile.projet.model.Troncon;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("InstantanePlan Tests")
+class InstantanePlanTest {
+
+    @TempDir
+    Path dossier;
+
+    @Test
+    @DisplayName("ecrire/lire: même plan que le XML (noeuds, tronçons, longueurs, noms de rue)")
+    void testAllerRetour() throws Exception {
+        Plan xml = new Plan();
+        new XmlPlanParser().parsePlan("moyenPlan.xml", xml);
+        byte[] empreinte = InstantanePlan.empreinte(InstantanePlan.lireRessource("moyenPlan.xml"));
+
+        Path fichier = dossier.resolve("moyenPlan.xml.plan.bin");
+        InstantanePlan.ecrire(xml, empreinte, fichier);
+        Plan lu = InstantanePlan.lire(fichier, empreinte);
+
+        assertNotNull(lu);
+        assertEquals(xml.getAllNoeuds().size(), lu.getAllNoeuds().size());
+        for (Noeud n : xml.getAllNoeuds()) {
+            Noeud m = lu.getNoeud(n.getId());
+            assertEquals(n.getLatitude(), m.getLatitude());
+            assertEquals(n.getLongitude(), m.getLongitude());
+        }
+        assertEquals(arcs(xml), arcs(lu));
+    }
+
+    @Test
+    @DisplayName("lire: XML modifié (autre empreinte) -> null, le plan doit être reparsé")
+    void testInstantanePerime() throws Exception {
+        Plan xml = new Plan();
+        new XmlPlanParser().parsePlan("petitPlan.xml", xml);
+        byte[] empreinte = InstantanePlan.empreinte(InstantanePlan.lireRessource("petitPlan.xml"));
+        Path fichier = dossier.resolve("petitPlan.xml.plan.bin");
+        InstantanePlan.ecrire(xml, empreinte, fichier);
+
+        byte[] autre = InstantanePlan.empreinte("<reseau/>".getBytes());
+        assertNull(InstantanePlan.lire(fichier, autre));
+        assertNotNull(InstantanePlan.lire(fichier, null));
+    }
+
+    @Test
+    @DisplayName("ecrire/lire: tronçon par tronçon identique au XML, non résolus et références en avant compris")
+    void testIdentiqueAuXml() throws Exception {
+        byte[] contenu = """
+                <reseau>
+                <troncon destination="2" longueur="10.5" nomRue="Rue A" origine="1"/>
+                <noeud id="1" latitude="45.0" longitude="4.0"/>
+                <noeud id="2" latitude="45.1" longitude="4.1"/>
+                <noeud id="3" latitude="45.2" longitude="4.2"/>
+                <troncon destination="3" longueur="7.0" nomRue="Rue B" origine="2"/>
+                <troncon destination="99" longueur="3.0" nomRue="Impasse" origine="3"/>
+                <troncon destination="1" longueur="12.0" origine="3"/>
+                <troncon destination="1" longueur="12.0" nomRue="Rue A" origine="2"/>
+                </reseau>
+                """.getBytes(StandardCharsets.UTF_8);
+        Plan xml = new Plan();
+        new XmlPlanParser().parsePlan(new ByteArrayInputStream(contenu), xml);
+        byte[] empreinte = InstantanePlan.empreinte(contenu);
+        Path fichier = dossier.resolve("reseau.xml.plan.bin");
+        InstantanePlan.ecrire(xml, empreinte, fichier);
+        Plan lu = InstantanePlan.lire(fichier, empreinte);
+
+        assertEquals(5, xml.getTroncons().size());
+        assertEquals(4, xml.getVraiTroncons().size());
+        assertMemesTroncons(xml.getTroncons(), lu.getTroncons());
+        assertMemesTroncons(xml.getVraiTroncons(), lu.getVraiTroncons());
+        for (int i = 0; i < xml.getNbNoeuds(); i++) assertEquals(xml.getId(i), lu.getId(i));
+    }
+
+    @Test
+    @DisplayName("charger: premier appel écrit l'instantané, le suivant le relit avec graphe, CH et repères")
+    void testChargerEcritPuisRelit() throws Exception {
+        Path fichier = InstantanePlan.cheminInstantane("petitPlan.xml");
+        Files.deleteIfExists(fichier);
+
+        Plan premier = InstantanePlan.charger("petitPlan.xml");
+        assertTrue(Files.isRegularFile(fichier));
+        Plan second = InstantanePlan.charger("petitPlan.xml");
+        Plan relu = InstantanePlan.lire(fichier, null);
+        assertNotNull(relu.getHierarchie(), "hiérarchie enregistrée dans l'instantané");
+        assertNotNull(relu.getReperes(), "repères enregistrés dans l'instantané");
+
+        assertEquals(premier.getAllNoeuds().size(), second.getAllNoeuds().size());
+        assertNotNull(second.getGraphe());
+        assertNotNull(second.getHierarchie());
+        assertNotNull(second.getReperes());
+        assertEquals(premier.getGraphe().getNbArcs(), second.getGraphe().getNbArcs());
+        assertEquals(premier.getReperes().getNbReperes(), second.getReperes().getNbReperes());
+
+        // Mêmes index, donc mêmes résultats de la hiérarchie et des repères relus
+        int[] pts = new int[10];
+        Random rnd = new Random(3);
+        for (int i = 0; i < pts.length; i++) pts[i] = rnd.nextInt(premier.getNbNoeuds());
+        double[][] d1 = premier.getHierarchie().plusieursVersPlusieurs(pts, pts).getDistances();
+        double[][] d2 = second.getHierarchie().plusieursVersPlusieurs(pts, pts).getDistances();
+        for (int i = 0; i < pts.length; i++) {
+            assertArrayEquals(d1[i], d2[i]);
+            for (int j = 0; j < pts.length; j++) {
+                assertEquals(premier.getReperes().borneInferieure(pts[i], pts[j]),
+                        second.getReperes().borneInferieure(pts[i], pts[j]));
+            }
+        }
+        assertMemesTroncons(premier.getTroncons(), second.getTroncons());
+    }
+
+    private static void assertMemesTroncons(List<Troncon> attendus, List<Troncon> lus) {
+        assertEquals(attendus.size(), lus.size());
+        for (int i = 0; i < attendus.size(); i++) {
+            Troncon a = attendus.get(i), b = lus.get(i);
+            assertEquals(a.estResolu(), b.estResolu(), "tronçon " + i);
+            assertEquals(a.getOrigine(), b.getOrigine(), "tronçon " + i);
+            assertEquals(a.getDestination(), b.getDestination(), "tronçon " + i);
+            assertEquals(a.getIndexOrigine(), b.getIndexOrigine(), "tronçon " + i);
+            assertEquals(a.getIndexDestination(), b.getIndexDestination(), "tronçon " + i);
+            assertEquals(a.getLongueur(), b.getLongueur(), "tronçon " + i);
+            assertEquals(a.getNomRue(), b.getNomRue(), "tronçon " + i);
+        }
+    }
+
+    /** Multi-ensemble des arcs (origine, destination, longueur, rue). */
+    private static Map<String, Integer> arcs(Plan plan) {
+        Map<String, Integer> arcs = new HashMap<>();
+        for (Troncon t : plan.getVraiTroncons()) {
+            String cle = t.getOrigine() + ">" + t.getDestination() + ":" + t.getLongueur() + ":" + t.getNomRue();
+            arcs.merge(cle, 1, Integer::sum);
+        }
+        return arcs;
+    }
+}
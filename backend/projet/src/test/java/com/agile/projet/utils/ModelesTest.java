@@ -0,0 +1,72 @@
+package com.agile.projet.utils;
+
+import com.agile.projet.model.Delivery;
+import com.agile.projet.model.Entrepot;
+import com.agile.projet.model.Noeud;
+import com.agile.projet.model.PickupDeliveryModel;
+import com.agile.projet.model.Plan;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Instances synthétiques partagées par les tests des solveurs à N livreurs. */
+final class ModelesTest {
+
+    private ModelesTest() {
+    }
+
+    /**
+     * Dépôt (id 0) au centre, nbDemandes paires (2r+1, 2r+2) aléatoires sur un carré de 5 km.
+     * Coûts euclidiens, précédences renseignées pour les TSP exacts, coordonnées portées par le plan (balayage).
+     */
+    static PickupDeliveryModel modele(int nbDemandes, long graine) {
+        Random rnd = new Random(graine);
+        int n = 2 * nbDemandes + 1;
+        double[] x = new double[n], y = new double[n];
+        x[0] = 2500;
+        y[0] = 2500;
+        for (int i = 1; i < n; i++) {
+            x[i] = rnd.nextDouble() * 5000;
+            y[i] = rnd.nextDouble() * 5000;
+        }
+        double[][] cost = new double[n][n];
+        List<Long> ids = new ArrayList<>();
+        int[] pickup = new int[n];
+        Arrays.fill(pickup, -1);
+        PickupDeliveryModel model = new PickupDeliveryModel();
+        model.plan = new Plan();
+        for (int i = 0; i < n; i++) {
+            ids.add((long) i);
+            if (i > 0 && i % 2 == 0) pickup[i] = i - 1;
+            model.plan.addNoeud(new Noeud(i, y[i] / 111_000.0, x[i] / 111_000.0));
+            for (int j = 0; j < n; j++) cost[i][j] = Math.hypot(x[i] - x[j], y[i] - y[j]);
+        }
+
+        model.setMatriceCout(new MatriceCout(cost));
+        model.setVertexOrder(ids);
+        model.setPickupOfDelivery(pickup);
+        model.setEntrepot(new Entrepot(0L, "8:0:0"));
+        for (int r = 0; r < nbDemandes; r++) {
+            model.demandeDelivery.addDelivery(new Delivery((long) (2 * r + 1), (long) (2 * r + 2), 60L, 120L));
+        }
+        return model;
+    }
+
+    /** Tournées partant du dépôt, chaque demande servie une fois par un seul livreur, pickup avant livraison. */
+    static void verifier(NDriverTspBalancer2.NDriverSolution sol, int nbDemandes) {
+        Set<Long> vus = new HashSet<>();
+        for (var tour : sol.getTours()) {
+            List<Long> ids = tour.getPathIds();
+            assertEquals(0L, ids.get(0));
+            for (int r = 0; r < nbDemandes; r++) {
+                int ip = ids.indexOf((long) (2 * r + 1));
+                int il = ids.indexOf((long) (2 * r + 2));
+                assertEquals(ip < 0, il < 0, "pickup et livraison dans la même tournée");
+                if (ip >= 0) assertTrue(ip < il, "pickup avant livraison");
+            }
+            for (int i = 1; i < ids.size(); i++) assertTrue(vus.add(ids.get(i)), "visite en double " + ids.get(i));
+        }
+        assertEquals(2 * nbDemandes, vus.size());
+    }
+}
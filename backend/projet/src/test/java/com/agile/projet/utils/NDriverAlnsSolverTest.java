@@ -0,0 +1,42 @@
+package com.agile.projet.utils;
+
+import com.agile.projet.model.PickupDeliveryModel;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("NDriverAlnsSolver Tests")
+class NDriverAlnsSolverTest {
+
+    @Test
+    @DisplayName("solve: 200 demandes, 4 livreurs, tournées admissibles et meilleures que la construction")
+    void testGrandeDemande() {
+        int nb = 200;
+        PickupDeliveryModel model = ModelesTest.modele(nb, 1);
+
+        var initiale = new NDriverAlnsSolver(model, 4, 4.0, 0).setMaxIterations(0).solve();
+        var alns = new NDriverAlnsSolver(model, 4, 4.0, 0).setMaxIterations(300).setGraine(7).solve();
+
+        ModelesTest.verifier(initiale, nb);
+        ModelesTest.verifier(alns, nb);
+        assertTrue(alns.getTours().size() <= 4);
+        assertTrue(alns.getGlobalTotalSeconds() < initiale.getGlobalTotalSeconds(),
+                alns.getGlobalTotalSeconds() + " vs " + initiale.getGlobalTotalSeconds());
+        assertFalse(alns.isOptimaliteProuvee());
+    }
+
+    @Test
+    @DisplayName("NDriverTspBalancer2.solve: délègue à l'ALNS au-delà du seuil, dans la limite de temps")
+    void testDelegationAvecEcheance() {
+        int nb = 60;
+        PickupDeliveryModel model = ModelesTest.modele(nb, 2);
+
+        long debut = System.nanoTime();
+        var sol = NDriverTspBalancer2.solve(model, 3, 4.0, 0, Echeance.dans(500));
+        long ms = (System.nanoTime() - debut) / 1_000_000;
+
+        ModelesTest.verifier(sol, nb);
+        assertTrue(ms < 3000, "durée " + ms + " ms");
+    }
+}
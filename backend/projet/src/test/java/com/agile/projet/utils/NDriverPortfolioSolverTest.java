@@ -0,0 +1,66 @@
+package com.agile.projet.utils;
+
+import com.agile.projet.model.PickupDeliveryModel;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("NDriverPortfolioSolver Tests")
+class NDriverPortfolioSolverTest {
+
+    /** Objectif de l'ALNS sans dépassement : somme des durées + durée max. */
+    private static double objectif(NDriverTspBalancer2.NDriverSolution sol) {
+        double max = 0.0;
+        for (var tour : sol.getTours()) max = Math.max(max, tour.getTotalTimeSeconds());
+        return sol.getGlobalTotalSeconds() + max;
+    }
+
+    @Test
+    @DisplayName("solve: trois départs (regret, préfixes, balayage), résultat au moins aussi bon qu'une ALNS seule")
+    void testPortfolioSurPoolFixe() throws Exception {
+        int nb = 80;
+        PickupDeliveryModel model = ModelesTest.modele(nb, 3);
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        AtomicInteger publications = new AtomicInteger();
+        try {
+            var seule = new NDriverAlnsSolver(model, 3, 4.0, 0).setMaxIterations(200).setGraine(0).solve();
+            var portfolio = new NDriverPortfolioSolver(model, 3, 4.0, 0)
+                    .setNbRecherches(3)
+                    .setMaxIterations(200)
+                    .setExecutor(pool)
+                    .setObservateur((s, f) -> publications.incrementAndGet())
+                    .solve();
+
+            ModelesTest.verifier(portfolio, nb);
+            assertTrue(objectif(portfolio) <= objectif(seule) + 1e-6, objectif(portfolio) + " vs " + objectif(seule));
+            assertTrue(publications.get() > 0);
+            assertFalse(pool.isShutdown(), "le pool fourni n'appartient pas au solveur");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("solve: arrêt sur stagnation bien avant la fin des itérations")
+    void testArretSurStagnation() throws Exception {
+        int nb = 60;
+        PickupDeliveryModel model = ModelesTest.modele(nb, 4);
+
+        long debut = System.nanoTime();
+        var sol = new NDriverPortfolioSolver(model, 2, 4.0, 0)
+                .setNbRecherches(4)
+                .setMaxIterations(Integer.MAX_VALUE)
+                .setStagnationMs(200)
+                .setEcheance(Echeance.dans(10_000))
+                .solve();
+        long ms = (System.nanoTime() - debut) / 1_000_000;
+
+        ModelesTest.verifier(sol, nb);
+        assertTrue(ms < 8000, "durée " + ms + " ms");
+    }
+}
@@ -0,0 +1,85 @@
+package com.agile.projet.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("NDriverTspBalancer2 Tests")
+class NDriverTspBalancer2Test {
+
+    @Test
+    @DisplayName("solve: avec durée max, chaque tournée de plusieurs demandes respecte la limite")
+    void testPrefixesSousLaLimite() {
+        int nb = 10;
+        double tempsMax = 2400;
+        var sol = NDriverTspBalancer2.solve(ModelesTest.modele(nb, 5), 3, 4.0, tempsMax);
+
+        Set<Long> vus = new HashSet<>();
+        for (var tour : sol.getTours()) {
+            List<Long> ids = tour.getPathIds();
+            assertEquals(0L, ids.get(0));
+            if (ids.size() > 3) assertTrue(tour.getTotalTimeSeconds() <= tempsMax + 1e-6, "durée " + tour.getTotalTimeSeconds());
+            for (int i = 1; i < ids.size(); i++) assertTrue(vus.add(ids.get(i)));
+        }
+        assertEquals(2 * nb, vus.size());
+        assertTrue(sol.getTours().size() > 1);
+    }
+
+    @Test
+    @DisplayName("solve avec observateur: une notification par tournée terminée, dans l'ordre des livreurs")
+    void testObservateurTourneesTerminees() {
+        List<NDriverTspBalancer2.DriverTour> terminees = new ArrayList<>();
+        List<Integer> livreursAmeliores = new ArrayList<>();
+        ObservateurSolution observateur = new ObservateurSolution() {
+            @Override
+            public void nouvelleMeilleure(NDriverTspBalancer2.NDriverSolution solution, double objectif) {
+                fail("pas de recherche ALNS sous le seuil");
+            }
+
+            @Override
+            public void sousTourneeAmelioree(int livreur, double cout) {
+                livreursAmeliores.add(livreur);
+            }
+
+            @Override
+            public void tourneeTerminee(NDriverTspBalancer2.DriverTour tour) {
+                terminees.add(tour);
+            }
+        };
+
+        var sol = NDriverTspBalancer2.solve(ModelesTest.modele(8, 3), 2, 4.0, 2400, Echeance.aucune(), observateur);
+
+        assertEquals(sol.getTours(), terminees);
+        for (int livreur : livreursAmeliores) {
+            assertTrue(livreur >= 1 && livreur <= sol.getTours().size());
+        }
+    }
+
+    @Test
+    @DisplayName("solve: grandes demandes, recherches du portfolio exécutées sur le pool fourni uniquement")
+    void testPortfolioSurLePoolFourni() {
+        int nb = 20;
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            Set<Thread> threads = ConcurrentHashMap.newKeySet();
+            ObservateurSolution observateur = (solution, objectif) -> threads.add(Thread.currentThread());
+
+            var sol = NDriverTspBalancer2.solve(ModelesTest.modele(nb, 6), 3, 4.0, 0,
+                    Echeance.dans(2000), observateur, pool);
+
+            ModelesTest.verifier(sol, nb);
+            assertFalse(threads.isEmpty());
+            for (Thread t : threads) {
+                assertTrue(t instanceof ForkJoinWorkerThread w && w.getPool() == pool, t.getName());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
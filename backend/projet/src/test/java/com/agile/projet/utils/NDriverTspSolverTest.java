@@ -0,0 +1,35 @@
+package com.agile.projet.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("NDriverTspSolver Tests")
+class NDriverTspSolverTest {
+
+    @Test
+    @DisplayName("solveForNDrivers: TSP par driver en parallèle, même résultat et même ordre qu'en séquentiel")
+    void testParalleleDeterministe() {
+        var sequentiel = NDriverTspSolver.solveForNDrivers(ModelesTest.modele(9, 4), 3, 4.0, Runnable::run);
+
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        try {
+            var parallele = NDriverTspSolver.solveForNDrivers(ModelesTest.modele(9, 4), 3, 4.0, pool);
+
+            assertEquals(3, parallele.getDrivers().size());
+            for (int i = 0; i < 3; i++) {
+                var a = sequentiel.getDrivers().get(i);
+                var b = parallele.getDrivers().get(i);
+                assertEquals(i, b.getDriverIndex());
+                assertEquals(a.getPathIds(), b.getPathIds());
+                assertEquals(a.getDurationSeconds(), b.getDurationSeconds(), 1e-9);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.agile.projet.utils;
+
+import com.agile.projet.model.Noeud;
+import com.agile.projet.model.Plan;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OrdreGlobal Tests")
+class OrdreGlobalTest {
+
+    private static final int N = 41; // dépôt + 20 paires (2r+1 -> 2r+2)
+
+    @Test
+    @DisplayName("solveFromId: chaque stratégie rend une permutation, départ en tête, précédences respectées")
+    void testStrategiesAdmissibles() {
+        Random rnd = new Random(8);
+        double[] x = new double[N], y = new double[N];
+        Plan plan = new Plan();
+        List<Long> ids = new ArrayList<>();
+        int[] pickup = new int[N];
+        Arrays.fill(pickup, -1);
+        for (int i = 0; i < N; i++) {
+            x[i] = rnd.nextDouble();
+            y[i] = rnd.nextDouble();
+            ids.add(1000L + i);
+            plan.addNoeud(new Noeud(1000L + i, 45 + y[i] / 100, 4 + x[i] / 100));
+            if (i > 0 && i % 2 == 0) pickup[i] = i - 1;
+        }
+        double[][] cost = new double[N][N];
+        for (int i = 0; i < N; i++)
+            for (int j = 0; j < N; j++) cost[i][j] = 1000 * Math.hypot(x[i] - x[j], y[i] - y[j]);
+
+        for (OrdreGlobal.Strategie s : OrdreGlobal.Strategie.values()) {
+            if (s == OrdreGlobal.Strategie.TSP_EXACT) continue; // trop gros pour l'exact, couvert par CalculTSPTest
+            for (Plan p : new Plan[]{plan, null}) {
+                OrdreGlobal ordre = new OrdreGlobal(cost, ids, pickup, s, p);
+                ordre.solveFromId(1000L);
+
+                List<Integer> chemin = ordre.getBestPathIndices();
+                assertEquals(N, new HashSet<>(chemin).size(), s.name());
+                assertEquals(0, chemin.get(0));
+                for (int d = 2; d < N; d += 2) {
+                    assertTrue(chemin.indexOf(d - 1) < chemin.indexOf(d), s + ": pickup avant delivery");
+                }
+                assertEquals(HeuristiqueInsertion.coutTournee(cost, chemin.stream().mapToInt(i -> i).toArray()),
+                        ordre.getBestCost(), 1e-6);
+                assertFalse(ordre.isOptimaliteProuvee());
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.agile.projet.utils;
+
+import com.agile.projet.model.Plan;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RegistrePlans Tests")
+class RegistrePlansTest {
+
+    @Test
+    @DisplayName("obtenir: lecteurs concurrents sur le même XML -> un seul chargement, même instance prétraitée")
+    void testUnSeulChargementConcurrent() throws Exception {
+        RegistrePlans registre = new RegistrePlans(4);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Plan>> lectures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) lectures.add(pool.submit(() -> registre.obtenir("petitPlan.xml")));
+
+            Plan plan = lectures.get(0).get();
+            for (Future<Plan> f : lectures) assertSame(plan, f.get());
+            assertEquals(1, registre.getNbChargements());
+            assertNotNull(plan.getGraphe());
+            assertNotNull(plan.getHierarchie());
+            assertNotNull(plan.getReperes());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("obtenir: éviction LRU au-delà de la capacité, échec de chargement non mémorisé")
+    void testEvictionEtEchec() throws Exception {
+        RegistrePlans registre = new RegistrePlans(1);
+        Plan petit = registre.obtenir("petitPlan.xml");
+        registre.obtenir("moyenPlan.xml");
+        assertEquals(1, registre.taille());
+
+        assertNotSame(petit, registre.obtenir("petitPlan.xml"));
+        assertEquals(3, registre.getNbChargements());
+
+        assertThrows(IOException.class, () -> registre.obtenir("absent.xml"));
+        assertEquals(1, registre.taille());
+    }
+
+    @Test
+    @DisplayName("obtenir(byte[]): contenu reçu indexé par son empreinte, partagé avec la ressource de même contenu")
+    void testContenuRecu() throws Exception {
+        RegistrePlans registre = new RegistrePlans(4);
+        byte[] petit = InstantanePlan.lireRessource("petitPlan.xml");
+        byte[] moyen = InstantanePlan.lireRessource("moyenPlan.xml");
+
+        Plan plan = registre.obtenir(petit);
+        assertSame(plan, registre.obtenir(petit.clone()));
+        assertNotSame(plan, registre.obtenir(moyen));
+        assertSame(plan, registre.obtenir("petitPlan.xml"));
+        assertEquals(2, registre.getNbChargements());
+        assertNotNull(plan.getHierarchie());
+
+        assertThrows(IOException.class, () -> registre.obtenir("<reseau>".getBytes()));
+        assertEquals(2, registre.taille());
+    }
+
+    @Test
+    @DisplayName("obtenirEpingle: plan jamais évincé et hors capacité, les autres restent en LRU")
+    void testEpingle() throws Exception {
+        RegistrePlans registre = new RegistrePlans(1);
+        Plan petit = registre.obtenirEpingle("petitPlan.xml");
+        registre.obtenir("moyenPlan.xml");
+        registre.obtenir("grandPlan.xml");
+        assertEquals(2, registre.taille());
+
+        assertSame(petit, registre.obtenir("petitPlan.xml"));
+        registre.setCapacite(1);
+        assertSame(petit, registre.obtenir("petitPlan.xml"));
+        assertEquals(3, registre.getNbChargements());
+    }
+}
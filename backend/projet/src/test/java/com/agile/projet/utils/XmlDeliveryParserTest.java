@@ -7,7 +7,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.FileNotFoundException;
+import java.io.InputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -203,4 +205,17 @@ class XmlDeliveryParserTest {
             parser.parse("deliveries_malformed_entrepot.xml", demande);
         });
     }
+
+    @Test
+    @DisplayName("compterLivraisons: same count as parse, streamed without building deliveries")
+    void testCompterLivraisons() throws Exception {
+        for (String demandeXml : new String[]{"requests/demandePetit1.xml", "requests/demandeGrand9.xml"}) {
+            DemandeDelivery lue = new DemandeDelivery();
+            parser.parse(demandeXml, lue);
+            try (InputStream is = getClass().getClassLoader().getResourceAsStream(demandeXml)) {
+                assertEquals(lue.getDeliveries().size(), XmlDeliveryParser.compterLivraisons(is));
+            }
+        }
+        assertEquals(0, XmlDeliveryParser.compterLivraisons(new ByteArrayInputStream("<demandeDeLivraisons/>".getBytes())));
+    }
 }
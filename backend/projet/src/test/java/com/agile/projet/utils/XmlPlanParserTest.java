@@ -0,0 +1,86 @@
+package com.agile.projet.utils;
+
+import com.agile.projet.model.Noeud;
+import com.agile.projet.model.Plan;
+import com.agile.projet.model.Troncon;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("XmlPlanParser Tests")
+class XmlPlanParserTest {
+
+    @Test
+    @DisplayName("parsePlan: mêmes noeuds et tronçons que le DOM, tronçons résolus sans joinNoeudTroncons")
+    void testMemeContenuQueDom() throws Exception {
+        Plan plan = new Plan();
+        new XmlPlanParser().parsePlan("moyenPlan.xml", plan);
+
+        Document doc;
+        try (InputStream is = getClass().getClassLoader().getResourceAsStream("moyenPlan.xml")) {
+            doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(is);
+        }
+        NodeList noeuds = doc.getElementsByTagName("noeud");
+        NodeList troncons = doc.getElementsByTagName("troncon");
+
+        assertEquals(noeuds.getLength(), plan.getAllNoeuds().size());
+        assertEquals(troncons.getLength(), plan.getTroncons().size());
+        assertEquals(troncons.getLength(), plan.getVraiTroncons().size());
+
+        for (int i = 0; i < troncons.getLength(); i += 97) {
+            Element e = (Element) troncons.item(i);
+            Troncon t = plan.getVraiTroncons().get(i);
+            assertEquals(Long.parseLong(e.getAttribute("origine")), t.getOrigineNoeud().getId());
+            assertEquals(Long.parseLong(e.getAttribute("destination")), t.getDestinationNoeud().getId());
+            assertEquals(t.getOrigine(), t.getOrigineNoeud().getId());
+            assertEquals(Double.parseDouble(e.getAttribute("longueur")), t.getLongueur());
+            assertEquals(e.getAttribute("nomRue"), t.getNomRue());
+        }
+        Element n0 = (Element) noeuds.item(0);
+        Noeud noeud = plan.getNoeud(Long.parseLong(n0.getAttribute("id")));
+        assertEquals(Double.parseDouble(n0.getAttribute("latitude")), noeud.getLatitude());
+
+        plan.joinNoeudTroncons();
+        assertEquals(troncons.getLength(), plan.getVraiTroncons().size(), "joinNoeudTroncons sans effet");
+    }
+
+    @Test
+    @DisplayName("parsePlan: tronçon déclaré avant ses noeuds résolu en fin de lecture, ordre du fichier conservé")
+    void testReferenceEnAvant() throws Exception {
+        String xml = """
+                <reseau>
+                <troncon destination="2" longueur="10.5" nomRue="Rue A" origine="1"/>
+                <noeud id="1" latitude="45.0" longitude="4.0"/>
+                <noeud id="2" latitude="45.1" longitude="4.1"/>
+                <troncon destination="1" longueur="12.0" nomRue="Rue A" origine="2"/>
+                <troncon destination="3" longueur="8.0" nomRue="Rue B" origine="2"/>
+                <noeud id="3" latitude="45.2" longitude="4.2"/>
+                <troncon destination="2" longueur="8.0" origine="3"/>
+                </reseau>
+                """;
+        Plan plan = new Plan();
+        new XmlPlanParser().parsePlan(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), plan);
+
+        assertEquals(4, plan.getVraiTroncons().size());
+        for (Troncon t : plan.getVraiTroncons()) {
+            assertNotNull(t.getOrigineNoeud());
+            assertNotNull(t.getDestinationNoeud());
+        }
+        assertSame(plan.getVraiTroncons().get(0).getNomRue(), plan.getVraiTroncons().get(1).getNomRue());
+        long[][] ordre = {{1, 2}, {2, 1}, {2, 3}, {3, 2}};
+        for (int i = 0; i < ordre.length; i++) {
+            assertEquals(ordre[i][0], plan.getVraiTroncons().get(i).getOrigine());
+            assertEquals(ordre[i][1], plan.getVraiTroncons().get(i).getDestination());
+        }
+        assertEquals("", plan.getVraiTroncons().get(3).getNomRue(), "nomRue absent : \"\" comme le DOM");
+    }
+}